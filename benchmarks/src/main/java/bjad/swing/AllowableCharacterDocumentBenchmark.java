@@ -0,0 +1,147 @@
+package bjad.swing;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the allowable character document used by the 
+ * TextField and the BJADComboBox editor, typing keystrokes
+ * and pasting a block of text into a field restricted to
+ * letters and digits. The block is also pasted with some 
+ * characters that are not allowed into a field set to strip
+ * them and truncate the text to half the block.
+ *
+ * @author 
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AllowableCharacterDocumentBenchmark
+{
+   private static final String ALLOWED = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+   
+   /**
+    * The number of characters pasted into the field.
+    */
+   @Param({"64", "4096", "1048576"})
+   public int pasteLength;
+   
+   private AllowableCharacterDocument doc;
+   private String[] keystrokes;
+   private String paste;
+   private AllowableCharacterDocument stripDoc;
+   private String dirtyPaste;
+   
+   /**
+    * Creates the restricted field and the text to type 
+    * and paste into it.
+    */
+   @Setup
+   public void setup()
+   {
+      TextField field = new TextField();
+      field.setBeepOnInvalidKeyEntry(false);
+      field.addAllowableCharactersFromString(ALLOWED);
+      doc = field.doc;
+      
+      keystrokes = new String[20];
+      for (int index = 0; index != keystrokes.length; ++index)
+      {
+         keystrokes[index] = String.valueOf(ALLOWED.charAt(index));
+      }
+      
+      StringBuilder sb = new StringBuilder(pasteLength);
+      for (int index = 0; index != pasteLength; ++index)
+      {
+         sb.append(ALLOWED.charAt(index % ALLOWED.length()));
+      }
+      paste = sb.toString();
+      
+      // Every sixteenth character is a space, which is not allowed.
+      for (int index = 15; index < pasteLength; index += 16)
+      {
+         sb.setCharAt(index, ' ');
+      }
+      dirtyPaste = sb.toString();
+      
+      TextField stripField = new TextField();
+      stripField.setBeepOnInvalidKeyEntry(false);
+      stripField.addAllowableCharactersFromString(ALLOWED);
+      stripField.setMaxLength(pasteLength / 2 + 4);
+      stripField.setStripInvalidCharacters(true);
+      stripField.setTruncateToMaxLength(true);
+      stripDoc = stripField.doc;
+   }
+   
+   /**
+    * Types twenty characters into the empty field one 
+    * at a time.
+    * 
+    * @return
+    *    The length of the document after typing.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int typeKeystrokes() throws BadLocationException
+   {
+      doc.remove(0, doc.getLength());
+      for (String keystroke : keystrokes)
+      {
+         doc.insertString(doc.getLength(), keystroke, null);
+      }
+      return doc.getLength();
+   }
+   
+   /**
+    * Pastes the block of text into the empty field.
+    * 
+    * @return
+    *    The length of the document after pasting.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int pasteText() throws BadLocationException
+   {
+      doc.remove(0, doc.getLength());
+      doc.insertString(0, paste, null);
+      return doc.getLength();
+   }
+   
+   /**
+    * Pastes the block of text with characters that are not 
+    * allowed into a field holding some text, which strips the
+    * characters and truncates the text.
+    * 
+    * @return
+    *    The length of the document after pasting.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int pasteStrippedAndTruncated() throws BadLocationException
+   {
+      stripDoc.remove(0, stripDoc.getLength());
+      stripDoc.insertString(0, "ABCD", null);
+      stripDoc.insertString(2, dirtyPaste, null);
+      return stripDoc.getLength();
+   }
+}
@@ -0,0 +1,41 @@
+package bjad.swing;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar, running the JMH benchmarks
+ * with the GC profiler always attached so each benchmark reports
+ * its allocation rate along with its throughput. Any of the 
+ * standard JMH command line options can be passed, such as a 
+ * regular expression to only run some of the benchmarks.
+ *
+ * @author 
+ *   Ben Dougall
+ */
+public class BenchmarkRunner
+{
+   /**
+    * Runs the benchmarks. 
+    * 
+    * @param args
+    *    The JMH command line options.
+    * @throws RunnerException
+    *    Thrown if the benchmarks fail to run.
+    * @throws CommandLineOptionException
+    *    Thrown if the command line options are invalid.
+    */
+   public static void main(String[] args) throws RunnerException, CommandLineOptionException
+   {
+      Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+      new Runner(options).run();
+   }
+}
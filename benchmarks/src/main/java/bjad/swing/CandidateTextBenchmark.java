@@ -0,0 +1,118 @@
+package bjad.swing;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks typing a keystroke into the middle of a TextField 
+ * holding long text, with a validator that looks at the text 
+ * around the caret. The validator reads either the spliced view
+ * of the candidate text or the copy built by getFullText. The 
+ * documents are detached from their fields once created, so the
+ * text views of the fields do not re-measure the line on every 
+ * keystroke.
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CandidateTextBenchmark
+{
+   /**
+    * The number of characters in the field before the keystroke.
+    */
+   @Param({"64", "65536", "1048576"})
+   public int contentLength;
+
+   private AllowableCharacterDocument viewDoc;
+   private AllowableCharacterDocument copyDoc;
+   private int caret;
+
+   /**
+    * Creates the two fields and fills them with text.
+    * 
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Setup
+   public void setup() throws BadLocationException
+   {
+      StringBuilder sb = new StringBuilder(contentLength);
+      for (int index = 0; index != contentLength; ++index)
+      {
+         sb.append((char)('a' + index % 26));
+      }
+      String content = sb.toString();
+      caret = contentLength / 2;
+
+      TextField viewField = new TextField();
+      viewField.setBeepOnInvalidKeyEntry(false);
+      viewField.doc.addValidator(edit -> 
+         Character.isLetter(edit.getCandidateText().charAt(edit.getOffset())));
+      viewDoc = viewField.doc;
+      viewField.setDocument(new PlainDocument());
+      viewDoc.insertString(0, content, null);
+
+      TextField copyField = new TextField();
+      copyField.setBeepOnInvalidKeyEntry(false);
+      copyField.doc.addValidator(edit -> 
+         Character.isLetter(edit.getDocument().getFullText(edit.getOffset(), edit.getText(), edit.getAttributes()).charAt(edit.getOffset())));
+      copyDoc = copyField.doc;
+      copyField.setDocument(new PlainDocument());
+      copyDoc.insertString(0, content, null);
+   }
+
+   /**
+    * Types and deletes a keystroke, validated against the view.
+    *
+    * @return
+    *    The length of the document after the keystroke.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int keystrokeWithView() throws BadLocationException
+   {
+      viewDoc.insertString(caret, "x", null);
+      int length = viewDoc.getLength();
+      viewDoc.remove(caret, 1);
+      return length;
+   }
+
+   /**
+    * Types and deletes a keystroke, validated against a copy 
+    * of the full text.
+    *
+    * @return
+    *    The length of the document after the keystroke.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int keystrokeWithCopy() throws BadLocationException
+   {
+      copyDoc.insertString(caret, "x", null);
+      int length = copyDoc.getLength();
+      copyDoc.remove(caret, 1);
+      return length;
+   }
+}
@@ -0,0 +1,82 @@
+package bjad.swing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the country dropdown, both creating it from the
+ * packaged ISO 3166-1 list and finding countries by text.
+ *
+ * @author 
+ *   Ben Dougall
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CountryDropdownBenchmark
+{
+   /**
+    * State holding the dropdown to search within, 
+    * created once for the trial.
+    */
+   @State(Scope.Thread)
+   public static class LookupState
+   {
+      /**
+       * The text to find, covering codes, names, a country at 
+       * the end of the list, and text that does not match.
+       */
+      @Param({"CAN", "ca", "Canada", "Zimbabwe", "Not a country"})
+      public String text;
+      
+      CountryDropdown dropdown;
+      
+      /**
+       * Creates the dropdown from the packaged list.
+       */
+      @Setup
+      public void setup()
+      {
+         dropdown = CountryDropdown.createDropdownFromPackagedISO3166List();
+      }
+   }
+   
+   /**
+    * Finds the country matching the text in the dropdown.
+    * 
+    * @param state
+    *    The dropdown and text to find.
+    * @return
+    *    The index of the matching country.
+    */
+   @Benchmark
+   public int findCountryByText(LookupState state)
+   {
+      return state.dropdown.findCountryByText(state.text);
+   }
+   
+   /**
+    * Creates the dropdown from the packaged ISO 3166-1 list.
+    * 
+    * @return
+    *    The created dropdown.
+    */
+   @Benchmark
+   public CountryDropdown createDropdownFromPackagedISO3166List()
+   {
+      return CountryDropdown.createDropdownFromPackagedISO3166List();
+   }
+}
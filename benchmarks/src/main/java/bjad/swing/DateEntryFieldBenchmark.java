@@ -0,0 +1,115 @@
+package bjad.swing;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JTextField;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a focus change on a date entry field, gaining focus
+ * to show the CCYYMMDD entry and losing it to show the formatted
+ * date again.
+ * <p>
+ * The document swap benchmark replays what the field used to do
+ * on each focus change on a plain text field, replacing its 
+ * document and parsing and formatting with SimpleDateFormat, as
+ * a reference for the work the single document saves.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DateEntryFieldBenchmark
+{
+   private DateEntryField dateField;
+
+   private JTextField swappingField;
+   private Document displayDoc;
+   private Document entryDoc;
+   private Date swappingDate;
+   private SimpleDateFormat entryFormat;
+   private SimpleDateFormat displayFormat;
+
+   /**
+    * Creates the date field with a date entered, and the
+    * text field with the two documents it swaps between.
+    */
+   @Setup
+   public void setup()
+   {
+      dateField = new DateEntryField();
+      dateField.setEnteredLocalDate(LocalDate.of(2022, 1, 1));
+      dateField.setSize(150, 25);
+
+      swappingField = new JTextField();
+      swappingField.setSize(150, 25);
+      displayDoc = swappingField.getDocument();
+      entryDoc = new PlainDocument();
+      entryFormat = new SimpleDateFormat("yyyyMMdd");
+      displayFormat = new SimpleDateFormat("MMM d, yyyy");
+      swappingDate = dateField.getEnteredDate();
+      swappingField.setText(displayFormat.format(swappingDate));
+   }
+
+   /**
+    * Gains and then loses focus on the date field.
+    *
+    * @return
+    *    The field.
+    */
+   @Benchmark
+   public DateEntryField focusCycle()
+   {
+      dateField.focusGained(null);
+      dateField.focusLost(null);
+      return dateField;
+   }
+
+   /**
+    * Swaps the text field to the entry document and back to
+    * the display document, parsing and formatting the date the
+    * way the field used to.
+    *
+    * @return
+    *    The field.
+    * @throws ParseException
+    *    Not thrown, the entry is always a valid date.
+    */
+   @Benchmark
+   public JTextField documentSwapCycle() throws ParseException
+   {
+      // Focus gained
+      swappingField.setDocument(entryDoc);
+      swappingField.setText(entryFormat.format(swappingDate));
+      swappingField.selectAll();
+      
+      // Focus lost
+      swappingField.setText(swappingField.getText().trim());
+      swappingDate = entryFormat.parse(swappingField.getText().trim());
+      swappingField.setDocument(displayDoc);
+      swappingField.setText(displayFormat.format(swappingDate));
+      return swappingField;
+   }
+}
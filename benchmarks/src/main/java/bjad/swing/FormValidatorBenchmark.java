@@ -0,0 +1,128 @@
+package bjad.swing;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks validating a form of 300 fields, a third each of 
+ * text, masked and money fields, spread over nested panels with
+ * a required rule on every field. A new validator checks every
+ * field, while validating again with the same validator only 
+ * checks the field changed since.
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FormValidatorBenchmark
+{
+   private static final int FIELDS = 300;
+   private static final FieldRule REQUIRED = FieldRule.required("Required");
+
+   private JPanel form;
+   private FormValidator validator;
+   private TextField edited;
+   private int next = 0;
+
+   /**
+    * Creates the form and fills in the fields.
+    */
+   @Setup
+   public void setup()
+   {
+      form = new JPanel();
+      InputMask postalCode = InputMask.compileMask("U#U #U#");
+      JPanel section = null;
+      for (int index = 0; index != FIELDS; ++index)
+      {
+         if (index % 10 == 0)
+         {
+            section = new JPanel();
+            form.add(section);
+         }
+         AbstractRestrictiveTextField field;
+         switch (index % 3)
+         {
+         case 0:
+            TextField text = new TextField();
+            text.setText("Value " + index);
+            field = text;
+            break;
+         case 1:
+            TextField masked = new TextField();
+            masked.setInputMask(postalCode);
+            masked.setText("K1A 0B" + index % 10);
+            field = masked;
+            break;
+         default:
+            NumericTextField money = NumericTextField.newMoneyField();
+            money.setValue(index * 1.25);
+            field = money;
+            break;
+         }
+         section.add(field);
+      }
+      edited = (TextField)((JPanel)form.getComponent(0)).getComponent(0);
+      validator = newValidator();
+      validator.validate();
+   }
+
+   /**
+    * Validates the form with a new validator.
+    *
+    * @return
+    *    The report.
+    */
+   @Benchmark
+   public FormValidationReport validateNewValidator()
+   {
+      return newValidator().validate();
+   }
+
+   /**
+    * Changes one field, then validates the form again.
+    *
+    * @return
+    *    The report.
+    */
+   @Benchmark
+   public FormValidationReport validateAfterOneEdit()
+   {
+      edited.setText((next ^= 1) == 0 ? "Even" : "Odd");
+      return validator.validate();
+   }
+
+   /**
+    * Creates a validator for the form with a required rule 
+    * on every field.
+    *
+    * @return
+    *    The validator.
+    */
+   private FormValidator newValidator()
+   {
+      FormValidator formValidator = new FormValidator(form);
+      for (AbstractRestrictiveTextField field : formValidator.getFields())
+      {
+         formValidator.addRule(field, REQUIRED);
+      }
+      return formValidator;
+   }
+}
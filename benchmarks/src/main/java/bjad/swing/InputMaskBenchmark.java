@@ -0,0 +1,126 @@
+package bjad.swing;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks typing a keystroke at the end of a TextField holding
+ * a long list of part numbers, checked either by the input mask of
+ * the field or by a PatternValidator running java.util.regex over
+ * the whole text. The documents are detached from their fields 
+ * once created, so the text views of the fields are not measured.
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class InputMaskBenchmark
+{
+   private static final String PART_NUMBERS = "[A-Z]{2}-\\d{4}(,[A-Z]{2}-\\d{4})*";
+
+   /**
+    * The number of part numbers in the field before the keystroke.
+    */
+   @Param({"1", "64", "4096"})
+   public int partCount;
+
+   private AllowableCharacterDocument maskDoc;
+   private AllowableCharacterDocument regexDoc;
+
+   /**
+    * Creates the two fields and fills them with part numbers.
+    * 
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Setup
+   public void setup() throws BadLocationException
+   {
+      StringBuilder sb = new StringBuilder(partCount * 8);
+      for (int index = 0; index != partCount; ++index)
+      {
+         sb.append(index == 0 ? "" : ",").append("AB-").append(1000 + index % 9000);
+      }
+      String content = sb.toString();
+
+      TextField maskField = new TextField();
+      maskField.setBeepOnInvalidKeyEntry(false);
+      maskField.setInputMask(InputMask.compileRegex(PART_NUMBERS));
+      maskDoc = maskField.doc;
+      maskDoc.insertString(0, content, null);
+      maskField.setDocument(new PlainDocument());
+
+      TextField regexField = new TextField();
+      regexField.setBeepOnInvalidKeyEntry(false);
+      regexField.addValidator(new PatternValidator(PART_NUMBERS));
+      regexDoc = regexField.doc;
+      regexDoc.insertString(0, content, null);
+      regexField.setDocument(new PlainDocument());
+   }
+
+   /**
+    * Types and deletes a comma at the end of the mask field.
+    *
+    * @return
+    *    The length of the document after the keystroke.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int keystrokeWithMask() throws BadLocationException
+   {
+      return keystroke(maskDoc);
+   }
+
+   /**
+    * Types and deletes a comma at the end of the regex field.
+    *
+    * @return
+    *    The length of the document after the keystroke.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int keystrokeWithRegex() throws BadLocationException
+   {
+      return keystroke(regexDoc);
+   }
+
+   /**
+    * Types and deletes a comma at the end of the document.
+    *
+    * @param doc
+    *    The document to type into.
+    * @return
+    *    The length of the document after the keystroke.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   private static int keystroke(AllowableCharacterDocument doc) throws BadLocationException
+   {
+      int end = doc.getLength();
+      doc.insertString(end, ",", null);
+      int length = doc.getLength();
+      doc.remove(end, 1);
+      return length;
+   }
+}
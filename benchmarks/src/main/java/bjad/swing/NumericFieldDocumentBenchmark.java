@@ -0,0 +1,94 @@
+package bjad.swing;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the numeric document used by the NumericTextField,
+ * both typing a value one keystroke at a time and validating 
+ * the full text of a value.
+ *
+ * @author 
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NumericFieldDocumentBenchmark
+{
+   /**
+    * The value typed into the field.
+    */
+   @Param({"1234.56", "-98765432.1"})
+   public String value;
+   
+   private NumericFieldDocument doc;
+   private String[] keystrokes;
+   
+   /**
+    * Creates the field and splits the value into the 
+    * keystrokes to type.
+    */
+   @Setup
+   public void setup()
+   {
+      NumericTextField field = NumericTextField.newDecimalFieldWithLimit(new BigDecimal("100000000"));
+      field.setBeepOnInvalidKeyEntry(false);
+      doc = field.numDoc;
+      
+      keystrokes = new String[value.length()];
+      for (int index = 0; index != keystrokes.length; ++index)
+      {
+         keystrokes[index] = String.valueOf(value.charAt(index));
+      }
+   }
+   
+   /**
+    * Types the value into the empty field one character
+    * at a time.
+    * 
+    * @return
+    *    The length of the document after typing.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int typeValue() throws BadLocationException
+   {
+      doc.remove(0, doc.getLength());
+      for (String keystroke : keystrokes)
+      {
+         doc.insertString(doc.getLength(), keystroke, null);
+      }
+      return doc.getLength();
+   }
+   
+   /**
+    * Validates the full text of the value.
+    * 
+    * @return
+    *    The validated value.
+    */
+   @Benchmark
+   public BigDecimal verifyContents()
+   {
+      return doc.verifyContents(value);
+   }
+}
@@ -0,0 +1,146 @@
+package bjad.swing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks filling a form of 500 money fields from code,
+ * comparing setValue with loading the values in bulk. Each
+ * invocation alternates between two sets of values so every
+ * field changes, other than reloading the same values, which 
+ * loadValues skips. Reading the totals of the unchanged form is
+ * also compared, as BigDecimal values and as minor units.
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NumericTextFieldBenchmark
+{
+   private static final int ROWS = 500;
+
+   private NumericTextField[] fields;
+   private BigDecimal[][] values;
+   private List<Map<NumericTextField, BigDecimal>> rows;
+   private int next = 0;
+
+   /**
+    * Creates the fields and the two sets of values.
+    */
+   @Setup
+   public void setup()
+   {
+      fields = new NumericTextField[ROWS];
+      values = new BigDecimal[2][ROWS];
+      rows = new ArrayList<>(2);
+      rows.add(new LinkedHashMap<>());
+      rows.add(new LinkedHashMap<>());
+      for (int index = 0; index != ROWS; ++index)
+      {
+         fields[index] = NumericTextField.newMoneyField(new BigDecimal("1000000"));
+         values[0][index] = BigDecimal.valueOf(index * 1013L + 17, 2);
+         values[1][index] = BigDecimal.valueOf(index * 7919L + 3, 2);
+         rows.get(0).put(fields[index], values[0][index]);
+         rows.get(1).put(fields[index], values[1][index]);
+      }
+      NumericTextField.loadValues(rows.get(0));
+   }
+
+   /**
+    * Sets the values with setValue, one field at a time.
+    *
+    * @return
+    *    The fields.
+    */
+   @Benchmark
+   public NumericTextField[] setValue()
+   {
+      BigDecimal[] row = values[next];
+      next ^= 1;
+      for (int index = 0; index != ROWS; ++index)
+      {
+         fields[index].setValue(row[index]);
+      }
+      return fields;
+   }
+
+   /**
+    * Loads the values with loadValues.
+    *
+    * @return
+    *    True if all the values were loaded.
+    */
+   @Benchmark
+   public boolean loadValues()
+   {
+      Map<NumericTextField, BigDecimal> row = rows.get(next);
+      next ^= 1;
+      return NumericTextField.loadValues(row);
+   }
+
+   /**
+    * Loads the same values the fields already show.
+    *
+    * @return
+    *    True if all the values were loaded.
+    */
+   @Benchmark
+   public boolean reloadSameValues()
+   {
+      return NumericTextField.loadValues(rows.get(0));
+   }
+
+   /**
+    * Totals the fields with getDecimalValue.
+    *
+    * @return
+    *    The total of the fields.
+    */
+   @Benchmark
+   public BigDecimal totalDecimalValues()
+   {
+      BigDecimal total = BigDecimal.ZERO;
+      for (int index = 0; index != ROWS; ++index)
+      {
+         total = total.add(fields[index].getDecimalValue());
+      }
+      return total;
+   }
+
+   /**
+    * Totals the fields with getMinorUnits.
+    *
+    * @return
+    *    The total of the fields in minor units.
+    */
+   @Benchmark
+   public long totalMinorUnits()
+   {
+      long total = 0;
+      for (int index = 0; index != ROWS; ++index)
+      {
+         total += fields[index].getMinorUnits();
+      }
+      return total;
+   }
+}
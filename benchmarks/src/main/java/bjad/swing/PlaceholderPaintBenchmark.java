@@ -0,0 +1,92 @@
+package bjad.swing;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks AbstractRestrictiveTextField.paintComponent by 
+ * painting fields into an offscreen image, both an empty field 
+ * that draws its placeholder and a field with text that does not.
+ *
+ * @author 
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PlaceholderPaintBenchmark
+{
+   private TextField emptyField;
+   private TextField filledField;
+   private BufferedImage image;
+   private Graphics2D graphics;
+   
+   /**
+    * Creates the fields and the image to paint them into.
+    */
+   @Setup
+   public void setup()
+   {
+      emptyField = new TextField();
+      emptyField.setPlaceholderText("Enter the customer's name");
+      emptyField.setSize(300, 25);
+      
+      filledField = new TextField("Ben Dougall");
+      filledField.setPlaceholderText("Enter the customer's name");
+      filledField.setSize(300, 25);
+      
+      image = new BufferedImage(300, 25, BufferedImage.TYPE_INT_ARGB);
+      graphics = image.createGraphics();
+   }
+   
+   /**
+    * Releases the graphics of the offscreen image.
+    */
+   @TearDown
+   public void tearDown()
+   {
+      graphics.dispose();
+   }
+   
+   /**
+    * Paints the empty field, which draws the placeholder.
+    * 
+    * @return
+    *    The image painted into.
+    */
+   @Benchmark
+   public BufferedImage paintEmptyField()
+   {
+      emptyField.paintComponent(graphics);
+      return image;
+   }
+   
+   /**
+    * Paints the field with text, which skips the placeholder.
+    * 
+    * @return
+    *    The image painted into.
+    */
+   @Benchmark
+   public BufferedImage paintFilledField()
+   {
+      filledField.paintComponent(graphics);
+      return image;
+   }
+}
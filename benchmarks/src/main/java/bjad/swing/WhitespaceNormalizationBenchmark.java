@@ -0,0 +1,90 @@
+package bjad.swing;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks pasting whitespace heavy text into the start of an
+ * empty TextField under each whitespace policy. The text starts
+ * with a long indent, and every word is separated by a run of
+ * spaces and tabs.
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class WhitespaceNormalizationBenchmark
+{
+   /**
+    * The policy the field normalizes the whitespace with.
+    */
+   @Param({"TRIM_LEADING", "COLLAPSE", "STRIP"})
+   public WhitespacePolicy policy;
+
+   /**
+    * The number of whitespace characters the text starts with,
+    * which the text to paste is also padded to in words.
+    */
+   @Param({"1024", "65536"})
+   public int indent;
+
+   private AllowableCharacterDocument doc;
+   private String paste;
+
+   /**
+    * Creates the field and the text to paste into it.
+    */
+   @Setup
+   public void setup()
+   {
+      TextField field = new TextField();
+      field.setBeepOnInvalidKeyEntry(false);
+      field.setWhitespacePolicy(policy);
+      doc = field.doc;
+
+      StringBuilder sb = new StringBuilder(indent * 2);
+      for (int index = 0; index != indent; ++index)
+      {
+         sb.append(index % 4 == 0 ? '\t' : ' ');
+      }
+      while (sb.length() < indent * 2)
+      {
+         sb.append("word \t  ");
+      }
+      paste = sb.toString();
+   }
+
+   /**
+    * Pastes the text into the empty field.
+    *
+    * @return
+    *    The length of the document after pasting.
+    * @throws BadLocationException
+    *    Not expected.
+    */
+   @Benchmark
+   public int pasteText() throws BadLocationException
+   {
+      doc.remove(0, doc.getLength());
+      doc.insertString(0, paste, null);
+      return doc.getLength();
+   }
+}
@@ -0,0 +1,128 @@
+package bjad.swing.nav;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks searching the quick open index of 200 modules of 50
+ * entries each, named from a small set of words so most entries
+ * share the characters of the queries.
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NavSearchBenchmark
+{
+   private static final String[] WORDS = { "account", "invoice", "vendor", "stock", "payment", "report", "ledger",
+      "journal", "asset", "budget", "order", "customer", "tax", "payroll", "employee" };
+
+   @Param({"inv", "vndpay", "ledger journal", "e"})
+   public String query;
+
+   private NavSearchIndex index;
+
+   /**
+    * Creates the modules and indexes them.
+    */
+   @Setup
+   public void setup()
+   {
+      Random random = new Random(3);
+      List<BJADNavModule> modules = new ArrayList<>();
+      for (int moduleIndex = 0; moduleIndex != 200; ++moduleIndex)
+      {
+         BJADNavModule module = new BJADNavModule();
+         module.setDisplayName(name(random, moduleIndex));
+         module.setOrdinial(moduleIndex);
+         for (int entryIndex = 0; entryIndex != 50; ++entryIndex)
+         {
+            BJADModuleEntry entry = new BJADModuleEntry();
+            entry.setDisplayName(name(random, entryIndex));
+            entry.setNavPanelSupplier(EmptyPanel::new);
+            module.getEntries().add(entry);
+         }
+         modules.add(module);
+      }
+      index = new NavSearchIndex(BJADNavModule.sortModules(modules));
+   }
+
+   /**
+    * Searches the index for the best 12 matches.
+    *
+    * @return
+    *    The matches.
+    */
+   @Benchmark
+   public List<NavSearchIndex.SearchHit> search()
+   {
+      return index.search(query, 12);
+   }
+
+   private static String name(Random random, int number)
+   {
+      return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + number;
+   }
+
+   /**
+    * Panel supplied for the entries, never constructed.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class EmptyPanel extends AbstractBJADNavPanel
+   {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public String getPanelTitle()
+      {
+         return "";
+      }
+
+      @Override
+      public JComponent getComponentForDefaultFocus()
+      {
+         return null;
+      }
+
+      @Override
+      public void onPanelDisplay()
+      {
+         ; //unused
+      }
+
+      @Override
+      public boolean canPanelClose()
+      {
+         return true;
+      }
+
+      @Override
+      public void onPanelClosed()
+      {
+         ; //unused
+      }
+   }
+}
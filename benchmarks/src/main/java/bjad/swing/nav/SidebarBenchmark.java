@@ -0,0 +1,157 @@
+package bjad.swing.nav;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building, laying out and painting a content pane
+ * with a sidebar of 40 modules of 100 entries each, all shown,
+ * with a link for each module and entry or as a virtual list,
+ * and adding a module to and removing it from the registry of
+ * a pane already shown.
+ *
+ * @author
+ *   Ben Dougall
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SidebarBenchmark
+{
+   private static final int MODULES = 40;
+   private static final int ENTRIES = 100;
+
+   @Param({"false", "true"})
+   public boolean virtualSidebar;
+
+   private List<BJADNavModule> modules;
+   private BJADModuleRegistry registry;
+   private BJADSidebarNavContentPane shownPane;
+   private BJADNavModule pluginModule;
+   private BufferedImage image;
+   private Graphics graphics;
+
+   /**
+    * Creates the modules, the image to paint into and the pane
+    * to add a module to.
+    */
+   @Setup
+   public void setup()
+   {
+      modules = new ArrayList<>();
+      for (int moduleIndex = 0; moduleIndex != MODULES; ++moduleIndex)
+      {
+         BJADNavModule module = new BJADNavModule();
+         module.setDisplayName("Module " + moduleIndex);
+         module.setOrdinial(moduleIndex);
+         for (int entryIndex = 0; entryIndex != ENTRIES; ++entryIndex)
+         {
+            BJADModuleEntry entry = new BJADModuleEntry();
+            entry.setDisplayName("Entry " + moduleIndex + "." + entryIndex);
+            entry.setOrdinial(entryIndex);
+            module.getEntries().add(entry);
+         }
+         modules.add(module);
+      }
+      image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+      graphics = image.getGraphics();
+      
+      registry = new BJADModuleRegistry(modules);
+      shownPane = new BJADSidebarNavContentPane(registry, SidebarSectionBehaviour.ALL_SHOWN_AND_USER_CAN_COLLAPSE, virtualSidebar);
+      shownPane.setSize(800, 600);
+      layout(shownPane);
+      pluginModule = new BJADNavModule();
+      pluginModule.setDisplayName("Plugin");
+      pluginModule.setOrdinial(MODULES / 2);
+      for (int entryIndex = 0; entryIndex != ENTRIES; ++entryIndex)
+      {
+         BJADModuleEntry entry = new BJADModuleEntry();
+         entry.setDisplayName("Plugin entry " + entryIndex);
+         entry.setOrdinial(entryIndex);
+         pluginModule.getEntries().add(entry);
+      }
+   }
+
+   /**
+    * Releases the graphics of the image.
+    */
+   @TearDown
+   public void tearDown()
+   {
+      graphics.dispose();
+   }
+
+   /**
+    * Builds the content pane, lays it out and paints it once.
+    *
+    * @return
+    *    The content pane.
+    */
+   @Benchmark
+   public BJADSidebarNavContentPane buildLayoutAndPaint()
+   {
+      BJADSidebarNavContentPane pane = new BJADSidebarNavContentPane(modules, SidebarSectionBehaviour.ALL_SHOWN_AND_USER_CAN_COLLAPSE, virtualSidebar);
+      pane.setSize(800, 600);
+      layout(pane);
+      pane.paint(graphics);
+      return pane;
+   }
+
+   /**
+    * Adds a module to the middle of the registry of the pane 
+    * shown, lays out the pane, then removes the module and lays 
+    * out the pane again.
+    *
+    * @return
+    *    The content pane.
+    */
+   @Benchmark
+   public BJADSidebarNavContentPane addAndRemoveModule()
+   {
+      registry.addModule(pluginModule);
+      shownPane.validate();
+      registry.removeModule(pluginModule);
+      shownPane.validate();
+      return shownPane;
+   }
+
+   /**
+    * Lays out the container and everything within it, as showing
+    * it in a window would.
+    *
+    * @param container
+    *    The container to lay out.
+    */
+   private static void layout(Container container)
+   {
+      container.doLayout();
+      for (Component component : container.getComponents())
+      {
+         if (component instanceof Container)
+         {
+            layout((Container)component);
+         }
+      }
+   }
+}
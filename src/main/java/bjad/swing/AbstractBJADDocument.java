@@ -1,5 +1,10 @@
 package bjad.swing;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.event.DocumentEvent;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.PlainDocument;
@@ -9,7 +14,14 @@ import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
 /**
  * Abstract document class for all the sub document
  * implementations to inherit from. 
- *
+ * <p>
+ * Text inserted into the document is run through an ordered 
+ * chain of validators before being placed in the document. The
+ * sub documents add their own rules as the first stages of the
+ * chain, and any other validators added run after them. The 
+ * stages share a single DocumentEdit, so the full text of the 
+ * field is only built once per insert, if a stage needs it.
+ * </p>
  *
  * @author 
  *   Ben Dougall
@@ -18,8 +30,36 @@ public class AbstractBJADDocument extends PlainDocument
 {
    private static final long serialVersionUID = -8223066353506548022L;
    
+   private static final DocumentValidator[] NO_VALIDATORS = new DocumentValidator[0];
+   
    protected AbstractRestrictiveTextField owningField;
    
+   /**
+    * Flag telling the document to apply its rules to the text 
+    * inserted, or to accept any text while false. Fields that 
+    * show formatted text outside of editing turn the rules off
+    * instead of swapping documents.
+    */
+   protected boolean restrictionsEnabled = true;
+   
+   /**
+    * The validator chain, replaced rather than changed when 
+    * validators are added or removed so an insert always runs
+    * a complete chain.
+    */
+   private DocumentValidator[] validators = NO_VALIDATORS;
+   
+   /**
+    * The edit reused for each insert validated by the chain.
+    */
+   private final DocumentEdit edit = new DocumentEdit(this);
+   
+   /**
+    * Count of the inserts and removals made to the document, 
+    * counted before the document listeners are notified.
+    */
+   private long changeCount = 0;
+   
    /**
     * Constructor, setting the field that owns the document. 
     * @param owningField
@@ -30,9 +70,164 @@ public class AbstractBJADDocument extends PlainDocument
       this.owningField = owningField;
    }
    
+   /**
+    * Returns the value of the AbstractBJADDocument instance's 
+    * restrictionsEnabled property.
+    *
+    * @return 
+    *   The value of restrictionsEnabled
+    */
+   public boolean isRestrictionsEnabled()
+   {
+      return this.restrictionsEnabled;
+   }
+   
+   /**
+    * Sets the value of the AbstractBJADDocument instance's 
+    * restrictionsEnabled property.
+    *
+    * @param restrictionsEnabled 
+    *   The value to set within the instance's 
+    *   restrictionsEnabled property
+    */
+   public void setRestrictionsEnabled(boolean restrictionsEnabled)
+   {
+      this.restrictionsEnabled = restrictionsEnabled;
+   }
+   
+   /**
+    * Returns the number of inserts and removals made to the 
+    * document. The count is updated before the document listeners 
+    * are notified of the change, so values cached against it are
+    * already stale within those listeners.
+    * 
+    * @return
+    *    The number of changes made to the document.
+    */
+   public long getChangeCount()
+   {
+      return this.changeCount;
+   }
+   
+   @Override
+   protected void fireInsertUpdate(DocumentEvent e)
+   {
+      ++changeCount;
+      super.fireInsertUpdate(e);
+   }
+   
+   @Override
+   protected void fireRemoveUpdate(DocumentEvent e)
+   {
+      ++changeCount;
+      super.fireRemoveUpdate(e);
+   }
+   
+   /**
+    * Adds the validator to the end of the validator chain.
+    * 
+    * @param validator
+    *    The validator to add. Nothing is done if null.
+    */
+   public void addValidator(DocumentValidator validator)
+   {
+      if (validator != null)
+      {
+         DocumentValidator[] newValidators = Arrays.copyOf(validators, validators.length + 1);
+         newValidators[validators.length] = validator;
+         validators = newValidators;
+      }
+   }
+   
+   /**
+    * Removes the validator from the validator chain.
+    * 
+    * @param validator
+    *    The validator to remove.
+    * @return
+    *    True if the validator was found and removed.
+    */
+   public boolean removeValidator(DocumentValidator validator)
+   {
+      for (int index = 0; index != validators.length; ++index)
+      {
+         if (validators[index] == validator)
+         {
+            DocumentValidator[] newValidators = new DocumentValidator[validators.length - 1];
+            System.arraycopy(validators, 0, newValidators, 0, index);
+            System.arraycopy(validators, index + 1, newValidators, index, newValidators.length - index);
+            validators = newValidators;
+            return true;
+         }
+      }
+      return false;
+   }
+   
+   /**
+    * Returns the validators in the chain, in the order they run.
+    * 
+    * @return
+    *    An unmodifiable list of the validators.
+    */
+   public List<DocumentValidator> getValidators()
+   {
+      return Collections.unmodifiableList(Arrays.asList(validators));
+   }
+   
+   /**
+    * Overrides the super class's insert string so the text is 
+    * run through the validator chain before being inserted. Each
+    * stage can change the text or stop the insert, and the text 
+    * left once all the stages pass is inserted with a single call.
+    * 
+    * @param offs 
+    *    the starting offset >= 0
+    * @param str 
+    *    the string to insert; does nothing with null/empty strings
+    * @param a 
+    *    the attributes for the inserted content
+    */
+   @Override
+   public void insertString(int offs, String str, AttributeSet a) throws BadLocationException
+   {
+      // Restrictions turned off or an empty string, pass it up 
+      // to the super class to place in the field.
+      if (!restrictionsEnabled || str == null || str.isEmpty())
+      {
+         super.insertString(offs, str, a);
+         return;
+      }
+      
+      DocumentValidator[] chain = validators;
+      edit.reset(offs, str, a);
+      try
+      {
+         for (int index = 0; index != chain.length; ++index)
+         {
+            if (!chain[index].validate(edit))
+            {
+               return;
+            }
+         }
+         
+         String text = edit.getText();
+         if (text != null && !text.isEmpty())
+         {
+            super.insertString(offs, text, edit.getAttributes());
+         }
+      }
+      finally
+      {
+         // Let go of the text, which can be a large paste.
+         edit.reset(0, null, null);
+      }
+   }
+   
    /**
     * Gets the full text content from the owning field and the 
     * and the text that about to be entered into the field. 
+    * Validators should use DocumentEdit.getCandidateText(), 
+    * which does not copy the content of the field.
     * 
     * @param offs 
     *    the starting offset >= 0
@@ -48,7 +243,9 @@ public class AbstractBJADDocument extends PlainDocument
     */
    public String getFullText(int offs, String str, AttributeSet a) throws BadLocationException
    {
-      return getText(0, offs) + str + getText(offs, getLength()-offs);
+      CandidateText candidate = new CandidateText();
+      candidate.reset(this, offs, str);
+      return candidate.toString();
    }
    
    /**
@@ -2,17 +2,20 @@ package bjad.swing;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 
 import javax.swing.JTextField;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
 
 import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
 
@@ -63,13 +66,42 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
     */
    protected boolean beepOnInvalidKeyEntry = true;
    
+   /**
+    * Cached position of the placeholder text, along with the 
+    * insets and segment reused while painting the placeholder.
+    */
+   private final PlaceholderLayout placeholderLayout = new PlaceholderLayout();
+   private final Insets placeholderInsets = new Insets(0, 0, 0, 0);
+   private final Segment paintSegment = new Segment();
+   
+   /**
+    * Collects the invalid entries detected in the field to 
+    * deliver them to the listeners in batches.
+    */
+   private final InvalidEntryDispatcher invalidEntryDispatcher = new InvalidEntryDispatcher(this);
+   
+   /**
+    * The change count of the field from before its current 
+    * document was set, and the change count of the document at
+    * that time, so the count of the field keeps going up when the
+    * document is replaced. Used to tell if a value parsed from 
+    * the text is still current, along with the trimmed text 
+    * content cached for the count it was read at.
+    */
+   private long modCountBase = 0;
+   private long documentStartCount = 0;
+   private String cachedTextContent = null;
+   private long textContentModCount = -1;
+   
    /**
     * Default constructor, adding the focus listener to the 
-    * text field.
+    * text field and the listener following the changes of 
+    * document.
     */
    public AbstractRestrictiveTextField()
    {
       addFocusListener(this);
+      addPropertyChangeListener("document", new DocumentSwapHandler());
    }
    
    /**
@@ -225,10 +257,83 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
    }
    
    /**
-    * Notifies all listeners that have registered interest for
-    * notification on this event type. The event instance is lazily
-    * created using the parameters passed into the fire method. The
-    * listener list is processed in a last-to-first manner.
+    * Adds the validator to the end of the validator chain of the
+    * field's document, to run after the field's own rules. 
+    * 
+    * @param validator
+    *    The validator to add.
+    * @throws IllegalStateException
+    *    If the field's document is not a restrictive document.
+    */
+   public void addValidator(DocumentValidator validator)
+   {
+      getRestrictiveDocument().addValidator(validator);
+   }
+   
+   /**
+    * Removes the validator from the validator chain of the 
+    * field's document.
+    * 
+    * @param validator
+    *    The validator to remove.
+    * @throws IllegalStateException
+    *    If the field's document is not a restrictive document.
+    */
+   public void removeValidator(DocumentValidator validator)
+   {
+      getRestrictiveDocument().removeValidator(validator);
+   }
+   
+   /**
+    * Returns the field's document as a restrictive document. 
+    * 
+    * @return
+    *    The document of the field.
+    * @throws IllegalStateException
+    *    If the field's document is not a restrictive document.
+    */
+   private AbstractBJADDocument getRestrictiveDocument()
+   {
+      Document doc = getDocument();
+      if (!(doc instanceof AbstractBJADDocument))
+      {
+         throw new IllegalStateException("Validators can only be added to fields using a " + AbstractBJADDocument.class.getSimpleName());
+      }
+      return (AbstractBJADDocument)doc;
+   }
+   
+   /**
+    * Adds the invalid entry batch listener to the field so it will
+    * be registered for the events. 
+    * 
+    * @param listener
+    *    The listener to register
+    */
+   public void addInvalidEntryBatchListener(InvalidEntryBatchListener listener)
+   {
+      listenerList.add(InvalidEntryBatchListener.class, listener);
+   }
+   
+   /**
+    * Removes the invalid entry batch listener from the field so it
+    * will no longer be registered for events.
+    * 
+    * @param listener
+    *    The listener to remove.
+    */
+   public void removeInvalidEntryBatchListener(InvalidEntryBatchListener listener)
+   {
+      listenerList.remove(InvalidEntryBatchListener.class, listener);
+   }
+   
+   /**
+    * Notifies the invalid key entry listeners of the invalid entry
+    * right away, once for each entry, and records the entry for 
+    * the batch listeners. The batch listeners are notified, and 
+    * the sound played, once per turn of the event dispatch thread
+    * for all the invalid entries of that turn, after the edit that
+    * caused them is complete. The listener list is processed in a
+    * last-to-first manner.
     *
     * @param reason
     *    The reason the input was invalid
@@ -237,7 +342,32 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
     */
    void fireInvalidEntryListeners(InvalidatedReason reason, String badEntry)
    {
-      if (beepOnInvalidKeyEntry)
+      // Guaranteed to return a non-null array
+      Object[] listeners = listenerList.getListenerList();
+
+      // Process the listeners last to first, notifying
+      // those that are interested in this event
+      for (int i = listeners.length - 2; i >= 0; i -= 2)
+      {
+         if (listeners[i] == InvalidKeyEntryListener.class)
+         {
+            ((InvalidKeyEntryListener) listeners[i + 1]).invalidKeyEntryDetected(this, reason, badEntry);
+         }
+      }
+      invalidEntryDispatcher.add(reason, badEntry);
+   }
+   
+   /**
+    * Plays the sound for a batch of invalid entries and notifies 
+    * all the batch listeners of it, processing the listener list 
+    * in a last-to-first manner.
+    *
+    * @param batch
+    *    The invalid entries detected.
+    */
+   void deliverInvalidEntries(InvalidEntryBatch batch)
+   {
+      if (beepOnInvalidKeyEntry && InvalidEntryDispatcher.acquireSound())
       {
          playExclaimSound();
       }
@@ -249,9 +379,9 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
       // those that are interested in this event
       for (int i = listeners.length - 2; i >= 0; i -= 2)
       {
-         if (listeners[i] == InvalidKeyEntryListener.class)
+         if (listeners[i] == InvalidEntryBatchListener.class)
          {
-            ((InvalidKeyEntryListener) listeners[i + 1]).invalidKeyEntryDetected(this, reason, badEntry);
+            ((InvalidEntryBatchListener) listeners[i + 1]).invalidEntriesDetected(batch);
          }
       }
    }
@@ -274,7 +404,7 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
       boolean paintPlaceHolder = true;
       
       // There has to be placeholder text to draw
-      if (placeholderText == null || placeholderText.trim().isEmpty())
+      if (placeholderLayout.isBlank(placeholderText))
       {
          paintPlaceHolder = false;
       }
@@ -289,7 +419,7 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
          paintPlaceHolder = false;
       }
       // The field must be empty with no input from the user.
-      else if (getTextContent().length() > 0)
+      else if (hasTextContent())
       {
          paintPlaceHolder = false;
       }
@@ -303,24 +433,49 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
          g.setColor(placeholderColor);
          g.setFont(placeholderFont);
          
-         FontMetrics fm = g.getFontMetrics();
-         
-         // The drawing space is the the height of the text field minus the 
-         // padding added by the insets padding (both the top and bottom).
-         int drawingSpaceHeight = this.getHeight() - this.getInsets().top - this.getInsets().bottom;
-         
-         // Ensure we retain the decimals between finding the middle of the 
-         // drawing space and the midding of the ascent property of the font
-         // so the decimal results are included in the final position calculation.
-         BigDecimal midDraw = new BigDecimal(drawingSpaceHeight).divide(new BigDecimal(2.000));
-         BigDecimal midAscent = new BigDecimal(fm.getMaxAscent()).divide(new BigDecimal(2.000));
-                  
-         // Now that we now the mid points of the field and the font, we can 
-         // determine the y position to draw the place holder text in the field.
-         g.drawString(
-               placeholderText, 
-               getInsets().left + 1, 
-               midDraw.add(midAscent).setScale(0, RoundingMode.HALF_UP).intValue());
+         // The position is only worked out again when the font, 
+         // height or insets of the field change.
+         placeholderLayout.validate(g, placeholderFont, getHeight(), getInsets(placeholderInsets));
+         g.drawString(placeholderText, placeholderLayout.getX(), placeholderLayout.getY());
+      }
+   }
+   
+   /**
+    * Returns true if the field has any text other than whitespace,
+    * the same as getTextContent() not being empty, but checked in
+    * place within the document so painting does not copy the text.
+    * 
+    * @return
+    *    True if the field contains text other than whitespace.
+    */
+   private boolean hasTextContent()
+   {
+      Document doc = getDocument();
+      paintSegment.setPartialReturn(true);
+      try
+      {
+         int remaining = doc.getLength();
+         int offset = 0;
+         while (remaining > 0)
+         {
+            doc.getText(offset, remaining, paintSegment);
+            int end = paintSegment.offset + paintSegment.count;
+            for (int index = paintSegment.offset; index != end; ++index)
+            {
+               // Same characters String.trim() removes.
+               if (paintSegment.array[index] > ' ')
+               {
+                  return true;
+               }
+            }
+            remaining -= paintSegment.count;
+            offset += paintSegment.count;
+         }
+         return false;
+      }
+      catch (BadLocationException ex)
+      {
+         return getTextContent().length() > 0;
       }
    }
    
@@ -334,7 +489,80 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
     */
    protected String getTextContent()
    {
-      return super.getText().trim();
+      long modCount = getDocumentModCount();
+      if (textContentModCount != modCount)
+      {
+         cachedTextContent = super.getText().trim();
+         textContentModCount = modCount;
+      }
+      return cachedTextContent;
+   }
+   
+   /**
+    * Returns the reason the entry in the field is incomplete or 
+    * can not be read as a value, such as a number that can not 
+    * be parsed, checked by FormValidator when validating the form
+    * holding the field. Fields with no such rules always return 
+    * null.
+    * 
+    * @return
+    *    The message describing the error in the entry, or null 
+    *    if the entry is valid.
+    */
+   public String getEntryError()
+   {
+      return null;
+   }
+   
+   /**
+    * Returns the number of changes made to the document of the 
+    * field, including replacing the document. Values parsed from
+    * the text of the field can be cached along with the count, 
+    * and parsed again only once the count changes. The count is
+    * updated before any document listener is notified, so values
+    * read within those listeners are current.
+    * <p>
+    * Changes are only counted by documents extending 
+    * AbstractBJADDocument. For any other document a new count is
+    * returned each time, so nothing is cached for it.
+    * </p>
+    * 
+    * @return
+    *    The number of changes made to the document.
+    */
+   protected long getDocumentModCount()
+   {
+      return modCountOf(getDocument());
+   }
+   
+   /**
+    * Counts a change to a setting of the field that the entry 
+    * error or the values read from the field depend on, such as
+    * an input mask, the same as a change to the document, so
+    * anything cached along with the change count, including the
+    * results kept by FormValidator, is worked out again.
+    */
+   protected void fieldSettingsChanged()
+   {
+      ++modCountBase;
+   }
+   
+   /**
+    * Returns the change count of the field while holding the 
+    * document.
+    * 
+    * @param doc
+    *    The document, the one set last.
+    * @return
+    *    The change count of the field.
+    */
+   private long modCountOf(Document doc)
+   {
+      if (doc instanceof AbstractBJADDocument)
+      {
+         return modCountBase + ((AbstractBJADDocument)doc).getChangeCount() - documentStartCount;
+      }
+      return ++modCountBase;
    }
    
    /** 
@@ -347,13 +575,14 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
    @Override
    public void focusGained(FocusEvent e)
    {
+      onFocusGained(); // Run the method in case there is custom focus gained logic.
       if (this.selectAllOnFocus)
       {
          this.selectAll();
       }
       else
       {
-         this.setCaretPosition(this.getText().length());
+         this.setCaretPosition(getDocument().getLength());
       }
    }
    
@@ -367,7 +596,14 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
    @Override
    public void focusLost(FocusEvent e)
    {
-      super.setText(super.getText().trim()); // Always get rid of any extra spaces
+      // Always get rid of any extra spaces, only replacing the 
+      // text when there are spaces to remove.
+      String text = super.getText();
+      String trimmed = text.trim();
+      if (trimmed.length() != text.length())
+      {
+         super.setText(trimmed);
+      }
       onFocusLost(); // Run the method in case there is custom focus lost logic.
    }
    
@@ -390,4 +626,24 @@ public abstract class AbstractRestrictiveTextField extends JTextField implements
    {
       ; // do nothing. 
    }
+   
+   /**
+    * Listener moving the change count of the field on when the
+    * field is given another document, so values cached for the
+    * old document are not read as current.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class DocumentSwapHandler implements PropertyChangeListener
+   {
+      @Override
+      public void propertyChange(PropertyChangeEvent evt)
+      {
+         long previous = modCountOf((Document)evt.getOldValue());
+         Object newDoc = evt.getNewValue();
+         documentStartCount = newDoc instanceof AbstractBJADDocument ? ((AbstractBJADDocument)newDoc).getChangeCount() : 0;
+         modCountBase = previous + 1;
+      }
+   }
 }
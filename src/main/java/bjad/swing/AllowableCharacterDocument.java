@@ -1,10 +1,12 @@
 package bjad.swing;
 
-import java.util.LinkedHashSet;
+import java.util.Arrays;
 import java.util.Set;
 
-import javax.swing.text.AttributeSet;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
 
 import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
 
@@ -12,6 +14,13 @@ import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
  * Document that contains a list of characters to validate the 
  * insert into a text field if. If the allowable characters are 
  * null or empty, any input is allowed. 
+ * <p>
+ * The whitespace, maximum length and allowable character rules
+ * are the first three stages of the validator chain, in the 
+ * order the checks have always run, each run in a single pass 
+ * over the text being inserted. The input mask,
+ * if the document has one, is the fourth.
+ * </p>
  *
  * @author 
  *   Ben Dougall
@@ -23,10 +32,46 @@ class AllowableCharacterDocument extends AbstractBJADDocument
    protected int maxLength = -1;
    
    /** 
-    * LinkedHashSet of characters allowed to be in the 
-    * field. Leave blank if any character is to be allowed.  
+    * Set of characters allowed to be in the field. Leave 
+    * blank if any character is to be allowed.  
     */
-   protected Set<Character> allowedCharacters = new LinkedHashSet<Character>();
+   protected AllowableCharacterSet allowedCharacters = new AllowableCharacterSet();
+   
+   /**
+    * Flag to remove the characters not allowed in the field 
+    * from the text inserted, such as pasted text, instead of 
+    * rejecting the whole insert.
+    */
+   protected boolean stripInvalidCharacters = false;
+   
+   /**
+    * Flag to insert as much of the text as fits within the 
+    * maximum length, instead of rejecting the whole insert 
+    * when the field already has text.
+    */
+   protected boolean truncateToMaxLength = false;
+   
+   /**
+    * The way whitespace in the text inserted is normalized,
+    * removing the whitespace at the start of the field by 
+    * default.
+    */
+   protected WhitespacePolicy whitespacePolicy = WhitespacePolicy.TRIM_LEADING;
+   
+   /**
+    * Segment reused to read the existing content of the document
+    * without copying it.
+    */
+   private final Segment segment = new Segment();
+   
+   /**
+    * The input mask the text of the field has to match, or 
+    * could still match once more text is entered, null for 
+    * no mask.
+    */
+   private InputMask inputMask = null;
+   
+   private final MaskStage maskStage = new MaskStage();
    
    /**
     * Constructor, setting the field the document is owned
@@ -38,94 +83,419 @@ class AllowableCharacterDocument extends AbstractBJADDocument
    public AllowableCharacterDocument(AbstractRestrictiveTextField field)
    {
       super(field);
+      addValidator(new WhitespaceStage());
+      addValidator(new MaxLengthStage());
+      addValidator(new AllowableCharacterStage());
+      addValidator(maskStage);
+      addDocumentListener(maskStage);
    }
 
    /**
     * Returns the set of allowable characters in the field. 
     * @return
-    *    The set of allowable characters in the field.
+    *    A live view of the set of allowable characters in 
+    *    the field.
     */
    public Set<Character> getAllowableCharacters()
+   {
+      return allowedCharacters.asSet();
+   }
+   
+   /**
+    * Returns the character set backing the allowable characters, 
+    * which supports ranges and rules as well as single characters.
+    * @return
+    *    The allowable character set for the field.
+    */
+   public AllowableCharacterSet getAllowableCharacterSet()
    {
       return allowedCharacters;
    }
    
    /**
-    * Overrides the super class's insert string so it will 
-    * filter out bad characters within the text field if 
-    * entered by the user by typing or by copying and 
-    * pasting from the clipboard.
+    * Returns the value of the AllowableCharacterDocument instance's 
+    * whitespacePolicy property.
+    *
+    * @return 
+    *   The value of whitespacePolicy
+    */
+   public WhitespacePolicy getWhitespacePolicy()
+   {
+      return this.whitespacePolicy;
+   }
+
+   /**
+    * Sets the value of the AllowableCharacterDocument instance's 
+    * whitespacePolicy property.
+    *
+    * @param whitespacePolicy 
+    *   The value to set within the instance's 
+    *   whitespacePolicy property, null for PRESERVE.
+    */
+   public void setWhitespacePolicy(WhitespacePolicy whitespacePolicy)
+   {
+      this.whitespacePolicy = whitespacePolicy == null ? WhitespacePolicy.PRESERVE : whitespacePolicy;
+   }
+   
+   /**
+    * Returns the value of the AllowableCharacterDocument instance's 
+    * stripInvalidCharacters property.
+    *
+    * @return 
+    *   The value of stripInvalidCharacters
+    */
+   public boolean isStripInvalidCharacters()
+   {
+      return this.stripInvalidCharacters;
+   }
+
+   /**
+    * Sets the value of the AllowableCharacterDocument instance's 
+    * stripInvalidCharacters property.
+    *
+    * @param stripInvalidCharacters 
+    *   The value to set within the instance's 
+    *   stripInvalidCharacters property
+    */
+   public void setStripInvalidCharacters(boolean stripInvalidCharacters)
+   {
+      this.stripInvalidCharacters = stripInvalidCharacters;
+   }
+
+   /**
+    * Returns the value of the AllowableCharacterDocument instance's 
+    * truncateToMaxLength property.
+    *
+    * @return 
+    *   The value of truncateToMaxLength
+    */
+   public boolean isTruncateToMaxLength()
+   {
+      return this.truncateToMaxLength;
+   }
+
+   /**
+    * Sets the value of the AllowableCharacterDocument instance's 
+    * truncateToMaxLength property.
+    *
+    * @param truncateToMaxLength 
+    *   The value to set within the instance's 
+    *   truncateToMaxLength property
+    */
+   public void setTruncateToMaxLength(boolean truncateToMaxLength)
+   {
+      this.truncateToMaxLength = truncateToMaxLength;
+   }
+   
+   /**
+    * Returns the value of the AllowableCharacterDocument instance's 
+    * inputMask property.
+    *
+    * @return 
+    *   The value of inputMask
+    */
+   public InputMask getInputMask()
+   {
+      return this.inputMask;
+   }
+
+   /**
+    * Sets the value of the AllowableCharacterDocument instance's 
+    * inputMask property. Text already in the document is not 
+    * checked against the mask.
+    *
+    * @param inputMask 
+    *   The value to set within the instance's 
+    *   inputMask property, null for no mask.
+    */
+   public void setInputMask(InputMask inputMask)
+   {
+      this.inputMask = inputMask;
+      maskStage.invalidateFrom(0);
+   }
+   
+   /**
+    * Returns true if the document has no input mask, or the 
+    * text of the document fully matches it.
     * 
-    * @param offs 
-    *    the starting offset >= 0
-    * @param str 
-    *    the string to insert; does nothing with null/empty strings
-    * @param a 
-    *    the attributes for the inserted content
-    */
-   @Override
-   public void insertString(int offs, String str, AttributeSet a) throws BadLocationException 
-   {
-      // Make sure the first character of the string being added is not
-      // a space if its being added to the begining of the text field.
-      if (offs == 0)
+    * @return
+    *    True if the text is complete for the input mask.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   public boolean isInputMaskComplete() throws BadLocationException
+   {
+      if (inputMask == null)
       {
-         StringBuilder sb = new StringBuilder(str);
-         while (sb.charAt(0) == ' ' || sb.charAt(0) == '\t')
+         return true;
+      }
+      segment.setPartialReturn(false);
+      getText(0, getLength(), segment);
+      return inputMask.isAccepting(maskStage.stateAt(segment, getLength()));
+   }
+   
+   /**
+    * First stage of the validator chain, normalizing the whitespace
+    * in the text being added, by default making sure the first 
+    * character is not whitespace if its being added to the begining
+    * of the text field.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class WhitespaceStage implements DocumentValidator
+   {
+      @Override
+      public boolean validate(DocumentEdit edit) throws BadLocationException
+      {
+         int offs = edit.getOffset();
+         boolean afterWhitespace = whitespacePolicy == WhitespacePolicy.COLLAPSE && offs > 0 && isWhitespaceAt(offs - 1);
+         edit.setText(whitespacePolicy.normalize(edit.getText(), offs == 0, afterWhitespace));
+         return !edit.getText().isEmpty();
+      }
+   }
+   
+   /**
+    * Second stage of the validator chain, checking the maximum length
+    * of the field if it is set, without building the full text.
+    * <p>
+    * If the new text with the existing text exceeds the maximum 
+    * length, the insert is stopped, unless the field is set to 
+    * truncate the text or the field and text are only whitespace, 
+    * in which case as much of the text being entered as fits is 
+    * inserted.
+    * </p>
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class MaxLengthStage implements DocumentValidator
+   {
+      @Override
+      public boolean validate(DocumentEdit edit) throws BadLocationException
+      {
+         if (maxLength <= 0 || edit.getCandidateLength() <= maxLength)
          {
-            sb.deleteCharAt(0);
+            return true;
          }
-         str = sb.toString();
+         
+         // Notify the error occurred. 
+         edit.fireInvalidEntry(InvalidatedReason.MAX_LENGTH_EXCEEDED, "MAx length of " + maxLength + " exceeded.");
+         
+         // Field had text, nothing will be done, so stop the insert. 
+         String str = edit.getText();
+         if (!truncateToMaxLength && !(isBlank(str) && isContentBlank()))
+         {
+            return false;
+         }
+         edit.setText(str.substring(0, Math.max(maxLength - getLength(), 0)));
+         return !edit.getText().isEmpty();
       }
-      
-      // Check to see if the maximum length property of the field
-      // is set, and if so, see if the new text with the existing
-      // text will exceed that length. 
-      // 
-      // If so, stop the insert, unless the field was empty, in
-      // which, insert the substring of the text being entered to
-      // match the max length.
-      if (maxLength > 0)
-      {         
-         if (getFullText(offs, str, a).length() > maxLength)
+   }
+   
+   /**
+    * Third stage of the validator chain, checking the characters 
+    * in the text being added are in the allowable character list 
+    * in a single pass, if the field has a list.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class AllowableCharacterStage implements DocumentValidator
+   {
+      @Override
+      public boolean validate(DocumentEdit edit)
+      {
+         if (allowedCharacters.isEmpty())
          {
-            boolean finished = true;
-            // Add the substring of the text being entered if the 
-            // field has no content. 
-            if (getFullText(offs, str, a).trim().isEmpty())
-            {
-               str = str.substring(0, maxLength);
-               finished = false;
-            }
-            // Notify the error occurred. 
-            fireListenersOnOwningField(InvalidatedReason.MAX_LENGTH_EXCEEDED, "MAx length of " + maxLength + " exceeded.");
-            
-            // Field had text, nothing will be done, so exit the method. 
-            if (finished)
+            return true;
+         }
+         
+         // Character in the new string not found in the list? 
+         // either remove the characters not allowed, or stop 
+         // the insert.
+         String str = edit.getText();
+         int invalidIndex = allowedCharacters.indexOfDisallowed(str);
+         if (invalidIndex != -1)
+         {               
+            edit.fireInvalidEntry(InvalidatedReason.INVALID_CHARACTER, "Character \'" + str.charAt(invalidIndex) + "\' not allowed in field.");
+            if (!stripInvalidCharacters)
             {
-               return;
+               return false;
             }
+            edit.setText(allowedCharacters.removeDisallowed(str, invalidIndex));
          }
+         return !edit.getText().isEmpty();
+      }
+   }
+   
+   /**
+    * Fourth stage of the validator chain, checking the text of 
+    * the field after the insert against the input mask, if the
+    * field has one.
+    * <p>
+    * The state of the mask after each character of the document
+    * is kept, up to the first change, so an insert only steps 
+    * the mask through the inserted text and the text after it,
+    * starting from the state at the insert position. Typing at 
+    * the end of the field steps through the new characters only.
+    * </p>
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class MaskStage implements DocumentValidator, DocumentListener
+   {
+      /** 
+       * The state of the mask after each number of characters, 
+       * valid up to validLength. 
+       */
+      private int[] states = new int[16];
+      private int validLength = 0;
+      
+      @Override
+      public boolean validate(DocumentEdit edit) throws BadLocationException
+      {
+         if (inputMask == null)
+         {
+            return true;
+         }
+         CharSequence text = edit.getCandidateText();
+         int offs = edit.getOffset();
+         int state = inputMask.run(stateAt(text, offs), text, offs, text.length());
+         if (state == InputMask.NO_MATCH)
+         {
+            edit.fireInvalidEntry(InvalidatedReason.PATTERN_MISMATCH, "Text does not match the mask of the field.");
+            return false;
+         }
+         return true;
       }
       
-      // If there are restrictions on the field, check to 
-      // see if the characters in the new string passed to 
-      // to the function are in the restricted list.
-      if (!(allowedCharacters == null || allowedCharacters.isEmpty()))
+      /**
+       * Returns the state of the mask after the characters of the 
+       * document before the position, stepping through and keeping
+       * the states past the ones already known.
+       * 
+       * @param text
+       *    Text starting with the content of the document up to 
+       *    the position.
+       * @param position
+       *    The number of characters to step through.
+       * @return
+       *    The state at the position, or NO_MATCH.
+       */
+      int stateAt(CharSequence text, int position)
       {
-         char[] newCharacters = str.toCharArray();
-         for (Character c : newCharacters)
+         if (position >= states.length)
+         {
+            states = Arrays.copyOf(states, Math.max(position + 1, states.length * 2));
+         }
+         states[0] = inputMask.start();
+         for (int index = validLength; index < position; ++index)
          {
-            // Character in the new string not found in the list? 
-            // exit the function without updating the text field.
-            if (!(allowedCharacters.contains(c)))
-            {               
-               fireListenersOnOwningField(InvalidatedReason.INVALID_CHARACTER, "Character \'" + c + "\' not allowed in field.");
-               return;
+            states[index + 1] = inputMask.step(states[index], text.charAt(index));
+         }
+         validLength = Math.max(validLength, position);
+         return states[position];
+      }
+      
+      /**
+       * Forgets the states after the position, when the text 
+       * after it changes.
+       * 
+       * @param position
+       *    The position of the change.
+       */
+      void invalidateFrom(int position)
+      {
+         validLength = Math.min(validLength, position);
+      }
+
+      @Override
+      public void insertUpdate(DocumentEvent e)
+      {
+         invalidateFrom(e.getOffset());
+      }
+
+      @Override
+      public void removeUpdate(DocumentEvent e)
+      {
+         invalidateFrom(e.getOffset());
+      }
+
+      @Override
+      public void changedUpdate(DocumentEvent e)
+      {
+      }
+   }
+   
+   /**
+    * Returns true if the text is empty or only holds 
+    * whitespace, as String.trim() removes.
+    * 
+    * @param text
+    *    The text to check.
+    * @return
+    *    True if the text is blank.
+    */
+   private static boolean isBlank(String text)
+   {
+      for (int index = 0, length = text.length(); index != length; ++index)
+      {
+         if (text.charAt(index) > ' ')
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+   
+   /**
+    * Returns true if the character in the document at the 
+    * offset is whitespace.
+    * 
+    * @param offset
+    *    The offset of the character.
+    * @return
+    *    True if the character is whitespace.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   private boolean isWhitespaceAt(int offset) throws BadLocationException
+   {
+      getText(offset, 1, segment);
+      return Character.isWhitespace(segment.array[segment.offset]);
+   }
+   
+   /**
+    * Returns true if the document is empty or only holds 
+    * whitespace, reading the content in place through the
+    * reusable segment.
+    * 
+    * @return
+    *    True if the content of the document is blank.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   private boolean isContentBlank() throws BadLocationException
+   {
+      segment.setPartialReturn(true);
+      int remaining = getLength();
+      int position = 0;
+      while (remaining > 0)
+      {
+         getText(position, remaining, segment);
+         int end = segment.offset + segment.count;
+         for (int index = segment.offset; index != end; ++index)
+         {
+            if (segment.array[index] > ' ')
+            {
+               return false;
             }
          }
+         remaining -= segment.count;
+         position += segment.count;
       }
-      // Validation complete, insert the string into the text field.
-      super.insertString(offs, str, a);
+      return true;
    }
-}
\ No newline at end of file
+}
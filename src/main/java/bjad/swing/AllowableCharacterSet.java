@@ -0,0 +1,490 @@
+package bjad.swing;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Compact set of the characters allowed within a field,
+ * checked without boxing the characters being entered.
+ * <p>
+ * Characters in the Latin-1 range are held in a fixed 256 bit
+ * table, and any other characters are held in a bit set that
+ * only grows as far as the highest character added. Rules can
+ * also be added, such as <code>Character::isDigit</code>, to
+ * allow whole classes of characters without listing them.
+ * </p>
+ * <p>
+ * The characters are also kept in the order they were added, 
+ * which the Set view iterates in, the same as the linked hash 
+ * set the characters used to be held in. The view never holds
+ * null, so adding null to it does nothing and returns false.
+ * </p>
+ * <p>
+ * An empty set, with no characters and no rules, allows any
+ * character, matching how the documents in this package have
+ * always treated an empty allowable character list.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class AllowableCharacterSet
+{
+   private static final int LATIN1_LIMIT = 256;
+   private static final IntPredicate[] NO_RULES = new IntPredicate[0];
+
+   /** Bit table for the characters below 256. */
+   private final long[] latin1 = new long[LATIN1_LIMIT / Long.SIZE];
+   /** Bits for characters 256 and above, indexed from 256. */
+   private final BitSet beyondLatin1 = new BitSet();
+   /** The rules allowing characters not in the bit tables. */
+   private IntPredicate[] rules = NO_RULES;
+   /** The characters added to the bit tables, in the order added. */
+   private char[] order = new char[16];
+   /** Number of characters added to the bit tables. */
+   private int characterCount = 0;
+   /** Set view of the characters, created when first requested. */
+   private Set<Character> setView;
+
+   /**
+    * Returns true if no characters or rules have been added,
+    * meaning any character is allowed.
+    *
+    * @return
+    *    True if the set has no characters or rules.
+    */
+   public boolean isEmpty()
+   {
+      return characterCount == 0 && rules.length == 0;
+   }
+
+   /**
+    * Returns true if the character is allowed by the set,
+    * either by being added to it or by matching one of
+    * its rules.
+    *
+    * @param c
+    *    The character to check.
+    * @return
+    *    True if the character is allowed.
+    */
+   public boolean allows(char c)
+   {
+      return hasCharacter(c) || matchesRule(c);
+   }
+
+   /**
+    * Returns the index of the first character in the text that
+    * is not allowed by the set.
+    *
+    * @param text
+    *    The text to check.
+    * @return
+    *    The index of the first character not allowed, or -1
+    *    if all the characters are allowed.
+    */
+   public int indexOfDisallowed(CharSequence text)
+   {
+      for (int index = 0, length = text.length(); index != length; ++index)
+      {
+         if (!allows(text.charAt(index)))
+         {
+            return index;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Removes the characters not allowed by the set from the text
+    * in a single pass.
+    *
+    * @param text
+    *    The text to remove the characters from.
+    * @param firstDisallowed
+    *    The index of the first character not allowed, as returned
+    *    by indexOfDisallowed.
+    * @return
+    *    The text with only the allowed characters.
+    */
+   public String removeDisallowed(String text, int firstDisallowed)
+   {
+      StringBuilder sb = new StringBuilder(text.length() - 1);
+      sb.append(text, 0, firstDisallowed);
+      for (int index = firstDisallowed + 1, length = text.length(); index != length; ++index)
+      {
+         char c = text.charAt(index);
+         if (allows(c))
+         {
+            sb.append(c);
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Adds the character to the set.
+    *
+    * @param c
+    *    The character to add.
+    * @return
+    *    True if the character was not already in the set.
+    */
+   public boolean add(char c)
+   {
+      if (hasCharacter(c))
+      {
+         return false;
+      }
+      if (c < LATIN1_LIMIT)
+      {
+         latin1[c >>> 6] |= 1L << c;
+      }
+      else
+      {
+         beyondLatin1.set(c - LATIN1_LIMIT);
+      }
+      if (characterCount == order.length)
+      {
+         order = Arrays.copyOf(order, characterCount * 2);
+      }
+      order[characterCount++] = c;
+      return true;
+   }
+
+   /**
+    * Removes the character from the set. Characters allowed
+    * by a rule are still allowed once removed.
+    *
+    * @param c
+    *    The character to remove.
+    * @return
+    *    True if the character was in the set.
+    */
+   public boolean remove(char c)
+   {
+      if (!clearCharacter(c))
+      {
+         return false;
+      }
+      int index = 0;
+      while (order[index] != c)
+      {
+         ++index;
+      }
+      System.arraycopy(order, index + 1, order, index, characterCount - index - 1);
+      characterCount--;
+      return true;
+   }
+
+   /**
+    * Adds all the characters in the text to the set.
+    *
+    * @param text
+    *    The characters to add. Nothing is done if null.
+    */
+   public void addAll(CharSequence text)
+   {
+      if (text != null)
+      {
+         for (int index = 0, length = text.length(); index != length; ++index)
+         {
+            add(text.charAt(index));
+         }
+      }
+   }
+
+   /**
+    * Removes all the characters in the text from the set.
+    *
+    * @param text
+    *    The characters to remove. Nothing is done if null.
+    */
+   public void removeAll(CharSequence text)
+   {
+      if (text != null)
+      {
+         for (int index = 0, length = text.length(); index != length; ++index)
+         {
+            clearCharacter(text.charAt(index));
+         }
+         compactOrder();
+      }
+   }
+
+   /**
+    * Adds the range of characters to the set, such as 'A' to 'Z'.
+    *
+    * @param first
+    *    The first character of the range.
+    * @param last
+    *    The last character of the range, included in the set.
+    */
+   public void addRange(char first, char last)
+   {
+      for (int c = first; c <= last; ++c)
+      {
+         add((char)c);
+      }
+   }
+
+   /**
+    * Removes the range of characters from the set.
+    *
+    * @param first
+    *    The first character of the range.
+    * @param last
+    *    The last character of the range, removed from the set.
+    */
+   public void removeRange(char first, char last)
+   {
+      for (int c = first; c <= last; ++c)
+      {
+         clearCharacter((char)c);
+      }
+      compactOrder();
+   }
+
+   /**
+    * Adds a rule allowing any character it matches, such
+    * as <code>Character::isDigit</code>.
+    *
+    * @param rule
+    *    The rule to add. Nothing is done if null.
+    * @return
+    *    The rule added, to pass to removeRule.
+    */
+   public IntPredicate addRule(IntPredicate rule)
+   {
+      if (rule != null)
+      {
+         IntPredicate[] newRules = Arrays.copyOf(rules, rules.length + 1);
+         newRules[rules.length] = rule;
+         rules = newRules;
+      }
+      return rule;
+   }
+
+   /**
+    * Removes a rule previously added to the set. Rules are 
+    * matched by identity, so the same instance that was added
+    * has to be passed. Each evaluation of a lambda or method 
+    * reference, such as <code>Character::isDigit</code>, can 
+    * create a new instance, so keep the rule returned by 
+    * addRule to remove it.
+    *
+    * @param rule
+    *    The rule to remove.
+    * @return
+    *    True if the rule was found and removed.
+    */
+   public boolean removeRule(IntPredicate rule)
+   {
+      for (int index = 0; index != rules.length; ++index)
+      {
+         if (rules[index] == rule)
+         {
+            IntPredicate[] newRules = new IntPredicate[rules.length - 1];
+            System.arraycopy(rules, 0, newRules, 0, index);
+            System.arraycopy(rules, index + 1, newRules, index, newRules.length - index);
+            rules = newRules;
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Removes all the characters and rules from the set.
+    */
+   public void clear()
+   {
+      Arrays.fill(latin1, 0L);
+      beyondLatin1.clear();
+      rules = NO_RULES;
+      characterCount = 0;
+   }
+
+   /**
+    * Returns a live Set view of the characters added to the set,
+    * in the order they were added. Changes to the view change the set.
+    * Characters only allowed by a rule are not part of the view.
+    *
+    * @return
+    *    The set view of the characters.
+    */
+   public Set<Character> asSet()
+   {
+      if (setView == null)
+      {
+         setView = new CharacterSetView();
+      }
+      return setView;
+   }
+
+   /**
+    * Returns true if the character was added to the bit tables.
+    *
+    * @param c
+    *    The character to check.
+    * @return
+    *    True if the character is in the bit tables.
+    */
+   private boolean hasCharacter(char c)
+   {
+      if (c < LATIN1_LIMIT)
+      {
+         return (latin1[c >>> 6] & (1L << c)) != 0;
+      }
+      return beyondLatin1.get(c - LATIN1_LIMIT);
+   }
+
+   /**
+    * Returns true if any of the rules match the character.
+    *
+    * @param c
+    *    The character to check.
+    * @return
+    *    True if a rule allows the character.
+    */
+   private boolean matchesRule(char c)
+   {
+      for (IntPredicate rule : rules)
+      {
+         if (rule.test(c))
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Clears the character from the bit tables, leaving the order
+    * of the characters to be compacted by the caller.
+    *
+    * @param c
+    *    The character to clear.
+    * @return
+    *    True if the character was in the bit tables.
+    */
+   private boolean clearCharacter(char c)
+   {
+      if (!hasCharacter(c))
+      {
+         return false;
+      }
+      if (c < LATIN1_LIMIT)
+      {
+         latin1[c >>> 6] &= ~(1L << c);
+      }
+      else
+      {
+         beyondLatin1.clear(c - LATIN1_LIMIT);
+      }
+      return true;
+   }
+
+   /**
+    * Drops the characters no longer in the bit tables from the
+    * order of the characters in a single pass, after a number 
+    * of them are cleared.
+    */
+   private void compactOrder()
+   {
+      int kept = 0;
+      for (int index = 0; index != characterCount; ++index)
+      {
+         if (hasCharacter(order[index]))
+         {
+            order[kept++] = order[index];
+         }
+      }
+      characterCount = kept;
+   }
+
+   /**
+    * Set view over the characters in the bit tables so the
+    * existing Set based API keeps working.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private class CharacterSetView extends AbstractSet<Character>
+   {
+      @Override
+      public boolean contains(Object o)
+      {
+         return o instanceof Character && hasCharacter((Character)o);
+      }
+
+      @Override
+      public boolean add(Character c)
+      {
+         return c != null && AllowableCharacterSet.this.add(c);
+      }
+
+      @Override
+      public boolean remove(Object o)
+      {
+         return o instanceof Character && AllowableCharacterSet.this.remove((Character)o);
+      }
+
+      @Override
+      public void clear()
+      {
+         Arrays.fill(latin1, 0L);
+         beyondLatin1.clear();
+         characterCount = 0;
+      }
+
+      @Override
+      public int size()
+      {
+         return characterCount;
+      }
+
+      @Override
+      public Iterator<Character> iterator()
+      {
+         return new Iterator<Character>()
+         {
+            private int next = 0;
+            private boolean canRemove = false;
+
+            @Override
+            public boolean hasNext()
+            {
+               return next < characterCount;
+            }
+
+            @Override
+            public Character next()
+            {
+               if (next >= characterCount)
+               {
+                  throw new NoSuchElementException();
+               }
+               canRemove = true;
+               return order[next++];
+            }
+
+            @Override
+            public void remove()
+            {
+               if (!canRemove)
+               {
+                  throw new IllegalStateException();
+               }
+               AllowableCharacterSet.this.remove(order[--next]);
+               canRemove = false;
+            }
+         };
+      }
+   }
+}
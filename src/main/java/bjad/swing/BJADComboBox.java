@@ -8,13 +8,18 @@ import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 import javax.swing.ComboBoxEditor;
 import javax.swing.ComboBoxModel;
 import javax.swing.JComboBox;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
 import javax.swing.plaf.basic.BasicComboBoxEditor;
 
 import sun.reflect.misc.MethodUtil;
@@ -34,6 +39,22 @@ public class BJADComboBox<T> extends JComboBox<T>
    private static final long serialVersionUID = 2257674315285171013L;
    private RestrictiveComboBoxEditor editor = null;
    
+   /**
+    * The model filtering the items while typeahead is enabled, 
+    * or null if typeahead is disabled.
+    */
+   private TypeaheadComboBoxModel<T> typeaheadModel = null;
+   private final TypeaheadHandler typeaheadHandler = new TypeaheadHandler();
+   private boolean typeaheadFilterPending = false;
+   private boolean applyingTypeaheadFilter = false;
+   private boolean refreshingTypeaheadPopup = false;
+   
+   /**
+    * The prototype display value taken from the LazyComboBoxModel,
+    * or null if none was taken.
+    */
+   private T modelPrototype = null;
+   
    /**
     * Default Constructor
     */
@@ -71,25 +92,94 @@ public class BJADComboBox<T> extends JComboBox<T>
 
    /**
     * Constructor, setting the collection of items
-    * to display. 
+    * to display. The items are loaded into a 
+    * LazyComboBoxModel in one step, and the longest of the 
+    * first few items is used as the prototype display value 
+    * so the combobox does not measure every item.
     * 
     * @param items
     *    The collection of items to display.
     */
    public BJADComboBox(Collection<T> items)
    {
-      this();
-      if (items != null)
+      this(new LazyComboBoxModel<T>(items));
+      usePrototypeFromModel();
+   }
+
+   /**
+    * Constructor, setting the collection of items to display,
+    * loaded into a LazyComboBoxModel in one step, and the value
+    * the combobox is sized from, so no item is measured.
+    * 
+    * @param items
+    *    The collection of items to display.
+    * @param prototypeDisplayValue
+    *    The value to size the combobox from.
+    */
+   public BJADComboBox(Collection<T> items, T prototypeDisplayValue)
+   {
+      this(new LazyComboBoxModel<T>(items));
+      setPrototypeDisplayValue(prototypeDisplayValue);
+   }
+   
+   /**
+    * Sets the prototype display value to the longest of the 
+    * first few items in the model, if the model is a 
+    * LazyComboBoxModel, so the combobox is sized from that item
+    * instead of measuring every item.
+    */
+   protected void usePrototypeFromModel()
+   {
+      ComboBoxModel<T> model = getSourceModel();
+      if (model instanceof LazyComboBoxModel)
+      {
+         modelPrototype = ((LazyComboBoxModel<T>)model).getPrototypeItem();
+         // Cleared first, as setting the same item again would
+         // not size the combobox again after its text changed.
+         setPrototypeDisplayValue(null);
+         setPrototypeDisplayValue(modelPrototype);
+      }
+   }
+   
+   /**
+    * Takes the prototype display value from the model again 
+    * after the text of the items changes, if the prototype in 
+    * use was taken from the model.
+    */
+   protected void refreshPrototypeFromModel()
+   {
+      if (modelPrototype != null && getPrototypeDisplayValue() == modelPrototype)
+      {
+         usePrototypeFromModel();
+      }
+   }
+
+   /**
+    * Adds all the items to the end of the combobox. If the 
+    * model is a LazyComboBoxModel, the items are added in 
+    * one step with a single event, otherwise they are added
+    * one at a time.
+    * 
+    * @param items
+    *    The items to add.
+    */
+   public void addItems(Collection<T> items)
+   {
+      if (items == null)
+      {
+         return;
+      }
+      ComboBoxModel<T> model = getSourceModel();
+      if (model instanceof LazyComboBoxModel)
       {
-         Iterator<T> iter = items.iterator();
-         iter.forEachRemaining(new Consumer<T>()
+         ((LazyComboBoxModel<T>)model).addAll(items);
+      }
+      else
+      {
+         for (T item : items)
          {
-            @Override
-            public void accept(T t)
-            {
-               addItem(t);               
-            }
-         });
+            addItem(item);
+         }
       }
    }
 
@@ -113,6 +203,75 @@ public class BJADComboBox<T> extends JComboBox<T>
       editor.editor.setMaxLength(length);
    }
    
+   /**
+    * Returns the way whitespace in text entered or pasted 
+    * into the combobox is normalized.
+    * @return
+    *    The whitespace policy of the combobox.
+    */
+   public WhitespacePolicy getWhitespacePolicy()
+   {
+      return editor.editor.getWhitespacePolicy();
+   }
+   
+   /**
+    * Sets the way whitespace in text entered or pasted into 
+    * the combobox is normalized.
+    * @param policy
+    *    The whitespace policy to apply.
+    */
+   public void setWhitespacePolicy(WhitespacePolicy policy)
+   {
+      editor.editor.setWhitespacePolicy(policy);
+   }
+   
+   /**
+    * Returns true if characters not allowed in the combobox are 
+    * removed from text entered or pasted, instead of the whole 
+    * entry being rejected.
+    * @return
+    *    True if characters not allowed are removed.
+    */
+   public boolean isStripInvalidCharacters()
+   {
+      return editor.editor.isStripInvalidCharacters();
+   }
+   
+   /**
+    * Sets whether characters not allowed in the combobox are 
+    * removed from text entered or pasted, instead of the whole 
+    * entry being rejected.
+    * @param strip
+    *    True to remove the characters not allowed.
+    */
+   public void setStripInvalidCharacters(boolean strip)
+   {
+      editor.editor.setStripInvalidCharacters(strip);
+   }
+   
+   /**
+    * Returns true if text entered or pasted into the combobox 
+    * is cut down to fit within the maximum length.
+    * @return
+    *    True if text is cut down to the maximum length.
+    */
+   public boolean isTruncateToMaxLength()
+   {
+      return editor.editor.isTruncateToMaxLength();
+   }
+   
+   /**
+    * Sets whether text entered or pasted into the combobox 
+    * is cut down to fit within the maximum length, instead of 
+    * the whole entry being rejected.
+    * @param truncate
+    *    True to insert as much of the text as fits.
+    */
+   public void setTruncateToMaxLength(boolean truncate)
+   {
+      editor.editor.setTruncateToMaxLength(truncate);
+   }
+   
    /**
     * Adds an allowable character to the text field's
     * allowable character set. 
@@ -137,6 +296,35 @@ public class BJADComboBox<T> extends JComboBox<T>
       editor.editor.addAllowableCharactersFromString(str);
    }
    
+   /**
+    * Adds the range of characters provided to the allowable
+    * character set for the field, such as 'A' to 'Z'.
+    * 
+    * @param first
+    *    The first character in the range to allow.
+    * @param last
+    *    The last character in the range to allow.
+    */
+   public void addAllowableCharacterRange(char first, char last)
+   {
+      editor.editor.addAllowableCharacterRange(first, last);
+   }
+   
+   /**
+    * Adds a rule to the allowable character set for the 
+    * field, allowing any character the rule matches, such 
+    * as Character::isDigit.
+    * 
+    * @param rule
+    *    The rule matching the characters to allow.
+    * @return
+    *    The rule added, to pass to removeAllowableCharacterRule.
+    */
+   public IntPredicate addAllowableCharacterRule(IntPredicate rule)
+   {
+      return editor.editor.addAllowableCharacterRule(rule);
+   }
+   
    /**
     * Removes an allowable character from the text field's
     * allowable character set. 
@@ -161,6 +349,35 @@ public class BJADComboBox<T> extends JComboBox<T>
       editor.editor.removeAllowableCharactersFromString(str);
    }
    
+   /**
+    * Removes the range of characters provided from the 
+    * allowable character set for the field.
+    * 
+    * @param first
+    *    The first character in the range to no longer allow.
+    * @param last
+    *    The last character in the range to no longer allow.
+    */
+   public void removeAllowableCharacterRange(char first, char last)
+   {
+      editor.editor.removeAllowableCharacterRange(first, last);
+   }
+   
+   /**
+    * Removes a rule previously added to the allowable 
+    * character set for the field. Rules are matched by 
+    * identity, and writing the same lambda or method 
+    * reference again can create a new instance that is not
+    * matched, so pass the rule returned when it was added.
+    * 
+    * @param rule
+    *    The rule to remove.
+    */
+   public void removeAllowableCharacterRule(IntPredicate rule)
+   {
+      editor.editor.removeAllowableCharacterRule(rule);
+   }
+   
    /**
     * Returns the placeholder text, which will be shown to the user 
     * when the field is empty, but enabled and editable. 
@@ -317,6 +534,30 @@ public class BJADComboBox<T> extends JComboBox<T>
       editor.editor.removeInvalidEntryListener(listener);
    }
    
+   /**
+    * Adds the invalid entry batch listener to the field so it will
+    * be registered for the events. 
+    * 
+    * @param listener
+    *    The listener to register
+    */
+   public void addInvalidEntryBatchListener(InvalidEntryBatchListener listener)
+   {
+      editor.editor.addInvalidEntryBatchListener(listener);
+   }
+   
+   /**
+    * Removes the invalid entry batch listener from the field so it
+    * will no longer be registered for events.
+    * 
+    * @param listener
+    *    The listener to remove.
+    */
+   public void removeInvalidEntryBatchListener(InvalidEntryBatchListener listener)
+   {
+      editor.editor.removeInvalidEntryBatchListener(listener);
+   }
+   
    /**
     * Provides direct access to the text field acting as the 
     * editor for the combobox.
@@ -329,6 +570,254 @@ public class BJADComboBox<T> extends JComboBox<T>
       return editor.editor;
    }
    
+   /**
+    * Returns true if the typeahead mode is enabled.
+    * @return
+    *    True if the list narrows to the items matching
+    *    the text typed into the editor.
+    */
+   public boolean isTypeaheadEnabled()
+   {
+      return typeaheadModel != null;
+   }
+   
+   /**
+    * Enables or disables the typeahead mode. While enabled 
+    * and the combobox is editable, each keystroke in the
+    * editor narrows the popup list to the items whose text 
+    * starts with the text typed, ignoring case. All the items
+    * are shown again once the popup closes. 
+    * <p>
+    * The items are indexed once when typeahead is enabled, and
+    * the index is kept up to date as items are added, removed 
+    * or changed through the model. The model returned by 
+    * getModel() while typeahead is enabled is a view over the 
+    * model holding the items.
+    * </p>
+    * 
+    * @param enabled
+    *    True to enable typeahead, false to disable it.
+    */
+   public void setTypeaheadEnabled(boolean enabled)
+   {
+      if (enabled == isTypeaheadEnabled())
+      {
+         return;
+      }
+      
+      if (enabled)
+      {
+         typeaheadModel = new TypeaheadComboBoxModel<T>(getModel());
+         super.setModel(typeaheadModel);
+         editor.editor.getDocument().addDocumentListener(typeaheadHandler);
+         addPopupMenuListener(typeaheadHandler);
+      }
+      else
+      {
+         TypeaheadComboBoxModel<T> model = typeaheadModel;
+         updateTypeaheadFilter(null);
+         typeaheadModel = null;
+         editor.editor.getDocument().removeDocumentListener(typeaheadHandler);
+         removePopupMenuListener(typeaheadHandler);
+         model.dispose();
+         super.setModel(model.getSourceModel());
+      }
+   }
+   
+   /**
+    * Returns the model holding the items, rather than the view 
+    * over it returned by getModel() while typeahead is enabled.
+    * The indexes of the items in it are the same as in the list 
+    * while no typeahead filter is applied.
+    * 
+    * @return
+    *    The model holding the items.
+    */
+   protected ComboBoxModel<T> getSourceModel()
+   {
+      return typeaheadModel != null ? typeaheadModel.getSourceModel() : getModel();
+   }
+   
+   /**
+    * Removes the typeahead filter, if one is applied, so the
+    * list shows all the items again.
+    */
+   protected void clearTypeaheadFilter()
+   {
+      if (typeaheadModel != null)
+      {
+         updateTypeaheadFilter(null);
+      }
+   }
+   
+   /**
+    * Rebuilds the typeahead index, which is needed if the text
+    * of the items changes without the model announcing it.
+    */
+   public void refreshTypeaheadIndex()
+   {
+      if (typeaheadModel != null)
+      {
+         applyingTypeaheadFilter = true;
+         editor.itemUpdatesSuppressed = true;
+         try
+         {
+            typeaheadModel.rebuildIndex();
+         }
+         finally
+         {
+            applyingTypeaheadFilter = false;
+            editor.itemUpdatesSuppressed = false;
+         }
+      }
+   }
+   
+   /**
+    * Sets the model for the combobox, wrapping it in a new 
+    * typeahead model if typeahead is enabled.
+    * 
+    * @param aModel
+    *    The model containing the items to display.
+    */
+   @Override
+   public void setModel(ComboBoxModel<T> aModel)
+   {
+      if (typeaheadModel != null && aModel != typeaheadModel)
+      {
+         typeaheadModel.dispose();
+         typeaheadModel = new TypeaheadComboBoxModel<T>(aModel);
+         aModel = typeaheadModel;
+      }
+      super.setModel(aModel);
+   }
+   
+   /**
+    * Ignores the changes the typeahead filter makes to the
+    * list, as the selection does not change with them. 
+    * 
+    * @param e
+    *    The event from the model.
+    */
+   @Override
+   public void contentsChanged(ListDataEvent e)
+   {
+      if (!applyingTypeaheadFilter)
+      {
+         super.contentsChanged(e);
+      }
+   }
+   
+   /**
+    * Ignores the changes the typeahead filter makes to the
+    * list, as the selection does not change with them. 
+    * 
+    * @param e
+    *    The event from the model.
+    */
+   @Override
+   public void intervalAdded(ListDataEvent e)
+   {
+      if (!applyingTypeaheadFilter)
+      {
+         super.intervalAdded(e);
+      }
+   }
+   
+   /**
+    * Ignores the changes the typeahead filter makes to the
+    * list, as the selection does not change with them. 
+    * 
+    * @param e
+    *    The event from the model.
+    */
+   @Override
+   public void intervalRemoved(ListDataEvent e)
+   {
+      if (!applyingTypeaheadFilter)
+      {
+         super.intervalRemoved(e);
+      }
+   }
+   
+   /**
+    * Schedules the typeahead filter to be updated from the editor 
+    * text once the current event is processed, as the list cannot
+    * change while the editor's document is notifying listeners. 
+    * Several keystrokes in the same event turn only update the 
+    * filter once.
+    */
+   private void scheduleTypeaheadFilter()
+   {
+      if (editor.settingItem || !isEditable() || typeaheadFilterPending)
+      {
+         return;
+      }
+      typeaheadFilterPending = true;
+      SwingUtilities.invokeLater(new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            typeaheadFilterPending = false;
+            if (typeaheadModel != null)
+            {
+               updateTypeaheadFilter(editor.editor.getText());
+               refreshTypeaheadPopup();
+            }
+         }
+      });
+   }
+   
+   /**
+    * Applies the filter to the typeahead model without letting 
+    * the change replace the text in the editor.
+    * 
+    * @param text
+    *    The text to filter on, or null to show all the items.
+    */
+   private void updateTypeaheadFilter(String text)
+   {
+      applyingTypeaheadFilter = true;
+      editor.itemUpdatesSuppressed = true;
+      try
+      {
+         typeaheadModel.setFilter(text);
+      }
+      finally
+      {
+         applyingTypeaheadFilter = false;
+         editor.itemUpdatesSuppressed = false;
+      }
+   }
+   
+   /**
+    * Shows the popup sized to the items matching the filter, 
+    * or hides it if no items match.
+    */
+   private void refreshTypeaheadPopup()
+   {
+      if (!isShowing())
+      {
+         return;
+      }
+      refreshingTypeaheadPopup = true;
+      try
+      {
+         if (isPopupVisible())
+         {
+            setPopupVisible(false);
+         }
+         if (getItemCount() > 0)
+         {
+            setPopupVisible(true);
+         }
+      }
+      finally
+      {
+         refreshingTypeaheadPopup = false;
+      }
+   }
+   
    /**
     * Creates the default editor for the combobox with the default
     * max length of 500.
@@ -339,12 +828,67 @@ public class BJADComboBox<T> extends JComboBox<T>
       editor.editor.setMaxLength(500);
       setEditor(editor);
    }
+   
+   /**
+    * Listener updating the typeahead filter as the user types
+    * in the editor, and showing all the items again once the 
+    * popup closes.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class TypeaheadHandler implements DocumentListener, PopupMenuListener
+   {
+      @Override
+      public void insertUpdate(DocumentEvent e)
+      {
+         scheduleTypeaheadFilter();
+      }
+
+      @Override
+      public void removeUpdate(DocumentEvent e)
+      {
+         scheduleTypeaheadFilter();
+      }
+
+      @Override
+      public void changedUpdate(DocumentEvent e)
+      {
+         ; // attribute changes do not affect the filter.
+      }
+
+      @Override
+      public void popupMenuWillBecomeVisible(PopupMenuEvent e)
+      {
+         ; // unused
+      }
+
+      @Override
+      public void popupMenuWillBecomeInvisible(PopupMenuEvent e)
+      {
+         if (!refreshingTypeaheadPopup && typeaheadModel != null)
+         {
+            updateTypeaheadFilter(null);
+         }
+      }
+
+      @Override
+      public void popupMenuCanceled(PopupMenuEvent e)
+      {
+         ; // unused
+      }
+   }
 }
 
 class RestrictiveComboBoxEditor implements ComboBoxEditor, FocusListener
 {
    protected TextField editor;
    private Object oldValue;
+   
+   /** True while setItem is replacing the text in the editor. */
+   boolean settingItem = false;
+   /** True while the combobox does not want the editor text replaced. */
+   boolean itemUpdatesSuppressed = false;
 
    public RestrictiveComboBoxEditor() {
        editor = createEditorComponent();
@@ -373,6 +917,9 @@ class RestrictiveComboBoxEditor implements ComboBoxEditor, FocusListener
     * @param anObject the displayed value of the editor
     */
    public void setItem(Object anObject) {
+       if (itemUpdatesSuppressed) {
+           return;
+       }
        String text;
 
        if ( anObject != null )  {
@@ -386,7 +933,12 @@ class RestrictiveComboBoxEditor implements ComboBoxEditor, FocusListener
        }
        // workaround for 4530952
        if (! text.equals(editor.getText())) {
-           editor.setText(text);
+           settingItem = true;
+           try {
+               editor.setText(text);
+           } finally {
+               settingItem = false;
+           }
        }
    }
 
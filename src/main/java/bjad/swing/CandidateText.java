@@ -0,0 +1,185 @@
+package bjad.swing;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+/**
+ * CharSequence view of the text a document would hold once a
+ * string is inserted into it, spliced together from the content
+ * of the document and the string without copying either.
+ * <p>
+ * The content of the document is read through segments with
+ * partial returns, which hand back the document's own array. A
+ * gap buffer holds its content in at most two runs, one either
+ * side of the gap, so the view keeps the two runs and finds each
+ * character in one or the other. Content that comes back in more
+ * than two runs is copied into a single run instead.
+ * </p>
+ * <p>
+ * The view is only valid until the document changes, and is
+ * reused for each insert validated by the document.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class CandidateText implements CharSequence
+{
+   private final Segment head = new Segment();
+   private final Segment tail = new Segment();
+
+   private int offset;
+   private String inserted;
+   private int contentLength;
+
+   /**
+    * Points the view at the document and the string being
+    * inserted into it.
+    *
+    * @param doc
+    *    The document being inserted into.
+    * @param offs
+    *    The offset the string is being inserted at.
+    * @param str
+    *    The string being inserted.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   void reset(Document doc, int offs, String str) throws BadLocationException
+   {
+      if (offs < 0 || offs > doc.getLength())
+      {
+         throw new BadLocationException("Invalid insert offset", offs);
+      }
+      this.offset = offs;
+      this.inserted = str;
+      this.contentLength = doc.getLength();
+
+      head.setPartialReturn(true);
+      tail.setPartialReturn(true);
+      doc.getText(0, contentLength, head);
+      int remaining = contentLength - head.count;
+      if (remaining > 0)
+      {
+         doc.getText(head.count, remaining, tail);
+         if (tail.count < remaining)
+         {
+            // More than two runs, copy the content into one.
+            head.setPartialReturn(false);
+            doc.getText(0, contentLength, head);
+            tail.count = 0;
+         }
+      }
+      else
+      {
+         tail.count = 0;
+      }
+   }
+
+   /**
+    * Releases the string and document content held by the view.
+    */
+   void clear()
+   {
+      inserted = null;
+      contentLength = 0;
+      head.array = null;
+      head.count = 0;
+      tail.array = null;
+      tail.count = 0;
+   }
+
+   @Override
+   public int length()
+   {
+      return contentLength + inserted.length();
+   }
+
+   @Override
+   public char charAt(int index)
+   {
+      if (index < 0 || index >= length())
+      {
+         throw new IndexOutOfBoundsException("Index " + index + " outside of length " + length());
+      }
+      if (index < offset)
+      {
+         return contentAt(index);
+      }
+      int insertedIndex = index - offset;
+      if (insertedIndex < inserted.length())
+      {
+         return inserted.charAt(insertedIndex);
+      }
+      return contentAt(index - inserted.length());
+   }
+
+   @Override
+   public CharSequence subSequence(int start, int end)
+   {
+      if (start < 0 || end > length() || start > end)
+      {
+         throw new IndexOutOfBoundsException("Range " + start + " to " + end + " outside of length " + length());
+      }
+      StringBuilder sb = new StringBuilder(end - start);
+      for (int index = start; index != end; ++index)
+      {
+         sb.append(charAt(index));
+      }
+      return sb.toString();
+   }
+
+   @Override
+   public String toString()
+   {
+      StringBuilder sb = new StringBuilder(length());
+      appendContent(sb, 0, offset);
+      sb.append(inserted);
+      appendContent(sb, offset, contentLength);
+      return sb.toString();
+   }
+
+   /**
+    * Appends a range of the content of the document to the builder,
+    * copying from each run the range covers.
+    *
+    * @param sb
+    *    The builder to append to.
+    * @param start
+    *    The start of the range within the document content.
+    * @param end
+    *    The end of the range within the document content, exclusive.
+    */
+   private void appendContent(StringBuilder sb, int start, int end)
+   {
+      int headEnd = Math.min(end, head.count);
+      if (start < headEnd)
+      {
+         sb.append(head.array, head.offset + start, headEnd - start);
+      }
+      int tailStart = Math.max(start, head.count);
+      if (tailStart < end)
+      {
+         sb.append(tail.array, tail.offset + tailStart - head.count, end - tailStart);
+      }
+   }
+
+   /**
+    * Returns the character at the index within the content of
+    * the document.
+    *
+    * @param index
+    *    The index within the document content.
+    * @return
+    *    The character at the index.
+    */
+   private char contentAt(int index)
+   {
+      if (index < head.count)
+      {
+         return head.array[head.offset + index];
+      }
+      return tail.array[tail.offset + index - head.count];
+   }
+}
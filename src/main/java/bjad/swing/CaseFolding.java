@@ -0,0 +1,51 @@
+package bjad.swing;
+
+/**
+ * Helper for case folding text used as lookup keys, so
+ * two strings fold to the same key when 
+ * String.equalsIgnoreCase considers them equal.
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class CaseFolding
+{
+   /**
+    * Private constructor, only static methods are offered.
+    */
+   private CaseFolding()
+   {
+   }
+   
+   /**
+    * Case folds the text so two strings fold to the same value
+    * when String.equalsIgnoreCase considers them equal.
+    *
+    * @param text
+    *    The text to fold.
+    * @return
+    *    The case folded text.
+    */
+   static String fold(String text)
+   {
+      char[] folded = new char[text.length()];
+      for (int index = 0; index != folded.length; ++index)
+      {
+         folded[index] = fold(text.charAt(index));
+      }
+      return new String(folded);
+   }
+   
+   /**
+    * Case folds a single character.
+    *
+    * @param c
+    *    The character to fold.
+    * @return
+    *    The case folded character.
+    */
+   static char fold(char c)
+   {
+      return Character.toLowerCase(Character.toUpperCase(c));
+   }
+}
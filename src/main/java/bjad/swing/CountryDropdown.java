@@ -1,12 +1,10 @@
 package bjad.swing;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Scanner;
 import java.util.StringTokenizer;
-import java.util.function.Consumer;
 
 import javax.swing.ComboBoxModel;
 import bjad.swing.beans.CountryBean;
@@ -23,6 +21,12 @@ public class CountryDropdown extends BJADComboBox<CountryBean>
    private static final long serialVersionUID = -6227001906185492195L;
    protected ICountryDisplay displayFormatter = ICountryDisplay.createEnglishDisplaySafeImpl();
    
+   /**
+    * Index of the text the countries in the dropdown can be 
+    * found by, kept up to date as the model changes.
+    */
+   private final CountryTextIndex countryIndex = new CountryTextIndex();
+   
    /**
     * Default constructor, creating an empty dropdown.
     */
@@ -55,24 +59,35 @@ public class CountryDropdown extends BJADComboBox<CountryBean>
    }
 
    /**
+    * Constructor, setting the collection of countries to
+    * display, loaded into a LazyComboBoxModel in one step, 
+    * using the longest of the first few countries as the 
+    * prototype display value.
+    * 
     * @param countries
     *    The collection of countries to add. 
     */
    public CountryDropdown(Collection<CountryBean> countries)
    {
-      this();
-      if (countries != null)
-      {
-         Iterator<CountryBean> iter = countries.iterator();
-         iter.forEachRemaining(new Consumer<CountryBean>()
-         {
-            @Override
-            public void accept(CountryBean t)
-            {
-               addItem(t);               
-            }
-         });
-      }
+      this(new LazyComboBoxModel<CountryBean>(countries));
+      usePrototypeFromModel();
+   }
+
+   /**
+    * Constructor, setting the collection of countries to
+    * display, loaded into a LazyComboBoxModel in one step, and
+    * the country the dropdown is sized from, so no country is
+    * measured.
+    * 
+    * @param countries
+    *    The collection of countries to add. 
+    * @param prototypeDisplayValue
+    *    The country to size the dropdown from.
+    */
+   public CountryDropdown(Collection<CountryBean> countries, CountryBean prototypeDisplayValue)
+   {
+      this(new LazyComboBoxModel<CountryBean>(countries));
+      setPrototypeDisplayValue(prototypeDisplayValue);
    }
 
    /**
@@ -139,7 +154,9 @@ public class CountryDropdown extends BJADComboBox<CountryBean>
     */
    public void setSelectedCountryByText(String text)
    {
-      super.setSelectedIndex(findCountryByText(text));
+      int index = findCountryByText(text);
+      clearTypeaheadFilter();
+      super.setSelectedIndex(index);
    }
    
    /**
@@ -161,6 +178,9 @@ public class CountryDropdown extends BJADComboBox<CountryBean>
          {
             getItemAt(index).setDisplayFormatter(formatter);
          }
+         countryIndex.invalidate();
+         refreshTypeaheadIndex();
+         refreshPrototypeFromModel();
          repaint();
          setSelectedIndex(selectedIndex);
       }
@@ -178,6 +198,19 @@ public class CountryDropdown extends BJADComboBox<CountryBean>
     * </ol>
     * If the text cannot be matched to a country, -1 
     * will be returned.
+    * <p>
+    * The lookup goes through an index of the text for every 
+    * country in the dropdown that is kept up to date as items
+    * are added or removed. If the text of a country is changed
+    * after it is added, call refreshCountryIndex() so the
+    * lookup will find the country by its new text.
+    * </p>
+    * <p>
+    * Every country is searched, including those hidden by the
+    * typeahead filter, and the index returned is the index of
+    * the country in the full list, shown once the filter is 
+    * cleared.
+    * </p>
     * 
     * @param text
     *    The text to match against the countries in the 
@@ -192,49 +225,21 @@ public class CountryDropdown extends BJADComboBox<CountryBean>
       int retVal = -1;
       if (text != null && !text.trim().isEmpty())
       {
-         for (int index = 0; index != getItemCount(); ++index)
-         {
-            CountryBean bean = getItemAt(index);
-            String val = bean.toString();
-            if (val != null && val.equalsIgnoreCase(text))
-            {
-               retVal = index;
-               break;
-            }            
-            val = bean.getAlpha3Code();
-            if (val != null && val.equalsIgnoreCase(text))
-            {
-               retVal = index;
-               break;
-            }
-            val = bean.getAlpha2Code();
-            if (val != null && val.equalsIgnoreCase(text))
-            {
-               retVal = index;
-               break;
-            }
-            val = bean.getEnglishText();
-            if (val != null && val.equalsIgnoreCase(text))
-            {
-               retVal = index;
-               break;
-            }
-            if (bean.getOtherLanguageText() != null)
-            {
-               for (String nonEnglishText : bean.getOtherLanguageText().values())
-               {
-                  if (nonEnglishText.equalsIgnoreCase(text))
-                  {
-                     retVal = index;
-                     break;
-                  }
-               }
-            }
-         }
+         retVal = countryIndex.find(getSourceModel(), text);
       }
       return retVal;
    }
    
+   /**
+    * Marks the index used by findCountryByText to be rebuilt, 
+    * which is needed if the text of the countries in the 
+    * dropdown are changed after they have been added.
+    */
+   public void refreshCountryIndex()
+   {
+      countryIndex.invalidate();
+   }
+   
    /**
     * Returns the selected objects in the dropdown, or null
     * if nothing is selected. 
@@ -275,7 +280,7 @@ public class CountryDropdown extends BJADComboBox<CountryBean>
     */
    public static CountryDropdown createDropdownFromPackagedISO3166List()
    {
-      List<CountryBean> countries = new LinkedList<>();
+      List<CountryBean> countries = new ArrayList<>();
       try (Scanner s = new Scanner(ClassLoader.getSystemResourceAsStream("Country_ISO-3166-1_tabbed.txt")) )
       {
          while (s.hasNextLine())
@@ -0,0 +1,199 @@
+package bjad.swing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.ComboBoxModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import bjad.swing.beans.CountryBean;
+
+/**
+ * Index of the text each country in a combobox model can be
+ * found by (display text, alpha 3 code, alpha 2 code, english
+ * text and every non-english text), mapped to the index of the
+ * first country in the model with that text.
+ * <p>
+ * The text is case folded the same way String.equalsIgnoreCase
+ * compares characters, so a lookup finds the same country as
+ * comparing the text against each country in turn.
+ * </p>
+ * <p>
+ * The index listens to the model it was built from. Countries
+ * appended to the end of the model are added to the index as
+ * they arrive, while any other change to the model marks the
+ * index to be rebuilt on the next lookup.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class CountryTextIndex implements ListDataListener
+{
+   private final Map<String, Integer> indexByText = new HashMap<>();
+   private ComboBoxModel<CountryBean> model = null;
+   private boolean stale = true;
+   private int indexedCount = 0;
+
+   /**
+    * Finds the index of the first country in the model that
+    * can be found by the text passed.
+    *
+    * @param currentModel
+    *    The model to search, which the index will listen to
+    *    if it is not already.
+    * @param text
+    *    The text to find.
+    * @return
+    *    The index of the first matching country, or -1 if
+    *    no country matches the text.
+    */
+   int find(ComboBoxModel<CountryBean> currentModel, String text)
+   {
+      if (currentModel != model)
+      {
+         if (model != null)
+         {
+            model.removeListDataListener(this);
+         }
+         model = currentModel;
+         if (model != null)
+         {
+            model.addListDataListener(this);
+         }
+         stale = true;
+      }
+      if (model == null)
+      {
+         return -1;
+      }
+      if (stale)
+      {
+         rebuild();
+      }
+      Integer index = indexByText.get(CaseFolding.fold(text));
+      return index == null ? -1 : index;
+   }
+
+   /**
+    * Marks the index to be rebuilt on the next lookup, for
+    * changes the model does not announce, such as the text
+    * of a country being changed.
+    */
+   void invalidate()
+   {
+      stale = true;
+   }
+
+   /**
+    * Adds the countries appended to the end of the model to
+    * the index, or marks the index to be rebuilt if they
+    * were inserted anywhere else.
+    *
+    * @param e
+    *    The event from the model.
+    */
+   @Override
+   public void intervalAdded(ListDataEvent e)
+   {
+      if (!stale && e.getIndex0() == indexedCount && e.getIndex1() >= e.getIndex0())
+      {
+         for (int index = e.getIndex0(); index <= e.getIndex1(); ++index)
+         {
+            indexCountry(index);
+         }
+      }
+      else
+      {
+         stale = true;
+      }
+   }
+
+   /**
+    * Marks the index to be rebuilt when countries are removed
+    * as the indexes of the countries after them shift.
+    *
+    * @param e
+    *    The event from the model.
+    */
+   @Override
+   public void intervalRemoved(ListDataEvent e)
+   {
+      stale = true;
+   }
+
+   /**
+    * Marks the index to be rebuilt when countries in the model
+    * change. Selection changes, which are reported without an
+    * index, are ignored.
+    *
+    * @param e
+    *    The event from the model.
+    */
+   @Override
+   public void contentsChanged(ListDataEvent e)
+   {
+      if (e.getIndex0() >= 0 || e.getIndex1() >= 0)
+      {
+         stale = true;
+      }
+   }
+
+   /**
+    * Rebuilds the index from all the countries in the model.
+    */
+   private void rebuild()
+   {
+      indexByText.clear();
+      indexedCount = 0;
+      for (int index = 0, size = model.getSize(); index != size; ++index)
+      {
+         indexCountry(index);
+      }
+      stale = false;
+   }
+
+   /**
+    * Adds the text for the country at the index in the model.
+    *
+    * @param index
+    *    The index of the country in the model.
+    */
+   private void indexCountry(int index)
+   {
+      CountryBean bean = model.getElementAt(index);
+      if (bean != null)
+      {
+         put(bean.toString(), index);
+         put(bean.getAlpha3Code(), index);
+         put(bean.getAlpha2Code(), index);
+         put(bean.getEnglishText(), index);
+         if (bean.getOtherLanguageText() != null)
+         {
+            for (String nonEnglishText : bean.getOtherLanguageText().values())
+            {
+               put(nonEnglishText, index);
+            }
+         }
+      }
+      indexedCount = index + 1;
+   }
+
+   /**
+    * Maps the text to the index, unless a country before it
+    * already has the same text.
+    *
+    * @param text
+    *    The text to map.
+    * @param index
+    *    The index of the country with the text.
+    */
+   private void put(String text, int index)
+   {
+      if (text != null)
+      {
+         indexByText.putIfAbsent(CaseFolding.fold(text), index);
+      }
+   }
+}
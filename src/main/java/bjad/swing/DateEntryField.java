@@ -2,18 +2,29 @@ package bjad.swing;
 
 import java.math.BigDecimal;
 import java.text.DateFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 
-import javax.swing.text.Document;
-
 import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
 
 /**
  * Field for entering a date value into and 
  * then show as a formatted string once 
  * focus is lost in the field.
+ * <p>
+ * Dates are parsed and formatted with java.time, so fields can 
+ * be created and filled from background threads. A DateFormat 
+ * can still be set as the display format, in which case it is 
+ * used instead of the display formatter.
+ * </p>
+ * <p>
+ * The field keeps a single numeric document for its whole life, 
+ * turning the numeric restrictions on while focused and off to 
+ * show the formatted date, so changing focus does not replace 
+ * the document and rebuild the views of the field.
+ * </p>
  *
  * @author 
  *   Ben Dougall
@@ -22,21 +33,35 @@ public class DateEntryField extends AbstractRestrictiveTextField
 {
    private static final long serialVersionUID = -4673002871494096631L;
    
-   private static final SimpleDateFormat YYYYMMDD_FORMAT = new SimpleDateFormat("yyyyMMdd");
-   private static final SimpleDateFormat YYMMDD_FORMAT = new SimpleDateFormat("yyMMdd");
-   
-   private Document baseDoc;
-   private NumericFieldDocument numDoc;
+   private final NumericFieldDocument numDoc;
+   /** 
+    * The CCYYMMDD entry shown when focus was gained, so an entry 
+    * left unchanged keeps the entered date without parsing it.
+    */
+   private String entryText = null;
    
    /**
-    * The datw formatter used to format the date entered in the
-    * field to a more readable format. 
+    * The date format used to format the date entered in the
+    * field to a more readable format, or null to use the 
+    * display formatter. 
     */
-   protected DateFormat displayFormat = new SimpleDateFormat("MMM d, yyyy");
+   protected DateFormat displayFormat = null;
+   /**
+    * The formatter used to format the date entered in the field 
+    * to a more readable format when no display format is set.
+    */
+   protected DateTimeFormatter displayFormatter = DateFieldFormats.DEFAULT_DISPLAY_FORMATTER;
    /**
     * The date entered in the field. 
     */
    protected Date enteredDate = null;
+   /**
+    * The date parsed from the text typed while the field has 
+    * focus, along with the document change count it was parsed
+    * at.
+    */
+   private Date typedDate = null;
+   private long typedDateModCount = -1;
    
    /**
     * Default constructor, setting up the field without a 
@@ -56,13 +81,14 @@ public class DateEntryField extends AbstractRestrictiveTextField
    public DateEntryField(Date defaultDate)
    {
       setPlaceholderText("CCYYMMDD");
-      baseDoc = getDocument();
+      numDoc = new NumericFieldDocument(this, new BigDecimal(99_000_000L), false, false);
+      numDoc.setRestrictionsEnabled(false);
+      setDocument(numDoc);
       if (defaultDate != null)
       {
          enteredDate = defaultDate;
          updateDateDisplay();
       }      
-      numDoc = new NumericFieldDocument(this, new BigDecimal(99_000_000L), false, false);
    }
    
    /**
@@ -70,21 +96,52 @@ public class DateEntryField extends AbstractRestrictiveTextField
     * or an invalid date has been entered. 
     * 
     * @return  
-    *    The date entered, which is validated if the field 
-    *    currently has focus. 
+    *    The date entered, which is parsed from the text typed 
+    *    so far if the field currently has focus. 
     */
    public Date getEnteredDate()
    {
-      // Field has focus? Trigger the validation and update
-      // logic we do when focus is losted to ensure the 
-      // date is properly set. 
+      // Field has focus? Parse the text typed so far without 
+      // touching the text or caret of the field, as the user 
+      // may still be typing. The entry is only checked, and 
+      // cleared if invalid, once focus is lost. The text is 
+      // parsed again only once it changes.
       if (hasFocus())
       {
-         onFocusLost();
+         long modCount = getDocumentModCount();
+         if (typedDateModCount != modCount)
+         {
+            typedDate = parseTypedDate();
+            typedDateModCount = modCount;
+         }
+         return typedDate;
       }
       return enteredDate;
    }
    
+   /**
+    * Parses the text typed into the field while it has focus, 
+    * without changing the field.
+    * 
+    * @return
+    *    The date typed, or null if the field is blank or the 
+    *    text is not a valid date.
+    */
+   private Date parseTypedDate()
+   {
+      String entry = getTextContent();
+      if (entry.equals(entryText))
+      {
+         return enteredDate;
+      }
+      if (entry.isEmpty())
+      {
+         return null;
+      }
+      LocalDate parsed = DateFieldFormats.parseEntry(entry);
+      return parsed == null ? null : DateFieldFormats.toDate(parsed);
+   }
+   
    /**
     * Sets the date value in the field
     * @param value
@@ -96,6 +153,32 @@ public class DateEntryField extends AbstractRestrictiveTextField
       updateDateDisplay();
    }
    
+   /**
+    * Returns the date in the field as a local date in the 
+    * system time zone, or null if blank or an invalid date
+    * has been entered.
+    * 
+    * @return  
+    *    The date entered, which is validated if the field 
+    *    currently has focus. 
+    */
+   public LocalDate getEnteredLocalDate()
+   {
+      return DateFieldFormats.toLocalDate(getEnteredDate());
+   }
+   
+   /**
+    * Sets the date value in the field, stored as the start of 
+    * the day in the system time zone.
+    * 
+    * @param value
+    *    The date to show in the field.
+    */
+   public void setEnteredLocalDate(LocalDate value)
+   {
+      setEnteredDate(DateFieldFormats.toDate(value));
+   }
+   
    /**
     * Throws an exception right away, as you should use the 
     * getEnteredDate method to get the date contained in the field.
@@ -120,7 +203,10 @@ public class DateEntryField extends AbstractRestrictiveTextField
    
    /**
     * Returns the date formatter used to display the date
-    * once entered by the user.
+    * once entered by the user. If only a display formatter 
+    * is set, an equivalent date format is created for the 
+    * default pattern and used from then on, so changes made 
+    * to the format returned take effect.
     * 
     * @return
     *    The date formatter used to display the date to
@@ -129,6 +215,10 @@ public class DateEntryField extends AbstractRestrictiveTextField
     */
    public DateFormat getDisplayFormat()
    {
+      if (this.displayFormat == null && this.displayFormatter == DateFieldFormats.DEFAULT_DISPLAY_FORMATTER)
+      {
+         this.displayFormat = new SimpleDateFormat("MMM d, yyyy");
+      }
       return this.displayFormat;
    }
    /**
@@ -153,6 +243,42 @@ public class DateEntryField extends AbstractRestrictiveTextField
       }
    }
    
+   /**
+    * Returns the formatter used to display the date once 
+    * entered by the user, when no display format is set.
+    * 
+    * @return
+    *    The formatter used to display the date.
+    */
+   public DateTimeFormatter getDisplayFormatter()
+   {
+      return this.displayFormatter;
+   }
+   
+   /**
+    * Sets the formatter to display the date in the field with 
+    * once a date is entered and focus is lost within the field, 
+    * replacing any display format set. The formatter is given 
+    * the local date, so it can only use date fields.
+    * 
+    * @param formatter
+    *    The formatter to use to display the entered date 
+    *    with. If null is passed, the existing formatter 
+    *    will be used. 
+    */
+   public void setDisplayFormatter(DateTimeFormatter formatter)
+   {
+      if (formatter != null)
+      {
+         displayFormatter = formatter;
+         displayFormat = null;
+         if (enteredDate != null)
+         {
+            updateDateDisplay();
+         }
+      }
+   }
+   
    /**
     * When focus is lost on the field, the user entry 
     * will be validated. If a date is found, the entered
@@ -163,61 +289,75 @@ public class DateEntryField extends AbstractRestrictiveTextField
    {
       // Attempt to convert the entry into a 
       // date object. 
-      try
+      String entry = getTextContent();
+      if (entry.equals(entryText))
+      {
+         ; // Entry unchanged, keep the entered date.
+      }
+      else if (entry.isEmpty())
       {
-         switch (getTextContent().length())
+         enteredDate = null;
+      }
+      else
+      {
+         LocalDate parsed = DateFieldFormats.parseEntry(entry);
+         if (parsed == null)
          {
-         case 0:
-            enteredDate = null;
-         case 6:
-            enteredDate = YYMMDD_FORMAT.parse(getTextContent());
-            break;
-         case 8:
-            enteredDate = YYYYMMDD_FORMAT.parse(getTextContent());
-            break;
-         default:
-            fireInvalidEntryListeners(InvalidatedReason.INVALID_DATE, getTextContent() + " is an invalid date.");
+            fireInvalidEntryListeners(InvalidatedReason.INVALID_DATE, entry + " is an invalid date.");
             enteredDate = null;
             super.setText("");
          }
-      }
-      catch (ParseException ex)
-      {
-         fireInvalidEntryListeners(InvalidatedReason.INVALID_DATE, getTextContent() + " is an invalid date.");
-         enteredDate = null;
-         super.setText("");         
+         else
+         {
+            enteredDate = DateFieldFormats.toDate(parsed);
+         }
       }
       // Update the display in the field.
       updateDateDisplay();
    }
    
    /**
-    * When focus is gained in the field, the document
-    * supporting numeric entry only is applied, and 
-    * the entered date is returned to the int key 
-    * format.
+    * When focus is gained in the field, the entered date 
+    * is returned to the int key format and the numeric 
+    * entry restrictions of the document are turned on.
     */
    @Override
    protected void onFocusGained()
    {
       if (enteredDate != null)
       {
-         super.setText(YYYYMMDD_FORMAT.format(enteredDate));
+         entryText = DateFieldFormats.formatEntry(DateFieldFormats.toLocalDate(enteredDate));
+         super.setText(entryText);
       }
-      setDocument(numDoc);
+      numDoc.setRestrictionsEnabled(true);
    }
    
    /**
-    * Updates the field's contents by removing the 
-    * character restricting document and then formatted
-    * the entered date if one is found. 
+    * Updates the field's contents by turning off the 
+    * numeric entry restrictions of the document and 
+    * then formatting the entered date if one is found,
+    * or clearing the field if not. 
     */
    private void updateDateDisplay()
    {
-      setDocument(baseDoc);
-      if (enteredDate != null)
+      numDoc.setRestrictionsEnabled(false);
+      entryText = null;
+      super.setText(enteredDate != null ? formatDisplayText() : "");
+   }
+   
+   /**
+    * Formats the entered date for display, with the display 
+    * format if one is set, or the display formatter.
+    * 
+    * @return
+    *    The entered date formatted for display.
+    */
+   private String formatDisplayText()
+   {
+      if (displayFormat != null)
       {
-         super.setText(displayFormat.format(enteredDate));
+         return displayFormat.format(enteredDate);
       }
+      return DateFieldFormats.formatDisplay(displayFormatter, DateFieldFormats.toLocalDate(enteredDate));
    }
 }
@@ -0,0 +1,295 @@
+package bjad.swing;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parsing and formatting shared by the date fields, safe to use
+ * from any thread as nothing here holds mutable state other than
+ * the synchronized display cache.
+ * <p>
+ * The CCYYMMDD and YYMMDD entries are parsed by hand from the
+ * digits, leniently the same way the SimpleDateFormat parsing
+ * they replace did, so a month or day past the end rolls over
+ * into the following month or year. Two digit years are placed
+ * within the 100 years starting 80 years ago, also matching
+ * SimpleDateFormat.
+ * </p>
+ * <p>
+ * Display text is kept in a small LRU cache per formatter and
+ * date, as screens tend to show the same few dates many times.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class DateFieldFormats
+{
+   /** The format dates are shown in by default, such as Jan 2, 2022. */
+   static final DateTimeFormatter DEFAULT_DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("MMM d, yyyy");
+
+   private static final int DISPLAY_CACHE_SIZE = 128;
+
+   private static final Map<DisplayKey, String> DISPLAY_CACHE = new LinkedHashMap<DisplayKey, String>(DISPLAY_CACHE_SIZE * 2, 0.75f, true)
+   {
+      private static final long serialVersionUID = 8106735420127815526L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<DisplayKey, String> eldest)
+      {
+         return size() > DISPLAY_CACHE_SIZE;
+      }
+   };
+
+   private DateFieldFormats()
+   {
+   }
+
+   /**
+    * Parses the digits entered into a date field, either 8
+    * digits in CCYYMMDD format or 6 digits in YYMMDD format.
+    *
+    * @param text
+    *    The text entered.
+    * @return
+    *    The date entered, or null if the text is not 6 or 8
+    *    digits.
+    */
+   static LocalDate parseEntry(CharSequence text)
+   {
+      int length = text.length();
+      if (length != 6 && length != 8)
+      {
+         return null;
+      }
+      int yearDigits = length - 4;
+      int year = digits(text, 0, yearDigits);
+      int month = digits(text, yearDigits, 2);
+      int day = digits(text, yearDigits + 2, 2);
+      if (year < 0 || month < 0 || day < 0)
+      {
+         return null;
+      }
+      if (yearDigits == 2)
+      {
+         LocalDateTime centuryStart = LocalDateTime.now().minusYears(80);
+         int centuryStartYear = centuryStart.getYear();
+         int ambiguousYear = centuryStartYear % 100;
+         year += (centuryStartYear / 100) * 100 + (year < ambiguousYear ? 100 : 0);
+         if (year % 100 == ambiguousYear)
+         {
+            LocalDate date = rollDate(year, month, day);
+            return date.atStartOfDay().isBefore(centuryStart) ? date.plusYears(100) : date;
+         }
+      }
+      return rollDate(year, month, day);
+   }
+
+   /**
+    * Formats the date as the 8 digit CCYYMMDD entry shown while
+    * the field is being edited.
+    *
+    * @param date
+    *    The date to format.
+    * @return
+    *    The date in CCYYMMDD format.
+    */
+   static String formatEntry(LocalDate date)
+   {
+      StringBuilder sb = new StringBuilder(8);
+      int year = date.getYear();
+      for (int pad = 1000; pad > 1 && year < pad; pad /= 10)
+      {
+         sb.append('0');
+      }
+      sb.append(year);
+      appendTwoDigits(sb, date.getMonthValue());
+      appendTwoDigits(sb, date.getDayOfMonth());
+      return sb.toString();
+   }
+
+   /**
+    * Formats the date for display, using the cached text if
+    * the date was already formatted with the formatter.
+    *
+    * @param formatter
+    *    The formatter to display the date with.
+    * @param date
+    *    The date to format.
+    * @return
+    *    The formatted date.
+    */
+   static String formatDisplay(DateTimeFormatter formatter, LocalDate date)
+   {
+      DisplayKey key = new DisplayKey(formatter, date);
+      synchronized (DISPLAY_CACHE)
+      {
+         String text = DISPLAY_CACHE.get(key);
+         if (text != null)
+         {
+            return text;
+         }
+      }
+      String text = formatter.format(date);
+      synchronized (DISPLAY_CACHE)
+      {
+         DISPLAY_CACHE.put(key, text);
+      }
+      return text;
+   }
+
+   /**
+    * Converts the date into the local date it falls on in the
+    * system time zone.
+    *
+    * @param date
+    *    The date to convert, can be null.
+    * @return
+    *    The local date, or null if the date is null.
+    */
+   static LocalDate toLocalDate(Date date)
+   {
+      return date == null ? null : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+   }
+
+   /**
+    * Converts the local date into the date at the start of
+    * the day in the system time zone.
+    *
+    * @param date
+    *    The local date to convert, can be null.
+    * @return
+    *    The date, or null if the local date is null.
+    */
+   static Date toDate(LocalDate date)
+   {
+      return date == null ? null : Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+   }
+
+   /**
+    * Converts the date into the local date and time in the
+    * system time zone.
+    *
+    * @param date
+    *    The date to convert, can be null.
+    * @return
+    *    The local date and time, or null if the date is null.
+    */
+   static LocalDateTime toLocalDateTime(Date date)
+   {
+      return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+   }
+
+   /**
+    * Converts the local date and time into a date in the
+    * system time zone.
+    *
+    * @param dateTime
+    *    The local date and time to convert, can be null.
+    * @return
+    *    The date, or null if the local date and time is null.
+    */
+   static Date toDate(LocalDateTime dateTime)
+   {
+      return dateTime == null ? null : Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+   }
+
+   /**
+    * Creates the date, rolling a month or day past the end 
+    * over into the following year or month.
+    *
+    * @param year
+    *    The year.
+    * @param month
+    *    The month, from 0 to 99.
+    * @param day
+    *    The day, from 0 to 99.
+    * @return
+    *    The date.
+    */
+   private static LocalDate rollDate(int year, int month, int day)
+   {
+      return LocalDate.of(year, 1, 1).plusMonths(month - 1).plusDays(day - 1);
+   }
+
+   /**
+    * Reads the number made up of the digits in the text.
+    *
+    * @param text
+    *    The text to read.
+    * @param start
+    *    The index of the first digit.
+    * @param count
+    *    The number of digits.
+    * @return
+    *    The number, or -1 if any character is not an ASCII digit.
+    */
+   private static int digits(CharSequence text, int start, int count)
+   {
+      int value = 0;
+      for (int index = start, end = start + count; index != end; ++index)
+      {
+         char c = text.charAt(index);
+         if (c < '0' || c > '9')
+         {
+            return -1;
+         }
+         value = value * 10 + (c - '0');
+      }
+      return value;
+   }
+
+   /**
+    * Appends the value as two digits, padded with a zero.
+    *
+    * @param sb
+    *    The builder to append to.
+    * @param value
+    *    The value to append, from 0 to 99.
+    */
+   private static void appendTwoDigits(StringBuilder sb, int value)
+   {
+      sb.append((char)('0' + value / 10)).append((char)('0' + value % 10));
+   }
+
+   /**
+    * Key for the display cache, matching the formatter by
+    * identity as formatters do not implement equals.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class DisplayKey
+   {
+      private final DateTimeFormatter formatter;
+      private final LocalDate date;
+
+      DisplayKey(DateTimeFormatter formatter, LocalDate date)
+      {
+         this.formatter = formatter;
+         this.date = date;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return System.identityHashCode(formatter) * 31 + date.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (!(obj instanceof DisplayKey))
+         {
+            return false;
+         }
+         DisplayKey other = (DisplayKey)obj;
+         return formatter == other.formatter && date.equals(other.date);
+      }
+   }
+}
@@ -6,8 +6,8 @@ import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 
 import javax.swing.SwingUtilities;
@@ -15,6 +15,10 @@ import javax.swing.SwingUtilities;
 /**
  * A date/time entry field that can be used within 
  * swing applications. 
+ * <p>
+ * The date and time is formatted with java.time, so fields 
+ * can be created from background threads.
+ * </p>
  *
  * @author 
  *  Ben Dougall
@@ -23,7 +27,7 @@ public class DateTimeTextField extends AbstractRestrictiveTextField implements K
 {
    private static final long            serialVersionUID    = 7905086211679479493L;
 
-   private static final SimpleDateFormat FIELD_DATE_FORMAT   = new SimpleDateFormat("yyyy/MM/dd hh:mm a");
+   private static final DateTimeFormatter FIELD_DATE_FORMAT  = DateTimeFormatter.ofPattern("yyyy/MM/dd hh:mm a");
    private static final Point[]         DATE_SECTION_RANGES = { 
          new Point(0, 4), 
          new Point(5, 7), 
@@ -33,20 +37,24 @@ public class DateTimeTextField extends AbstractRestrictiveTextField implements K
          new Point(17, 19) 
       };
 
-   private Date                         selectedDate        = new Date();
+   private LocalDateTime                selectedDate        = LocalDateTime.now();
    
    /**
     * Creates the field, setting the default 
     * value for the field.
     *
     * @param defaultValue
-    *    The default date to show in the field.
+    *    The default date to show in the field, or null 
+    *    for the current date and time.
     */
    public DateTimeTextField(Date defaultValue)
    {
       super();
       
-      this.selectedDate = defaultValue;
+      if (defaultValue != null)
+      {
+         this.selectedDate = DateFieldFormats.toLocalDateTime(defaultValue);
+      }
       
       Color c = this.getBackground();
       
@@ -60,6 +68,54 @@ public class DateTimeTextField extends AbstractRestrictiveTextField implements K
       this.setText(FIELD_DATE_FORMAT.format(this.selectedDate));
    }
    
+   /**
+    * Returns the date and time selected in the field.
+    * 
+    * @return
+    *    The selected date and time.
+    */
+   public Date getSelectedDate()
+   {
+      return DateFieldFormats.toDate(this.selectedDate);
+   }
+   
+   /**
+    * Sets the date and time selected in the field.
+    * 
+    * @param value
+    *    The date and time to select. Nothing is done if null.
+    */
+   public void setSelectedDate(Date value)
+   {
+      setSelectedDateTime(DateFieldFormats.toLocalDateTime(value));
+   }
+   
+   /**
+    * Returns the date and time selected in the field.
+    * 
+    * @return
+    *    The selected date and time.
+    */
+   public LocalDateTime getSelectedDateTime()
+   {
+      return this.selectedDate;
+   }
+   
+   /**
+    * Sets the date and time selected in the field.
+    * 
+    * @param value
+    *    The date and time to select. Nothing is done if null.
+    */
+   public void setSelectedDateTime(LocalDateTime value)
+   {
+      if (value != null)
+      {
+         this.selectedDate = value;
+         this.setText(FIELD_DATE_FORMAT.format(this.selectedDate));
+      }
+   }
+   
    @Override
    public void keyPressed(KeyEvent keyEvent)
    {
@@ -144,7 +200,7 @@ public class DateTimeTextField extends AbstractRestrictiveTextField implements K
       }
    }
 
-   private void updateSelectedDate(Date newSelectedDate)
+   private void updateSelectedDate(LocalDateTime newSelectedDate)
    {
       this.selectedDate = newSelectedDate;
       int selectedIndex = findFocusedSection(this.getCaretPosition());
@@ -155,30 +211,29 @@ public class DateTimeTextField extends AbstractRestrictiveTextField implements K
    private void updateSelectedDate(int keyCode, int caretPosition)
    {
       int direction = keyCode == KeyEvent.VK_UP ? 1 : -1;
-      Calendar c = Calendar.getInstance();
-      c.setTime(this.selectedDate);
+      LocalDateTime c = this.selectedDate;
 
       int index = findFocusedSection(caretPosition);
       switch (index)
       {
       case 0:
-         c.add(Calendar.YEAR, direction);
+         c = c.plusYears(direction);
          break;
       case 1:
-         c.add(Calendar.MONTH, direction);
+         c = c.plusMonths(direction);
          break;
       case 2:
-         c.add(Calendar.DATE, direction);
+         c = c.plusDays(direction);
          break;
       case 3:
-         c.add(Calendar.HOUR_OF_DAY, direction);
+         c = c.plusHours(direction);
          break;
       case 4:
-         c.add(Calendar.MINUTE, direction);
+         c = c.plusMinutes(direction);
          break;
       case 5:
-         c.add(Calendar.HOUR_OF_DAY, direction * 12);
+         c = c.plusHours(direction * 12);
       }
-      updateSelectedDate(c.getTime());
+      updateSelectedDate(c);
    }
 }
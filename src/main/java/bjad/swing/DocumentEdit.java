@@ -0,0 +1,170 @@
+package bjad.swing;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+
+import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
+
+/**
+ * The insert being validated by the validator chain of a
+ * restrictive document, shared by all the stages of the chain.
+ * <p>
+ * The full text the field would hold after the insert is a view
+ * spliced together from the content of the document and the text
+ * being inserted, without copying either, set up the first time a
+ * stage asks for it and again only if a stage changes the text.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+public final class DocumentEdit
+{
+   private final AbstractBJADDocument document;
+   private int offset;
+   private String text;
+   private AttributeSet attributes;
+   private final CandidateText candidateText = new CandidateText();
+   private boolean candidateValid = false;
+
+   /**
+    * Constructor, setting the document the edit is for.
+    *
+    * @param document
+    *    The document being edited.
+    */
+   DocumentEdit(AbstractBJADDocument document)
+   {
+      this.document = document;
+   }
+
+   /**
+    * Starts validating a new insert.
+    *
+    * @param offs
+    *    The offset the text is being inserted at.
+    * @param str
+    *    The text being inserted.
+    * @param a
+    *    The attributes for the inserted content.
+    */
+   void reset(int offs, String str, AttributeSet a)
+   {
+      this.offset = offs;
+      this.text = str;
+      this.attributes = a;
+      this.candidateValid = false;
+      if (str == null)
+      {
+         candidateText.clear();
+      }
+   }
+
+   /**
+    * Returns the document being edited.
+    *
+    * @return
+    *    The document.
+    */
+   public AbstractBJADDocument getDocument()
+   {
+      return this.document;
+   }
+
+   /**
+    * Returns the offset the text is being inserted at.
+    *
+    * @return
+    *    The offset of the insert.
+    */
+   public int getOffset()
+   {
+      return this.offset;
+   }
+
+   /**
+    * Returns the text being inserted, as changed by the
+    * stages run so far.
+    *
+    * @return
+    *    The text being inserted.
+    */
+   public String getText()
+   {
+      return this.text;
+   }
+
+   /**
+    * Changes the text being inserted, for the stages after
+    * this one and the insert itself.
+    *
+    * @param text
+    *    The text to insert instead.
+    */
+   public void setText(String text)
+   {
+      if (text != this.text)
+      {
+         this.text = text;
+         this.candidateValid = false;
+      }
+   }
+
+   /**
+    * Returns the attributes for the inserted content.
+    *
+    * @return
+    *    The attributes, can be null.
+    */
+   public AttributeSet getAttributes()
+   {
+      return this.attributes;
+   }
+
+   /**
+    * Returns the length of the text the field would hold
+    * after the insert, without building the text.
+    *
+    * @return
+    *    The length of the field after the insert.
+    */
+   public int getCandidateLength()
+   {
+      return document.getLength() + text.length();
+   }
+
+   /**
+    * Returns a view of the full text the field would hold after 
+    * the insert, reading the content of the document in place. 
+    * The view is only valid while the stage is running, so call 
+    * toString() on it to keep the text.
+    *
+    * @return
+    *    The text of the field after the insert.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   public CharSequence getCandidateText() throws BadLocationException
+   {
+      if (!candidateValid)
+      {
+         candidateText.reset(document, offset, text);
+         candidateValid = true;
+      }
+      return candidateText;
+   }
+
+   /**
+    * Fires the invalid entry listeners on the field that owns
+    * the document.
+    *
+    * @param reason
+    *    The reason the input was invalid.
+    * @param message
+    *    The message associated to the input being blocked.
+    */
+   public void fireInvalidEntry(InvalidatedReason reason, String message)
+   {
+      document.fireListenersOnOwningField(reason, message);
+   }
+}
@@ -0,0 +1,34 @@
+package bjad.swing;
+
+import javax.swing.text.BadLocationException;
+
+/**
+ * A stage in the chain of validators a restrictive document runs
+ * text being inserted through, such as the allowable characters,
+ * the maximum length or the numeric rules of a field.
+ * <p>
+ * Each stage can accept the text, change the text being inserted
+ * for the stages after it, or stop the insert, in which case the
+ * stages after it are not run. A stage stopping an insert because
+ * of invalid input notifies the listeners on the field through
+ * DocumentEdit.fireInvalidEntry.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+public interface DocumentValidator
+{
+   /**
+    * Validates the text being inserted into the document.
+    *
+    * @param edit
+    *    The insert being validated.
+    * @return
+    *    True to continue with the next stage, or false to stop
+    *    the insert.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   public boolean validate(DocumentEdit edit) throws BadLocationException;
+}
@@ -0,0 +1,43 @@
+package bjad.swing;
+
+/**
+ * Rule checked against the text of a restrictive text field 
+ * when the form holding the field is validated by a 
+ * FormValidator.
+ * <p>
+ * A rule is given the trimmed text of the field, read on the 
+ * event dispatch thread, and must only look at that text, as 
+ * rules can be checked in parallel on other threads. The result
+ * is kept until the text of the field changes.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+@FunctionalInterface
+public interface FieldRule
+{
+   /**
+    * Checks the text of the field.
+    *
+    * @param text
+    *    The trimmed text of the field.
+    * @return
+    *    The message describing why the text breaks the rule, 
+    *    or null if the text is valid.
+    */
+   public String check(String text);
+
+   /**
+    * Returns a rule requiring the field to not be empty.
+    *
+    * @param message
+    *    The message to report when the field is empty.
+    * @return
+    *    The rule.
+    */
+   public static FieldRule required(String message)
+   {
+      return text -> text.isEmpty() ? message : null;
+   }
+}
@@ -0,0 +1,154 @@
+package bjad.swing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of validating the restrictive text fields within a 
+ * form with a FormValidator, listing the errors found in the 
+ * order of the fields within the form.
+ *
+ * @author
+ *   Ben Dougall
+ */
+public final class FormValidationReport
+{
+   private final int fieldCount;
+   private final List<FieldError> errors;
+
+   /**
+    * Constructor, setting the results of the validation.
+    *
+    * @param fieldCount
+    *    The number of fields validated.
+    * @param errors
+    *    The errors found, in the order of the fields.
+    */
+   FormValidationReport(int fieldCount, List<FieldError> errors)
+   {
+      this.fieldCount = fieldCount;
+      this.errors = Collections.unmodifiableList(errors);
+   }
+
+   /**
+    * Returns true if no errors were found.
+    *
+    * @return
+    *    True if the form is valid.
+    */
+   public boolean isValid()
+   {
+      return errors.isEmpty();
+   }
+
+   /**
+    * Returns the number of fields validated.
+    *
+    * @return
+    *    The number of fields.
+    */
+   public int getFieldCount()
+   {
+      return this.fieldCount;
+   }
+
+   /**
+    * Returns all the errors found, in the order of the fields
+    * within the form.
+    *
+    * @return
+    *    The errors, empty if the form is valid.
+    */
+   public List<FieldError> getErrors()
+   {
+      return this.errors;
+   }
+
+   /**
+    * Returns the errors found for a field.
+    *
+    * @param field
+    *    The field.
+    * @return
+    *    The errors for the field, empty if it is valid.
+    */
+   public List<FieldError> getErrors(AbstractRestrictiveTextField field)
+   {
+      List<FieldError> fieldErrors = new ArrayList<>();
+      for (FieldError error : errors)
+      {
+         if (error.getField() == field)
+         {
+            fieldErrors.add(error);
+         }
+      }
+      return fieldErrors;
+   }
+
+   /**
+    * Returns the first field with an error, such as the field 
+    * to move focus to.
+    *
+    * @return
+    *    The first invalid field, or null if the form is valid.
+    */
+   public AbstractRestrictiveTextField getFirstInvalidField()
+   {
+      return errors.isEmpty() ? null : errors.get(0).getField();
+   }
+
+   /**
+    * An error found in a field of the form.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   public static final class FieldError
+   {
+      private final AbstractRestrictiveTextField field;
+      private final String message;
+
+      /**
+       * Constructor, setting the field and the error found in it.
+       *
+       * @param field
+       *    The field.
+       * @param message
+       *    The message describing the error.
+       */
+      FieldError(AbstractRestrictiveTextField field, String message)
+      {
+         this.field = field;
+         this.message = message;
+      }
+
+      /**
+       * Returns the field the error was found in.
+       *
+       * @return
+       *    The field.
+       */
+      public AbstractRestrictiveTextField getField()
+      {
+         return this.field;
+      }
+
+      /**
+       * Returns the message describing the error.
+       *
+       * @return
+       *    The message.
+       */
+      public String getMessage()
+      {
+         return this.message;
+      }
+
+      @Override
+      public String toString()
+      {
+         return message;
+      }
+   }
+}
@@ -0,0 +1,455 @@
+package bjad.swing;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Validates all the restrictive text fields within a form, such
+ * as an AbstractBJADNavPanel, in a single pass, reporting the
+ * errors found in the order of the fields within the form.
+ * <p>
+ * Each field is checked for its own entry errors, such as an
+ * incomplete input mask, and against the FieldRules added for it.
+ * The fields are found by walking the form once, and found again
+ * only after components are added to or removed from the form.
+ * The result for each field is kept until the text of the field
+ * changes, so validating a form again only checks the fields
+ * changed since. Disabled and read only fields are not checked.
+ * </p>
+ * <p>
+ * The text of the fields is always read on the event dispatch
+ * thread, which the validator must be used on. The rules only
+ * look at that text, so they can be checked in parallel on a
+ * ForkJoinPool, with the results brought back to the event
+ * dispatch thread.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+public class FormValidator
+{
+   private static final FieldRule[] NO_RULES = new FieldRule[0];
+   private static final List<String> NO_MESSAGES = Collections.emptyList();
+
+   /** The number of fields checked by each task in parallel. */
+   private static final int CHECKS_PER_TASK = 16;
+
+   private final Container form;
+   private final IndexInvalidator indexInvalidator = new IndexInvalidator();
+   private final List<Container> indexedContainers = new ArrayList<>();
+   private List<AbstractRestrictiveTextField> fields = null;
+
+   private final Map<AbstractRestrictiveTextField, FieldRule[]> rules = new HashMap<>();
+   private int rulesVersion = 0;
+   private final Map<AbstractRestrictiveTextField, FieldResult> results = new HashMap<>();
+
+   /**
+    * Constructor, setting the form holding the fields to validate.
+    *
+    * @param form
+    *    The form, such as a navigation panel.
+    */
+   public FormValidator(Container form)
+   {
+      if (form == null)
+      {
+         throw new IllegalArgumentException("Form passed to " + this.getClass().getSimpleName() + " cannot be null");
+      }
+      this.form = form;
+   }
+
+   /**
+    * Returns the form holding the fields to validate.
+    *
+    * @return
+    *    The form.
+    */
+   public Container getForm()
+   {
+      return this.form;
+   }
+
+   /**
+    * Returns the restrictive text fields within the form, in the
+    * order they are found walking the form, finding them again if
+    * components were added or removed since the last time.
+    *
+    * @return
+    *    The fields within the form.
+    */
+   public List<AbstractRestrictiveTextField> getFields()
+   {
+      if (fields == null)
+      {
+         for (Container container : indexedContainers)
+         {
+            container.removeContainerListener(indexInvalidator);
+         }
+         indexedContainers.clear();
+         List<AbstractRestrictiveTextField> found = new ArrayList<>();
+         indexFields(form, found);
+         fields = Collections.unmodifiableList(found);
+         results.keySet().retainAll(new HashSet<>(found));
+      }
+      return fields;
+   }
+
+   /**
+    * Adds a rule the text of the field is checked against.
+    *
+    * @param field
+    *    The field to check.
+    * @param rule
+    *    The rule to check the field against.
+    */
+   public void addRule(AbstractRestrictiveTextField field, FieldRule rule)
+   {
+      if (field != null && rule != null)
+      {
+         FieldRule[] current = rules.getOrDefault(field, NO_RULES);
+         FieldRule[] updated = Arrays.copyOf(current, current.length + 1);
+         updated[current.length] = rule;
+         rules.put(field, updated);
+         ++rulesVersion;
+      }
+   }
+
+   /**
+    * Removes a rule from the field.
+    *
+    * @param field
+    *    The field checked.
+    * @param rule
+    *    The rule to remove.
+    */
+   public void removeRule(AbstractRestrictiveTextField field, FieldRule rule)
+   {
+      FieldRule[] current = rules.get(field);
+      if (current == null)
+      {
+         return;
+      }
+      List<FieldRule> remaining = new ArrayList<>(Arrays.asList(current));
+      if (remaining.remove(rule))
+      {
+         if (remaining.isEmpty())
+         {
+            rules.remove(field);
+         }
+         else
+         {
+            rules.put(field, remaining.toArray(NO_RULES));
+         }
+         ++rulesVersion;
+      }
+   }
+
+   /**
+    * Validates the fields of the form on the calling thread.
+    *
+    * @return
+    *    The report of the errors found.
+    */
+   public FormValidationReport validate()
+   {
+      return validate(null);
+   }
+
+   /**
+    * Validates the fields of the form, checking the rules of the
+    * changed fields in parallel on the pool and waiting for them.
+    *
+    * @param pool
+    *    The pool to check the rules on, or null to check them
+    *    on the calling thread.
+    * @return
+    *    The report of the errors found.
+    */
+   public FormValidationReport validate(ForkJoinPool pool)
+   {
+      List<FieldCheck> checks = collectChecks();
+      if (pool == null || checks.size() <= CHECKS_PER_TASK)
+      {
+         for (FieldCheck check : checks)
+         {
+            check.run();
+         }
+      }
+      else
+      {
+         pool.invoke(new CheckTask(checks, 0, checks.size()));
+      }
+      return buildReport(checks);
+   }
+
+   /**
+    * Validates the fields of the form, checking the rules of the
+    * changed fields in parallel on the pool without waiting for
+    * them, and passing the report to the callback on the event
+    * dispatch thread.
+    *
+    * @param pool
+    *    The pool to check the rules on.
+    * @param callback
+    *    The callback to pass the report to.
+    */
+   public void validateLater(ForkJoinPool pool, Consumer<FormValidationReport> callback)
+   {
+      List<FieldCheck> checks = collectChecks();
+      pool.execute(() ->
+      {
+         try
+         {
+            new CheckTask(checks, 0, checks.size()).invoke();
+            SwingUtilities.invokeLater(() -> callback.accept(buildReport(checks)));
+         }
+         catch (RuntimeException ex)
+         {
+            // Report the failure of the rule on the event dispatch thread.
+            SwingUtilities.invokeLater(() -> { throw ex; });
+         }
+      });
+   }
+
+   /**
+    * Walks the container, adding the restrictive text fields
+    * within it to the list and listening for components being
+    * added to or removed from each container walked.
+    *
+    * @param container
+    *    The container to walk.
+    * @param found
+    *    The list of fields found.
+    */
+   private void indexFields(Container container, List<AbstractRestrictiveTextField> found)
+   {
+      container.addContainerListener(indexInvalidator);
+      indexedContainers.add(container);
+      for (Component component : container.getComponents())
+      {
+         if (component instanceof AbstractRestrictiveTextField)
+         {
+            found.add((AbstractRestrictiveTextField)component);
+         }
+         else if (component instanceof Container)
+         {
+            indexFields((Container)component, found);
+         }
+      }
+   }
+
+   /**
+    * Reads the text of each field changed since it was last
+    * validated, or with rules changed since, to be checked.
+    *
+    * @return
+    *    The checks for the changed fields, or for all the fields
+    *    whose result is kept, in the order of the fields.
+    */
+   private List<FieldCheck> collectChecks()
+   {
+      List<AbstractRestrictiveTextField> formFields = getFields();
+      List<FieldCheck> checks = new ArrayList<>(formFields.size());
+      for (AbstractRestrictiveTextField field : formFields)
+      {
+         if (field.isEnabled() && field.isEditable())
+         {
+            long modCount = field.getDocumentModCount();
+            FieldResult result = results.get(field);
+            if (result != null && result.modCount == modCount && result.rulesVersion == rulesVersion)
+            {
+               checks.add(new FieldCheck(field, result));
+            }
+            else
+            {
+               checks.add(new FieldCheck(field, modCount, rulesVersion, field.getTextContent(), field.getEntryError(), rules.getOrDefault(field, NO_RULES)));
+            }
+         }
+      }
+      return checks;
+   }
+
+   /**
+    * Keeps the result of each check and builds the report.
+    *
+    * @param checks
+    *    The checks, all run.
+    * @return
+    *    The report of the errors found.
+    */
+   private FormValidationReport buildReport(List<FieldCheck> checks)
+   {
+      List<FormValidationReport.FieldError> errors = new ArrayList<>();
+      for (FieldCheck check : checks)
+      {
+         results.put(check.field, check.result);
+         for (String message : check.result.messages)
+         {
+            errors.add(new FormValidationReport.FieldError(check.field, message));
+         }
+      }
+      return new FormValidationReport(checks.size(), errors);
+   }
+
+   /**
+    * Result of checking a field, along with the document change
+    * count of the field and the version of the rules it was
+    * checked at.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class FieldResult
+   {
+      final long modCount;
+      final int rulesVersion;
+      final List<String> messages;
+
+      FieldResult(long modCount, int rulesVersion, List<String> messages)
+      {
+         this.modCount = modCount;
+         this.rulesVersion = rulesVersion;
+         this.messages = messages;
+      }
+   }
+
+   /**
+    * Check of a single field, holding the text read from the field
+    * so the rules can be checked on any thread, or the result kept
+    * from the last time the field was checked.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class FieldCheck implements Runnable
+   {
+      final AbstractRestrictiveTextField field;
+      private final long modCount;
+      private final int rulesVersion;
+      private final String text;
+      private final String entryError;
+      private final FieldRule[] fieldRules;
+      FieldResult result;
+
+      FieldCheck(AbstractRestrictiveTextField field, FieldResult result)
+      {
+         this(field, result.modCount, result.rulesVersion, null, null, NO_RULES);
+         this.result = result;
+      }
+
+      FieldCheck(AbstractRestrictiveTextField field, long modCount, int rulesVersion, String text, String entryError, FieldRule[] fieldRules)
+      {
+         this.field = field;
+         this.modCount = modCount;
+         this.rulesVersion = rulesVersion;
+         this.text = text;
+         this.entryError = entryError;
+         this.fieldRules = fieldRules;
+      }
+
+      @Override
+      public void run()
+      {
+         if (result != null)
+         {
+            return;
+         }
+         List<String> messages = NO_MESSAGES;
+         if (entryError != null)
+         {
+            messages = new ArrayList<>(1 + fieldRules.length);
+            messages.add(entryError);
+         }
+         for (FieldRule rule : fieldRules)
+         {
+            String message = rule.check(text);
+            if (message != null)
+            {
+               if (messages == NO_MESSAGES)
+               {
+                  messages = new ArrayList<>(fieldRules.length);
+               }
+               messages.add(message);
+            }
+         }
+         result = new FieldResult(modCount, rulesVersion, messages);
+      }
+   }
+
+   /**
+    * Task running a range of the checks, splitting the range
+    * in half until each task has a few checks to run.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class CheckTask extends RecursiveAction
+   {
+      private static final long serialVersionUID = 4711326960853226381L;
+
+      private final List<FieldCheck> checks;
+      private final int start;
+      private final int end;
+
+      CheckTask(List<FieldCheck> checks, int start, int end)
+      {
+         this.checks = checks;
+         this.start = start;
+         this.end = end;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (end - start <= CHECKS_PER_TASK)
+         {
+            for (int index = start; index != end; ++index)
+            {
+               checks.get(index).run();
+            }
+         }
+         else
+         {
+            int middle = (start + end) >>> 1;
+            invokeAll(new CheckTask(checks, start, middle), new CheckTask(checks, middle, end));
+         }
+      }
+   }
+
+   /**
+    * Listener marking the fields of the form to be found again
+    * when a component is added to or removed from the form.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private class IndexInvalidator implements ContainerListener
+   {
+      @Override
+      public void componentAdded(ContainerEvent e)
+      {
+         fields = null;
+      }
+
+      @Override
+      public void componentRemoved(ContainerEvent e)
+      {
+         fields = null;
+      }
+   }
+}
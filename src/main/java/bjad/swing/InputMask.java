@@ -0,0 +1,248 @@
+package bjad.swing;
+
+/**
+ * Structured input pattern for a TextField, such as a postal code,
+ * SIN, phone number or part number, compiled once into a
+ * deterministic automaton (DFA) the field steps through one
+ * character at a time.
+ * <p>
+ * The automaton only keeps the states that can still reach a
+ * match, so a character stepping to no state means the text can
+ * no longer match however it is completed. This lets the field
+ * check each keystroke against the state at the caret, instead
+ * of matching a regular expression against the whole text.
+ * </p>
+ * <p>
+ * Characters are grouped into the classes the pattern tells apart,
+ * so the transitions of the automaton are a table indexed by the
+ * state and the class of a character.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+public final class InputMask
+{
+   /** The state stepped to when the text can no longer match. */
+   static final int NO_MATCH = -1;
+
+   private final String source;
+   private final char[] classStarts;
+   private final int[] transitions;
+   private final boolean[] accepting;
+
+   /**
+    * Constructor, used by the compiler once the automaton is built.
+    *
+    * @param source
+    *    The pattern or mask the automaton was compiled from.
+    * @param classStarts
+    *    The first character of each class of characters, sorted,
+    *    starting with the null character.
+    * @param transitions
+    *    The state each state steps to for each class, by state
+    *    then class, or NO_MATCH.
+    * @param accepting
+    *    The states that match the text stepped through.
+    */
+   InputMask(String source, char[] classStarts, int[] transitions, boolean[] accepting)
+   {
+      this.source = source;
+      this.classStarts = classStarts;
+      this.transitions = transitions;
+      this.accepting = accepting;
+   }
+
+   /**
+    * Compiles a regular expression into an input mask. Literals,
+    * character classes with ranges and negation, the predefined
+    * classes \d \w \s and their negations, '.', groups, alternation
+    * and the greedy or lazy quantifiers * + ? {n} {n,} {n,m} are
+    * supported. An anchor at the start or end of the expression is
+    * ignored, as the whole text of the field is always matched.
+    *
+    * @param regex
+    *    The regular expression to compile.
+    * @return
+    *    The compiled input mask.
+    * @throws IllegalArgumentException
+    *    If the expression is invalid or uses a construct with no
+    *    automaton, such as a back reference or look around.
+    */
+   public static InputMask compileRegex(String regex)
+   {
+      return InputMaskCompiler.compileRegex(regex);
+   }
+
+   /**
+    * Compiles a mask using the characters of MaskFormatter into an
+    * input mask. Each character in the mask matches one character
+    * of text:
+    * <ul>
+    * <li># - a digit</li>
+    * <li>U - an uppercase letter</li>
+    * <li>L - a lowercase letter</li>
+    * <li>? - a letter</li>
+    * <li>A - a letter or digit</li>
+    * <li>H - a hex digit</li>
+    * <li>* - any character</li>
+    * <li>' - escapes the next character in the mask</li>
+    * </ul>
+    * Any other character in the mask has to be entered as is.
+    * Letters and digits are the ASCII ones. Unlike MaskFormatter,
+    * the case of letters entered is not converted.
+    *
+    * @param mask
+    *    The mask to compile.
+    * @return
+    *    The compiled input mask.
+    * @throws IllegalArgumentException
+    *    If the mask ends with an escape.
+    */
+   public static InputMask compileMask(String mask)
+   {
+      return InputMaskCompiler.compileMask(mask);
+   }
+
+   /**
+    * Returns the pattern or mask the input mask was compiled from.
+    *
+    * @return
+    *    The source of the input mask.
+    */
+   public String getSource()
+   {
+      return this.source;
+   }
+
+   /**
+    * Returns true if the text fully matches the input mask.
+    *
+    * @param text
+    *    The text to check.
+    * @return
+    *    True if the text matches.
+    */
+   public boolean matches(CharSequence text)
+   {
+      int state = run(start(), text, 0, text.length());
+      return isAccepting(state);
+   }
+
+   /**
+    * Returns true if the text matches the start of the input mask,
+    * meaning more text could still make it match.
+    *
+    * @param text
+    *    The text to check.
+    * @return
+    *    True if the text matches or could still match.
+    */
+   public boolean acceptsPrefix(CharSequence text)
+   {
+      return run(start(), text, 0, text.length()) != NO_MATCH;
+   }
+
+   /**
+    * Returns the state before any text is stepped through.
+    *
+    * @return
+    *    The start state.
+    */
+   int start()
+   {
+      return 0;
+   }
+
+   /**
+    * Steps from the state through a character.
+    *
+    * @param state
+    *    The state to step from, or NO_MATCH.
+    * @param c
+    *    The character to step through.
+    * @return
+    *    The state after the character, or NO_MATCH if the text
+    *    can no longer match.
+    */
+   int step(int state, char c)
+   {
+      if (state == NO_MATCH)
+      {
+         return NO_MATCH;
+      }
+      return transitions[state * classStarts.length + classOf(c)];
+   }
+
+   /**
+    * Steps from the state through a range of the text, stopping as
+    * soon as the text can no longer match.
+    *
+    * @param state
+    *    The state to step from.
+    * @param text
+    *    The text to step through.
+    * @param start
+    *    The index of the first character to step through.
+    * @param end
+    *    The index after the last character to step through.
+    * @return
+    *    The state after the range, or NO_MATCH.
+    */
+   int run(int state, CharSequence text, int start, int end)
+   {
+      for (int index = start; index < end && state != NO_MATCH; ++index)
+      {
+         state = step(state, text.charAt(index));
+      }
+      return state;
+   }
+
+   /**
+    * Returns true if the text stepped through to the state
+    * matches the input mask.
+    *
+    * @param state
+    *    The state, or NO_MATCH.
+    * @return
+    *    True if the state matches.
+    */
+   boolean isAccepting(int state)
+   {
+      return state != NO_MATCH && accepting[state];
+   }
+
+   /**
+    * Returns the class a character belongs to, searching the first
+    * characters of the classes.
+    *
+    * @param c
+    *    The character.
+    * @return
+    *    The index of the class of the character.
+    */
+   private int classOf(char c)
+   {
+      int low = 0;
+      int high = classStarts.length - 1;
+      while (low < high)
+      {
+         int mid = (low + high + 1) >>> 1;
+         if (classStarts[mid] <= c)
+         {
+            low = mid;
+         }
+         else
+         {
+            high = mid - 1;
+         }
+      }
+      return low;
+   }
+
+   @Override
+   public String toString()
+   {
+      return source;
+   }
+}
@@ -0,0 +1,944 @@
+package bjad.swing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compiles regular expressions and masks into InputMask automata.
+ * The expression is parsed into a tree, built into a
+ * non-deterministic automaton (NFA) by Thompson's construction and
+ * turned into a deterministic one by the subset construction, then
+ * the states that can never reach a match are dropped.
+ * <p>
+ * Sets of characters are held as sorted arrays of inclusive ranges,
+ * low then high.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class InputMaskCompiler
+{
+   /** The most states an automaton can have before the pattern is rejected. */
+   private static final int MAX_STATES = 4096;
+   /** The largest count a bounded quantifier can have. */
+   private static final int MAX_REPEAT = 1000;
+
+   private static final int[] ANY = {0, Character.MAX_VALUE};
+   private static final int[] DOT = {0, '\n' - 1, '\n' + 1, '\r' - 1, '\r' + 1, '\u0084', '\u0086', '\u2027', '\u202A', Character.MAX_VALUE};
+   private static final int[] DIGITS = {'0', '9'};
+   private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+   private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+   private static final int[] LETTERS = {'A', 'Z', 'a', 'z'};
+   private static final int[] UPPER = {'A', 'Z'};
+   private static final int[] LOWER = {'a', 'z'};
+   private static final int[] ALPHANUMERIC = {'0', '9', 'A', 'Z', 'a', 'z'};
+   private static final int[] HEX = {'0', '9', 'A', 'F', 'a', 'f'};
+
+   private final String source;
+   private int pos;
+   private boolean lastEscapeWasClass;
+
+   private final List<int[]> edgeRanges = new ArrayList<>();
+   private final List<Integer> edgeTargets = new ArrayList<>();
+   private final List<List<Integer>> epsilons = new ArrayList<>();
+
+   /**
+    * Constructor, setting the source being compiled.
+    *
+    * @param source
+    *    The regular expression or mask.
+    */
+   private InputMaskCompiler(String source)
+   {
+      this.source = source;
+   }
+
+   /**
+    * Compiles a regular expression into an input mask.
+    *
+    * @param regex
+    *    The regular expression.
+    * @return
+    *    The input mask.
+    */
+   static InputMask compileRegex(String regex)
+   {
+      // Anchors only repeat that the whole text is matched.
+      int start = regex.startsWith("^") ? 1 : 0;
+      int end = regex.length();
+      if (end > start && regex.charAt(end - 1) == '$' && !isEscaped(regex, end - 1))
+      {
+         --end;
+      }
+      InputMaskCompiler compiler = new InputMaskCompiler(regex.substring(0, end));
+      compiler.pos = start;
+      Node tree = compiler.parseAlternation();
+      if (compiler.pos != end)
+      {
+         throw compiler.error("Unmatched ')'");
+      }
+      return compiler.toInputMask(tree, regex);
+   }
+
+   /**
+    * Compiles a mask using the characters of MaskFormatter into
+    * an input mask.
+    *
+    * @param mask
+    *    The mask.
+    * @return
+    *    The input mask.
+    */
+   static InputMask compileMask(String mask)
+   {
+      InputMaskCompiler compiler = new InputMaskCompiler(mask);
+      List<Node> sequence = new ArrayList<>(mask.length());
+      for (int index = 0; index < mask.length(); ++index)
+      {
+         char c = mask.charAt(index);
+         switch (c)
+         {
+         case '#':
+            sequence.add(Node.chars(DIGITS));
+            break;
+         case 'U':
+            sequence.add(Node.chars(UPPER));
+            break;
+         case 'L':
+            sequence.add(Node.chars(LOWER));
+            break;
+         case '?':
+            sequence.add(Node.chars(LETTERS));
+            break;
+         case 'A':
+            sequence.add(Node.chars(ALPHANUMERIC));
+            break;
+         case 'H':
+            sequence.add(Node.chars(HEX));
+            break;
+         case '*':
+            sequence.add(Node.chars(ANY));
+            break;
+         case '\'':
+            if (++index == mask.length())
+            {
+               throw new IllegalArgumentException("Mask \"" + mask + "\" ends with an escape");
+            }
+            sequence.add(Node.chars(single(mask.charAt(index))));
+            break;
+         default:
+            sequence.add(Node.chars(single(c)));
+            break;
+         }
+      }
+      return compiler.toInputMask(Node.concat(sequence), mask);
+   }
+
+   /**
+    * Returns true if the character at the index is escaped by an
+    * odd number of backslashes before it.
+    *
+    * @param text
+    *    The text.
+    * @param index
+    *    The index of the character.
+    * @return
+    *    True if the character is escaped.
+    */
+   private static boolean isEscaped(String text, int index)
+   {
+      int slashes = 0;
+      while (index - slashes > 0 && text.charAt(index - slashes - 1) == '\\')
+      {
+         ++slashes;
+      }
+      return slashes % 2 == 1;
+   }
+
+   /**
+    * Parses choices separated by '|'.
+    *
+    * @return
+    *    The parsed node.
+    */
+   private Node parseAlternation()
+   {
+      List<Node> choices = new ArrayList<>();
+      choices.add(parseConcatenation());
+      while (pos < source.length() && source.charAt(pos) == '|')
+      {
+         ++pos;
+         choices.add(parseConcatenation());
+      }
+      return choices.size() == 1 ? choices.get(0) : Node.alternation(choices);
+   }
+
+   /**
+    * Parses a sequence of repeated atoms, up to the next '|' or ')'.
+    *
+    * @return
+    *    The parsed node.
+    */
+   private Node parseConcatenation()
+   {
+      List<Node> sequence = new ArrayList<>();
+      while (pos < source.length() && source.charAt(pos) != '|' && source.charAt(pos) != ')')
+      {
+         sequence.add(parseRepetition());
+      }
+      return sequence.size() == 1 ? sequence.get(0) : Node.concat(sequence);
+   }
+
+   /**
+    * Parses an atom and the quantifier following it, if any.
+    *
+    * @return
+    *    The parsed node.
+    */
+   private Node parseRepetition()
+   {
+      Node atom = parseAtom();
+      if (pos == source.length())
+      {
+         return atom;
+      }
+      int min;
+      int max;
+      switch (source.charAt(pos))
+      {
+      case '*':
+         min = 0;
+         max = -1;
+         ++pos;
+         break;
+      case '+':
+         min = 1;
+         max = -1;
+         ++pos;
+         break;
+      case '?':
+         min = 0;
+         max = 1;
+         ++pos;
+         break;
+      case '{':
+         ++pos;
+         min = parseCount();
+         max = min;
+         if (pos < source.length() && source.charAt(pos) == ',')
+         {
+            ++pos;
+            max = pos < source.length() && source.charAt(pos) == '}' ? -1 : parseCount();
+         }
+         expect('}');
+         if (max != -1 && max < min)
+         {
+            throw error("Illegal repetition range");
+         }
+         break;
+      default:
+         return atom;
+      }
+      if (pos < source.length())
+      {
+         char modifier = source.charAt(pos);
+         if (modifier == '?')
+         {
+            // Lazy quantifiers match the same text.
+            ++pos;
+         }
+         else if (modifier == '+')
+         {
+            throw error("Possessive quantifiers are not supported");
+         }
+         else if (modifier == '*' || modifier == '{')
+         {
+            throw error("Dangling meta character '" + modifier + "'");
+         }
+      }
+      return Node.repeat(atom, min, max);
+   }
+
+   /**
+    * Parses the count of a bounded quantifier.
+    *
+    * @return
+    *    The count.
+    */
+   private int parseCount()
+   {
+      int start = pos;
+      while (pos < source.length() && Character.isDigit(source.charAt(pos)))
+      {
+         ++pos;
+      }
+      if (start == pos || pos - start > 4)
+      {
+         throw error("Illegal repetition");
+      }
+      int count = Integer.parseInt(source.substring(start, pos));
+      if (count > MAX_REPEAT)
+      {
+         throw error("Repetition count over " + MAX_REPEAT);
+      }
+      return count;
+   }
+
+   /**
+    * Parses a group, class, escape or literal character.
+    *
+    * @return
+    *    The parsed node.
+    */
+   private Node parseAtom()
+   {
+      char c = source.charAt(pos++);
+      switch (c)
+      {
+      case '(':
+         if (source.startsWith("?:", pos))
+         {
+            pos += 2;
+         }
+         else if (pos < source.length() && source.charAt(pos) == '?')
+         {
+            throw error("Only non-capturing group constructs are supported");
+         }
+         Node group = parseAlternation();
+         expect(')');
+         return group;
+      case '[':
+         return Node.chars(parseClass());
+      case '.':
+         return Node.chars(DOT);
+      case '\\':
+         return Node.chars(parseEscape());
+      case '*':
+      case '+':
+      case '?':
+      case '{':
+         throw error("Dangling meta character '" + c + "'");
+      case '^':
+      case '$':
+         throw error("Anchors are only supported at the start and end");
+      default:
+         return Node.chars(single(c));
+      }
+   }
+
+   /**
+    * Parses a character class, after the opening '['.
+    *
+    * @return
+    *    The ranges of the class.
+    */
+   private int[] parseClass()
+   {
+      boolean negate = false;
+      if (pos < source.length() && source.charAt(pos) == '^')
+      {
+         negate = true;
+         ++pos;
+      }
+      int[] ranges = new int[0];
+      boolean first = true;
+      while (true)
+      {
+         if (pos == source.length())
+         {
+            throw error("Unclosed character class");
+         }
+         char c = source.charAt(pos);
+         if (c == ']' && !first)
+         {
+            ++pos;
+            break;
+         }
+         if (c == '[' || source.startsWith("&&", pos))
+         {
+            throw error("Nested and intersected classes are not supported");
+         }
+         first = false;
+         int[] item = parseClassItem();
+         if (!lastEscapeWasClass && pos + 1 < source.length() && source.charAt(pos) == '-' && source.charAt(pos + 1) != ']')
+         {
+            ++pos;
+            int[] high = parseClassItem();
+            if (lastEscapeWasClass || high[0] < item[0])
+            {
+               throw error("Illegal character range");
+            }
+            item = new int[] {item[0], high[0]};
+         }
+         ranges = union(ranges, item);
+      }
+      return negate ? negate(ranges) : ranges;
+   }
+
+   /**
+    * Parses a character or escape within a character class.
+    *
+    * @return
+    *    The ranges of the item.
+    */
+   private int[] parseClassItem()
+   {
+      char c = source.charAt(pos++);
+      if (c == '\\')
+      {
+         return parseEscape();
+      }
+      lastEscapeWasClass = false;
+      return single(c);
+   }
+
+   /**
+    * Parses an escape, after the backslash, noting if it was a
+    * predefined class rather than a single character.
+    *
+    * @return
+    *    The ranges of the escape.
+    */
+   private int[] parseEscape()
+   {
+      if (pos == source.length())
+      {
+         throw error("Unexpected end after escape");
+      }
+      char c = source.charAt(pos++);
+      lastEscapeWasClass = true;
+      switch (c)
+      {
+      case 'd':
+         return DIGITS;
+      case 'D':
+         return negate(DIGITS);
+      case 'w':
+         return WORD;
+      case 'W':
+         return negate(WORD);
+      case 's':
+         return SPACE;
+      case 'S':
+         return negate(SPACE);
+      default:
+         break;
+      }
+      lastEscapeWasClass = false;
+      switch (c)
+      {
+      case 't':
+         return single('\t');
+      case 'n':
+         return single('\n');
+      case 'r':
+         return single('\r');
+      case 'f':
+         return single('\f');
+      case 'e':
+         return single('\u001B');
+      case 'x':
+         return single(parseHex(2));
+      case 'u':
+         return single(parseHex(4));
+      default:
+         if (Character.isLetterOrDigit(c))
+         {
+            throw error("Escape \\" + c + " is not supported");
+         }
+         return single(c);
+      }
+   }
+
+   /**
+    * Parses the hexadecimal digits of a character escape.
+    *
+    * @param digits
+    *    The number of digits.
+    * @return
+    *    The character.
+    */
+   private char parseHex(int digits)
+   {
+      if (pos + digits > source.length())
+      {
+         throw error("Illegal hexadecimal escape");
+      }
+      try
+      {
+         char value = (char)Integer.parseInt(source.substring(pos, pos + digits), 16);
+         pos += digits;
+         return value;
+      }
+      catch (NumberFormatException ex)
+      {
+         throw error("Illegal hexadecimal escape");
+      }
+   }
+
+   /**
+    * Skips the character expected next in the source.
+    *
+    * @param c
+    *    The character expected.
+    */
+   private void expect(char c)
+   {
+      if (pos == source.length() || source.charAt(pos) != c)
+      {
+         throw error("Expected '" + c + "'");
+      }
+      ++pos;
+   }
+
+   /**
+    * Creates the exception for a syntax error at the current position.
+    *
+    * @param message
+    *    The description of the error.
+    * @return
+    *    The exception to throw.
+    */
+   private IllegalArgumentException error(String message)
+   {
+      return new IllegalArgumentException(message + " near index " + pos + " of \"" + source + "\"");
+   }
+
+   /**
+    * Returns the ranges holding a single character.
+    *
+    * @param c
+    *    The character.
+    * @return
+    *    The ranges.
+    */
+   private static int[] single(char c)
+   {
+      return new int[] {c, c};
+   }
+
+   /**
+    * Returns the sorted, merged union of two sets of ranges.
+    *
+    * @param a
+    *    The first ranges.
+    * @param b
+    *    The second ranges.
+    * @return
+    *    The union.
+    */
+   private static int[] union(int[] a, int[] b)
+   {
+      int[] all = Arrays.copyOf(a, a.length + b.length);
+      System.arraycopy(b, 0, all, a.length, b.length);
+      // Sort the ranges by their low character, then merge.
+      int count = all.length / 2;
+      Integer[] order = new Integer[count];
+      for (int index = 0; index != count; ++index)
+      {
+         order[index] = index;
+      }
+      Arrays.sort(order, (x, y) -> Integer.compare(all[x * 2], all[y * 2]));
+      int[] merged = new int[all.length];
+      int size = 0;
+      for (int index : order)
+      {
+         int low = all[index * 2];
+         int high = all[index * 2 + 1];
+         if (size > 0 && low <= merged[size - 1] + 1)
+         {
+            merged[size - 1] = Math.max(merged[size - 1], high);
+         }
+         else
+         {
+            merged[size++] = low;
+            merged[size++] = high;
+         }
+      }
+      return Arrays.copyOf(merged, size);
+   }
+
+   /**
+    * Returns the characters not in the sorted ranges.
+    *
+    * @param ranges
+    *    The ranges.
+    * @return
+    *    The negated ranges.
+    */
+   private static int[] negate(int[] ranges)
+   {
+      int[] negated = new int[ranges.length + 2];
+      int size = 0;
+      int next = 0;
+      for (int index = 0; index < ranges.length; index += 2)
+      {
+         if (ranges[index] > next)
+         {
+            negated[size++] = next;
+            negated[size++] = ranges[index] - 1;
+         }
+         next = ranges[index + 1] + 1;
+      }
+      if (next <= Character.MAX_VALUE)
+      {
+         negated[size++] = next;
+         negated[size++] = Character.MAX_VALUE;
+      }
+      return Arrays.copyOf(negated, size);
+   }
+
+   /**
+    * Returns true if the ranges contain the character.
+    *
+    * @param ranges
+    *    The ranges.
+    * @param c
+    *    The character.
+    * @return
+    *    True if the character is in the ranges.
+    */
+   private static boolean contains(int[] ranges, int c)
+   {
+      for (int index = 0; index < ranges.length; index += 2)
+      {
+         if (c >= ranges[index] && c <= ranges[index + 1])
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Adds a state to the NFA.
+    *
+    * @return
+    *    The new state.
+    */
+   private int newState()
+   {
+      edgeRanges.add(null);
+      edgeTargets.add(-1);
+      epsilons.add(new ArrayList<>(2));
+      return edgeTargets.size() - 1;
+   }
+
+   /**
+    * Adds an edge between NFA states that consumes no character.
+    *
+    * @param from
+    *    The state the edge starts from.
+    * @param to
+    *    The state the edge leads to.
+    */
+   private void epsilon(int from, int to)
+   {
+      epsilons.get(from).add(to);
+   }
+
+   /**
+    * Builds the NFA fragment for a node of the tree.
+    *
+    * @param node
+    *    The node.
+    * @return
+    *    The start and end states of the fragment.
+    */
+   private int[] build(Node node)
+   {
+      switch (node.kind)
+      {
+      case Node.CHARS:
+      {
+         int start = newState();
+         int end = newState();
+         edgeRanges.set(start, node.ranges);
+         edgeTargets.set(start, end);
+         return new int[] {start, end};
+      }
+      case Node.CONCAT:
+      {
+         int start = newState();
+         int end = start;
+         for (Node child : node.children)
+         {
+            int[] fragment = build(child);
+            epsilon(end, fragment[0]);
+            end = fragment[1];
+         }
+         return new int[] {start, end};
+      }
+      case Node.ALTERNATION:
+      {
+         int start = newState();
+         int end = newState();
+         for (Node child : node.children)
+         {
+            int[] fragment = build(child);
+            epsilon(start, fragment[0]);
+            epsilon(fragment[1], end);
+         }
+         return new int[] {start, end};
+      }
+      default:
+      {
+         Node child = node.children.get(0);
+         int start = newState();
+         int end = start;
+         for (int count = 0; count != node.min; ++count)
+         {
+            int[] fragment = build(child);
+            epsilon(end, fragment[0]);
+            end = fragment[1];
+         }
+         if (node.max == -1)
+         {
+            int loop = newState();
+            int[] fragment = build(child);
+            epsilon(end, loop);
+            epsilon(loop, fragment[0]);
+            epsilon(fragment[1], loop);
+            return new int[] {start, loop};
+         }
+         int last = newState();
+         for (int count = node.min; count != node.max; ++count)
+         {
+            int[] fragment = build(child);
+            epsilon(end, fragment[0]);
+            epsilon(end, last);
+            end = fragment[1];
+         }
+         epsilon(end, last);
+         return new int[] {start, last};
+      }
+      }
+   }
+
+   /**
+    * Returns the NFA states reachable from the states without
+    * consuming a character, including the states themselves.
+    *
+    * @param states
+    *    The states.
+    * @return
+    *    The closure of the states.
+    */
+   private BitSet closure(BitSet states)
+   {
+      BitSet closed = (BitSet)states.clone();
+      int[] stack = new int[edgeTargets.size()];
+      int size = 0;
+      for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1))
+      {
+         stack[size++] = state;
+      }
+      while (size > 0)
+      {
+         for (int next : epsilons.get(stack[--size]))
+         {
+            if (!closed.get(next))
+            {
+               closed.set(next);
+               stack[size++] = next;
+            }
+         }
+      }
+      return closed;
+   }
+
+   /**
+    * Builds the tree into an NFA, then into the DFA of the input
+    * mask, dropping the states that cannot reach a match.
+    *
+    * @param tree
+    *    The parsed tree.
+    * @param original
+    *    The regular expression or mask as passed.
+    * @return
+    *    The input mask.
+    */
+   private InputMask toInputMask(Node tree, String original)
+   {
+      int[] nfa = build(tree);
+      int nfaAccept = nfa[1];
+
+      // Split the characters into the classes the edges tell apart.
+      TreeSet<Integer> bounds = new TreeSet<>();
+      bounds.add(0);
+      for (int[] ranges : edgeRanges)
+      {
+         if (ranges != null)
+         {
+            for (int index = 0; index < ranges.length; index += 2)
+            {
+               bounds.add(ranges[index]);
+               if (ranges[index + 1] < Character.MAX_VALUE)
+               {
+                  bounds.add(ranges[index + 1] + 1);
+               }
+            }
+         }
+      }
+      char[] classStarts = new char[bounds.size()];
+      int classCount = 0;
+      for (int bound : bounds)
+      {
+         classStarts[classCount++] = (char)bound;
+      }
+
+      // Subset construction.
+      BitSet initial = new BitSet();
+      initial.set(nfa[0]);
+      List<BitSet> subsets = new ArrayList<>();
+      Map<BitSet, Integer> ids = new HashMap<>();
+      subsets.add(closure(initial));
+      ids.put(subsets.get(0), 0);
+      int[] transitions = new int[classCount * 16];
+      for (int current = 0; current < subsets.size(); ++current)
+      {
+         BitSet subset = subsets.get(current);
+         for (int cls = 0; cls != classCount; ++cls)
+         {
+            BitSet moved = new BitSet();
+            for (int state = subset.nextSetBit(0); state >= 0; state = subset.nextSetBit(state + 1))
+            {
+               int[] ranges = edgeRanges.get(state);
+               if (ranges != null && contains(ranges, classStarts[cls]))
+               {
+                  moved.set(edgeTargets.get(state));
+               }
+            }
+            int target = InputMask.NO_MATCH;
+            if (!moved.isEmpty())
+            {
+               BitSet next = closure(moved);
+               Integer id = ids.get(next);
+               if (id == null)
+               {
+                  if (subsets.size() == MAX_STATES)
+                  {
+                     throw new IllegalArgumentException("Pattern \"" + source + "\" needs more than " + MAX_STATES + " states");
+                  }
+                  id = subsets.size();
+                  subsets.add(next);
+                  ids.put(next, id);
+               }
+               target = id;
+            }
+            int slot = current * classCount + cls;
+            if (slot >= transitions.length)
+            {
+               transitions = Arrays.copyOf(transitions, transitions.length * 2);
+            }
+            transitions[slot] = target;
+         }
+      }
+      int stateCount = subsets.size();
+      boolean[] accepting = new boolean[stateCount];
+      for (int state = 0; state != stateCount; ++state)
+      {
+         accepting[state] = subsets.get(state).get(nfaAccept);
+      }
+
+      // Keep the states that can still reach a match, keeping
+      // the start state first.
+      boolean[] live = accepting.clone();
+      boolean changed = true;
+      while (changed)
+      {
+         changed = false;
+         for (int state = 0; state != stateCount; ++state)
+         {
+            for (int cls = 0; cls != classCount && !live[state]; ++cls)
+            {
+               int target = transitions[state * classCount + cls];
+               if (target != InputMask.NO_MATCH && live[target])
+               {
+                  live[state] = true;
+                  changed = true;
+               }
+            }
+         }
+      }
+      int[] renumber = new int[stateCount];
+      int liveCount = 0;
+      for (int state = 0; state != stateCount; ++state)
+      {
+         renumber[state] = live[state] || state == 0 ? liveCount++ : InputMask.NO_MATCH;
+      }
+      int[] liveTransitions = new int[liveCount * classCount];
+      boolean[] liveAccepting = new boolean[liveCount];
+      for (int state = 0; state != stateCount; ++state)
+      {
+         int id = renumber[state];
+         if (id != InputMask.NO_MATCH)
+         {
+            liveAccepting[id] = accepting[state];
+            for (int cls = 0; cls != classCount; ++cls)
+            {
+               int target = transitions[state * classCount + cls];
+               liveTransitions[id * classCount + cls] = target == InputMask.NO_MATCH || !live[target] ? InputMask.NO_MATCH : renumber[target];
+            }
+         }
+      }
+      return new InputMask(original, classStarts, liveTransitions, liveAccepting);
+   }
+
+   /**
+    * Node of the tree a regular expression or mask is parsed into.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class Node
+   {
+      static final int CHARS = 0;
+      static final int CONCAT = 1;
+      static final int ALTERNATION = 2;
+      static final int REPEAT = 3;
+
+      final int kind;
+      final int[] ranges;
+      final List<Node> children;
+      final int min;
+      final int max;
+
+      private Node(int kind, int[] ranges, List<Node> children, int min, int max)
+      {
+         this.kind = kind;
+         this.ranges = ranges;
+         this.children = children;
+         this.min = min;
+         this.max = max;
+      }
+
+      static Node chars(int[] ranges)
+      {
+         return new Node(CHARS, ranges, null, 1, 1);
+      }
+
+      static Node concat(List<Node> sequence)
+      {
+         return new Node(CONCAT, null, sequence, 1, 1);
+      }
+
+      static Node alternation(List<Node> choices)
+      {
+         return new Node(ALTERNATION, null, choices, 1, 1);
+      }
+
+      static Node repeat(Node child, int min, int max)
+      {
+         List<Node> children = new ArrayList<>(1);
+         children.add(child);
+         return new Node(REPEAT, null, children, min, max);
+      }
+   }
+}
@@ -0,0 +1,93 @@
+package bjad.swing;
+
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+import java.util.Set;
+
+import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
+
+/**
+ * Event holding all the invalid entries detected within a
+ * restrictive text field during one turn of the event
+ * dispatch thread, delivered to InvalidEntryBatchListeners
+ * once the edits that caused them are complete.
+ *
+ * @author
+ *  Ben Dougall
+ */
+public class InvalidEntryBatch extends EventObject
+{
+   private static final long serialVersionUID = -2715838036430713584L;
+
+   private final int count;
+   private final Set<InvalidatedReason> reasons;
+   private final List<String> inputs;
+
+   /**
+    * Constructor, setting the details of the batch.
+    *
+    * @param field
+    *    The field the invalid entries were made in.
+    * @param count
+    *    The number of invalid entries detected.
+    * @param reasons
+    *    The reasons the entries were invalid.
+    * @param inputs
+    *    The invalid text of the first entries detected.
+    */
+   InvalidEntryBatch(AbstractRestrictiveTextField field, int count, Set<InvalidatedReason> reasons, List<String> inputs)
+   {
+      super(field);
+      this.count = count;
+      this.reasons = Collections.unmodifiableSet(reasons);
+      this.inputs = Collections.unmodifiableList(inputs);
+   }
+
+   /**
+    * Returns the field the invalid entries were made in.
+    *
+    * @return
+    *    The field.
+    */
+   public AbstractRestrictiveTextField getField()
+   {
+      return (AbstractRestrictiveTextField)getSource();
+   }
+
+   /**
+    * Returns the number of invalid entries detected,
+    * which can be more than the number of inputs kept.
+    *
+    * @return
+    *    The number of invalid entries.
+    */
+   public int getCount()
+   {
+      return this.count;
+   }
+
+   /**
+    * Returns the reasons the entries were invalid, in
+    * the order the reasons are declared.
+    *
+    * @return
+    *    The reasons the entries were invalid.
+    */
+   public Set<InvalidatedReason> getReasons()
+   {
+      return this.reasons;
+   }
+
+   /**
+    * Returns the invalid text of the first entries detected,
+    * in the order they were detected.
+    *
+    * @return
+    *    The invalid text of the first entries.
+    */
+   public List<String> getInputs()
+   {
+      return this.inputs;
+   }
+}
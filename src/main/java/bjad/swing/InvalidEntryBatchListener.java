@@ -0,0 +1,24 @@
+package bjad.swing;
+
+import java.util.EventListener;
+
+/**
+ * Listener interface which will be triggered once per turn of
+ * the event dispatch thread with all the invalid text or values
+ * entered into one of the customized UI elements contained in
+ * the library during that turn.
+ *
+ * @author
+ *  Ben Dougall
+ */
+public interface InvalidEntryBatchListener extends EventListener
+{
+   /**
+    * The method that will be fired with the invalid entries detected
+    * within a restrictive text field implementation.
+    *
+    * @param batch
+    *    The invalid entries detected.
+    */
+   public void invalidEntriesDetected(InvalidEntryBatch batch);
+}
@@ -0,0 +1,126 @@
+package bjad.swing;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
+
+/**
+ * Collects the invalid entries detected within a restrictive
+ * text field and delivers them to the batch listeners of the 
+ * field in one batch, on a later turn of the event dispatch 
+ * thread. The invalid key entry listeners of the field are 
+ * still notified of each entry right away by the field.
+ * <p>
+ * Invalid entries are detected while the document of the field
+ * is being changed, under the document's write lock, so rather
+ * than playing the sound and calling the batch listeners right
+ * away the entries are recorded and one delivery is queued on 
+ * the event dispatch thread, which runs once the edit is 
+ * complete. Entries can be recorded from any thread.
+ * </p>
+ * <p>
+ * The sound is played at most once per batch, and no more often
+ * than every half second across all the fields.
+ * </p>
+ *
+ * @author
+ *  Ben Dougall
+ */
+final class InvalidEntryDispatcher implements Runnable
+{
+   /** The number of invalid inputs kept in each batch. */
+   static final int MAX_INPUTS_PER_BATCH = 10;
+
+   private static final long SOUND_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+   private static boolean soundPlayed = false;
+   private static long lastSoundTime;
+
+   private final AbstractRestrictiveTextField field;
+
+   private int count = 0;
+   private final EnumSet<InvalidatedReason> reasons = EnumSet.noneOf(InvalidatedReason.class);
+   private final List<String> inputs = new ArrayList<>();
+   private boolean deliveryQueued = false;
+
+   /**
+    * Constructor, setting the field to deliver the entries to.
+    *
+    * @param field
+    *    The field the entries are detected in.
+    */
+   InvalidEntryDispatcher(AbstractRestrictiveTextField field)
+   {
+      this.field = field;
+   }
+
+   /**
+    * Records an invalid entry, queuing the delivery of the
+    * batch if it is the first entry of the batch.
+    *
+    * @param reason
+    *    The reason the input was invalid.
+    * @param input
+    *    The text causing the bad entry.
+    */
+   synchronized void add(InvalidatedReason reason, String input)
+   {
+      count++;
+      reasons.add(reason);
+      if (inputs.size() < MAX_INPUTS_PER_BATCH)
+      {
+         inputs.add(input);
+      }
+      if (!deliveryQueued)
+      {
+         deliveryQueued = true;
+         SwingUtilities.invokeLater(this);
+      }
+   }
+
+   /**
+    * Delivers the entries recorded since the last delivery
+    * to the field, starting a new batch.
+    */
+   @Override
+   public void run()
+   {
+      InvalidEntryBatch batch;
+      synchronized (this)
+      {
+         batch = new InvalidEntryBatch(field, count, EnumSet.copyOf(reasons), new ArrayList<>(inputs));
+         count = 0;
+         reasons.clear();
+         inputs.clear();
+         deliveryQueued = false;
+      }
+      if (batch.getCount() > 0)
+      {
+         field.deliverInvalidEntries(batch);
+      }
+   }
+
+   /**
+    * Returns true if enough time has passed since the sound was
+    * last played for it to be played again, recording the time
+    * if so.
+    *
+    * @return
+    *    True if the sound can be played.
+    */
+   static synchronized boolean acquireSound()
+   {
+      long now = System.nanoTime();
+      if (soundPlayed && now - lastSoundTime < SOUND_INTERVAL_NANOS)
+      {
+         return false;
+      }
+      soundPlayed = true;
+      lastSoundTime = now;
+      return true;
+   }
+}
@@ -36,7 +36,9 @@ public interface InvalidKeyEntryListener extends EventListener
       /** Maximum length of field is exceeded */
       MAX_LENGTH_EXCEEDED,
       /** An invalid date is entered into the date field */
-      INVALID_DATE
+      INVALID_DATE,
+      /** Text that can not match the pattern of the field */
+      PATTERN_MISMATCH
    }
    
    /**
@@ -0,0 +1,329 @@
+package bjad.swing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import javax.swing.AbstractListModel;
+import javax.swing.MutableComboBoxModel;
+
+/**
+ * Combobox model built for large lists of items, which are
+ * loaded in bulk instead of being added one at a time.
+ * <p>
+ * The model can be created from a collection of items, which
+ * is copied into the model in one step without firing any events,
+ * or from the total number of items and a loader returning the
+ * items a page at a time. Pages are only loaded once one of their
+ * rows is requested, so only the rows the popup renders are ever
+ * loaded. Adding a collection of items fires a single interval
+ * event for all of them.
+ * </p>
+ * <p>
+ * A combobox measures every item to size itself unless it has a
+ * prototype display value, so set one with
+ * setPrototypeDisplayValue on comboboxes with large lists to
+ * keep the display text of the items from being built for rows
+ * that are never shown. getPrototypeItem returns the longest of
+ * the first few items to use as the prototype, which BJADComboBox
+ * uses when it creates the model from a collection.
+ * </p>
+ * <p>
+ * Like the DefaultComboBoxModel, the first item is selected when
+ * the model is created with items.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ * @param <T>
+ *   The type of object shown in the combobox
+ */
+public class LazyComboBoxModel<T> extends AbstractListModel<T> implements MutableComboBoxModel<T>
+{
+   private static final long serialVersionUID = -1436624474209961385L;
+
+   /** The number of rows getPrototypeItem measures. */
+   public static final int PROTOTYPE_SAMPLE = 64;
+
+   /** The items, once they have been loaded, or null while paged. */
+   private List<T> items;
+   /** The pages loaded so far while the model is paged. */
+   private List<? extends T>[] pages;
+   private IntFunction<List<? extends T>> pageLoader;
+   private int pageSize;
+   private int pagedSize;
+
+   private Object selectedItem = null;
+
+   /**
+    * Default constructor, creating an empty model.
+    */
+   public LazyComboBoxModel()
+   {
+      this.items = new ArrayList<>();
+   }
+
+   /**
+    * Constructor, copying the items into the model in one
+    * step and selecting the first item.
+    *
+    * @param items
+    *    The items to show in the combobox. Null for none.
+    */
+   public LazyComboBoxModel(Collection<? extends T> items)
+   {
+      this.items = items == null ? new ArrayList<T>() : new ArrayList<T>(items);
+      if (!this.items.isEmpty())
+      {
+         selectedItem = this.items.get(0);
+      }
+   }
+
+   /**
+    * Constructor, creating a model whose items are loaded a
+    * page at a time as their rows are requested, selecting
+    * the first item.
+    *
+    * @param size
+    *    The total number of items in the model.
+    * @param pageSize
+    *    The number of items in each page, the last page
+    *    can hold fewer.
+    * @param pageLoader
+    *    The function returning the items for the page number
+    *    passed, starting at page 0.
+    */
+   public LazyComboBoxModel(int size, int pageSize, IntFunction<List<? extends T>> pageLoader)
+   {
+      if (size < 0 || pageSize < 1 || pageLoader == null)
+      {
+         throw new IllegalArgumentException("A paged " + getClass().getSimpleName() + " needs a size of 0 or more, a page size of 1 or more and a page loader");
+      }
+      this.pagedSize = size;
+      this.pageSize = pageSize;
+      this.pageLoader = pageLoader;
+      this.pages = newPages((size + pageSize - 1) / pageSize);
+      if (size > 0)
+      {
+         selectedItem = getElementAt(0);
+      }
+   }
+
+   @Override
+   public int getSize()
+   {
+      return items != null ? items.size() : pagedSize;
+   }
+
+   @Override
+   public T getElementAt(int index)
+   {
+      if (index < 0 || index >= getSize())
+      {
+         return null;
+      }
+      if (items != null)
+      {
+         return items.get(index);
+      }
+      return loadPage(index / pageSize).get(index % pageSize);
+   }
+
+   @Override
+   public void setSelectedItem(Object anObject)
+   {
+      if ((selectedItem != null && !selectedItem.equals(anObject)) || (selectedItem == null && anObject != null))
+      {
+         selectedItem = anObject;
+         fireContentsChanged(this, -1, -1);
+      }
+   }
+
+   @Override
+   public Object getSelectedItem()
+   {
+      return selectedItem;
+   }
+
+   @Override
+   public void addElement(T item)
+   {
+      List<T> list = loadedItems();
+      list.add(item);
+      fireIntervalAdded(this, list.size() - 1, list.size() - 1);
+      if (list.size() == 1 && selectedItem == null && item != null)
+      {
+         setSelectedItem(item);
+      }
+   }
+
+   /**
+    * Adds all the items to the end of the model, firing one
+    * interval event for them.
+    *
+    * @param newItems
+    *    The items to add.
+    */
+   public void addAll(Collection<? extends T> newItems)
+   {
+      if (newItems == null || newItems.isEmpty())
+      {
+         return;
+      }
+      List<T> list = loadedItems();
+      int first = list.size();
+      list.addAll(newItems);
+      fireIntervalAdded(this, first, list.size() - 1);
+      if (first == 0 && selectedItem == null)
+      {
+         setSelectedItem(list.get(0));
+      }
+   }
+
+   @Override
+   public void insertElementAt(T item, int index)
+   {
+      loadedItems().add(index, item);
+      fireIntervalAdded(this, index, index);
+   }
+
+   @Override
+   public void removeElementAt(int index)
+   {
+      List<T> list = loadedItems();
+      if (list.get(index) == selectedItem)
+      {
+         if (index == 0)
+         {
+            setSelectedItem(list.size() == 1 ? null : list.get(index + 1));
+         }
+         else
+         {
+            setSelectedItem(list.get(index - 1));
+         }
+      }
+      list.remove(index);
+      fireIntervalRemoved(this, index, index);
+   }
+
+   @Override
+   public void removeElement(Object anObject)
+   {
+      int index = loadedItems().indexOf(anObject);
+      if (index != -1)
+      {
+         removeElementAt(index);
+      }
+   }
+
+   /**
+    * Removes all the items from the model.
+    */
+   public void removeAllElements()
+   {
+      int size = getSize();
+      items = new ArrayList<>();
+      pages = null;
+      pageLoader = null;
+      selectedItem = null;
+      if (size > 0)
+      {
+         fireIntervalRemoved(this, 0, size - 1);
+      }
+   }
+
+   /**
+    * Returns the item with the longest display text among the 
+    * first rows of the model, to use as the prototype display 
+    * value of the combobox. Only the first PROTOTYPE_SAMPLE rows,
+    * and only those in the first page if the model is paged, are
+    * measured, so the display text of the rest of the items is 
+    * never built. Set the prototype display value directly if 
+    * the longest item may be further down the list.
+    *
+    * @return
+    *    The item with the longest text of those measured, or 
+    *    null if the model is empty.
+    */
+   public T getPrototypeItem()
+   {
+      int sample = Math.min(PROTOTYPE_SAMPLE, items != null ? items.size() : Math.min(pageSize, pagedSize));
+      T prototype = null;
+      int longest = -1;
+      for (int index = 0; index != sample; ++index)
+      {
+         T item = getElementAt(index);
+         int length = item == null ? 0 : item.toString().length();
+         if (length > longest)
+         {
+            prototype = item;
+            longest = length;
+         }
+      }
+      return prototype;
+   }
+
+   /**
+    * Creates the array holding the pages of the model.
+    *
+    * @param count
+    *    The number of pages.
+    * @return
+    *    The array, with no pages loaded.
+    */
+   @SuppressWarnings("unchecked")
+   private static <E> List<? extends E>[] newPages(int count)
+   {
+      return (List<? extends E>[])new List<?>[count];
+   }
+
+   /**
+    * Returns the page of items, loading it if it has not been
+    * loaded yet.
+    *
+    * @param page
+    *    The page number.
+    * @return
+    *    The items in the page.
+    */
+   private List<? extends T> loadPage(int page)
+   {
+      if (pages[page] == null)
+      {
+         int expected = Math.min(pageSize, pagedSize - page * pageSize);
+         List<? extends T> loaded = pageLoader.apply(page);
+         if (loaded == null || loaded.size() < expected)
+         {
+            throw new IllegalStateException("Page " + page + " was expected to hold " + expected + " items");
+         }
+         pages[page] = loaded;
+      }
+      return pages[page];
+   }
+
+   /**
+    * Returns the list of items, loading all the remaining pages
+    * first if the model is paged, as changes to the items are
+    * made to the full list.
+    *
+    * @return
+    *    The list of items.
+    */
+   private List<T> loadedItems()
+   {
+      if (items == null)
+      {
+         List<T> list = new ArrayList<>(pagedSize);
+         for (int page = 0; page != pages.length; ++page)
+         {
+            List<? extends T> pageItems = loadPage(page);
+            list.addAll(pageItems.subList(0, Math.min(pageSize, pagedSize - page * pageSize)));
+         }
+         items = list;
+         pages = null;
+         pageLoader = null;
+      }
+      return items;
+   }
+}
@@ -4,9 +4,6 @@ import java.awt.Font;
 import java.awt.Insets;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.awt.font.TextAttribute;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.swing.Action;
 import javax.swing.Icon;
@@ -194,9 +191,24 @@ public class LinkButton extends JButton implements MouseListener
       }
    }
    
+   /**
+    * Sets the style of the font of the button, such as bold 
+    * or plain, sharing the derived font with the other link 
+    * buttons using the same font.
+    * 
+    * @param style
+    *    The style of the font, combining Font.BOLD and 
+    *    Font.ITALIC.
+    */
+   public void setFontStyle(int style)
+   {
+      this.setFont(LinkFontCache.withStyle(this.getFont(), style));
+   }
+   
    /**
     * Adjusts the underline attribute for the font 
-    * within the button. 
+    * within the button, using the fonts shared by
+    * all the link buttons.
     * 
     * @param underlineOn
     *    True to underline the text, false to 
@@ -204,9 +216,6 @@ public class LinkButton extends JButton implements MouseListener
     */
    private void adjustUnderline(boolean underlineOn)
    {
-      Font buttonFont = this.getFont();
-      Map<TextAttribute, Object> attributes = new HashMap<>(buttonFont.getAttributes());
-      attributes.put(TextAttribute.UNDERLINE, underlineOn ? TextAttribute.UNDERLINE_ON : -1);
-      this.setFont(buttonFont.deriveFont(attributes));
+      this.setFont(LinkFontCache.withUnderline(this.getFont(), underlineOn));
    }
 }
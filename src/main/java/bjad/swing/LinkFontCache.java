@@ -0,0 +1,114 @@
+package bjad.swing;
+
+import java.awt.Font;
+import java.awt.font.TextAttribute;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the fonts derived for link buttons, shared by all the
+ * buttons, so hovering a link or creating many links with the 
+ * same font reuses the derived fonts instead of deriving new ones
+ * each time.
+ * <p>
+ * Fonts are immutable and compared by their attributes, so a font
+ * derived for one button can be used by any other button with an
+ * equal font. The cache is cleared if it ever grows past a few 
+ * hundred fonts, which only an application deriving fonts on the
+ * fly would reach.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class LinkFontCache
+{
+   private static final int MAX_FONTS = 256;
+
+   private static final Map<Font, Font> UNDERLINED = new ConcurrentHashMap<>();
+   private static final Map<Font, Font> NOT_UNDERLINED = new ConcurrentHashMap<>();
+   private static final Map<Font, Font[]> STYLED = new ConcurrentHashMap<>();
+
+   /**
+    * Utility class, not to be created.
+    */
+   private LinkFontCache()
+   {
+   }
+
+   /**
+    * Returns the font with the underline turned on or off.
+    *
+    * @param font
+    *    The font to derive from.
+    * @param underlineOn
+    *    True for an underlined font.
+    * @return
+    *    The derived font.
+    */
+   static Font withUnderline(Font font, boolean underlineOn)
+   {
+      Map<Font, Font> cache = underlineOn ? UNDERLINED : NOT_UNDERLINED;
+      Font derived = cache.get(font);
+      if (derived == null)
+      {
+         Map<TextAttribute, Object> attributes = new HashMap<>(font.getAttributes());
+         attributes.put(TextAttribute.UNDERLINE, underlineOn ? TextAttribute.UNDERLINE_ON : -1);
+         derived = font.deriveFont(attributes);
+         put(cache, font, derived);
+      }
+      return derived;
+   }
+
+   /**
+    * Returns the font with the style, such as bold or plain.
+    *
+    * @param font
+    *    The font to derive from.
+    * @param style
+    *    The style of the font, combining Font.BOLD and Font.ITALIC.
+    * @return
+    *    The derived font.
+    */
+   static Font withStyle(Font font, int style)
+   {
+      Font[] styles = STYLED.get(font);
+      if (styles == null)
+      {
+         styles = new Font[4];
+         if (STYLED.size() >= MAX_FONTS)
+         {
+            STYLED.clear();
+         }
+         Font[] existing = STYLED.putIfAbsent(font, styles);
+         styles = existing != null ? existing : styles;
+      }
+      int index = style & (Font.BOLD | Font.ITALIC);
+      if (styles[index] == null)
+      {
+         styles[index] = font.deriveFont(index);
+      }
+      return styles[index];
+   }
+
+   /**
+    * Adds a derived font to the cache, clearing the cache first 
+    * if it is full.
+    *
+    * @param cache
+    *    The cache.
+    * @param font
+    *    The font derived from.
+    * @param derived
+    *    The derived font.
+    */
+   private static void put(Map<Font, Font> cache, Font font, Font derived)
+   {
+      if (cache.size() >= MAX_FONTS)
+      {
+         cache.clear();
+      }
+      cache.put(font, derived);
+   }
+}
@@ -0,0 +1,194 @@
+package bjad.swing;
+
+/**
+ * Small state machine used by the numeric document to
+ * check the candidate text of a field one character at
+ * a time (sign, integer digits, decimal separator and
+ * fraction digits) without building the full text of
+ * the field or parsing it into a BigDecimal.
+ * <p>
+ * The scanner only recognizes plain input in the form
+ * <code>[-][digits][.[digits]]</code> made of ASCII
+ * digits. Anything else marks the scan as malformed so
+ * the caller can fall back to the full BigDecimal
+ * validation, which decides what the user is told.
+ * </p>
+ * <p>
+ * Instances are reused between edits by calling reset(),
+ * so no objects are created while scanning.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class NumericEntryScanner
+{
+   /** Number of characters scanned since the last reset. */
+   private int position;
+   /** True if the scanned text started with a minus sign. */
+   private boolean signSeen;
+   /** True once the decimal separator has been scanned. */
+   private boolean separatorSeen;
+   /** True once any digit has been scanned. */
+   private boolean digitSeen;
+   /** True once a digit other than zero has been scanned. */
+   private boolean nonZeroDigitSeen;
+   /** Integer digits scanned, not counting leading zeros. */
+   private int significantIntegerDigits;
+   /** Digits scanned after the decimal separator. */
+   private int fractionDigits;
+   /** True if a character broke the expected number format. */
+   private boolean malformed;
+
+   /**
+    * Clears the state of the scanner so it can check
+    * a new candidate value.
+    */
+   void reset()
+   {
+      position = 0;
+      signSeen = false;
+      separatorSeen = false;
+      digitSeen = false;
+      nonZeroDigitSeen = false;
+      significantIntegerDigits = 0;
+      fractionDigits = 0;
+      malformed = false;
+   }
+
+   /**
+    * Moves the state machine forward with the next
+    * character of the candidate text.
+    *
+    * @param c
+    *    The next character of the candidate text.
+    * @return
+    *    False if the text is no longer in a format
+    *    the scanner recognizes, true otherwise.
+    */
+   boolean next(char c)
+   {
+      if (malformed)
+      {
+         return false;
+      }
+
+      if (c >= '0' && c <= '9')
+      {
+         digitSeen = true;
+         if (separatorSeen)
+         {
+            fractionDigits++;
+         }
+         else if (c != '0' || nonZeroDigitSeen)
+         {
+            significantIntegerDigits++;
+         }
+         if (c != '0')
+         {
+            nonZeroDigitSeen = true;
+         }
+      }
+      else if (c == '-' && position == 0)
+      {
+         signSeen = true;
+      }
+      else if (c == '.' && !separatorSeen)
+      {
+         separatorSeen = true;
+      }
+      else
+      {
+         malformed = true;
+      }
+
+      position++;
+      return !malformed;
+   }
+
+   /**
+    * Returns true if the characters scanned form a value
+    * the scanner understands. An empty scan does not.
+    *
+    * @return
+    *    True if the scanned text is a well formed value.
+    */
+   boolean isWellFormed()
+   {
+      return !malformed && position > 0;
+   }
+
+   /**
+    * Returns true if the scanned text started with
+    * a minus sign.
+    *
+    * @return
+    *    True if the minus sign was scanned.
+    */
+   boolean isSignSeen()
+   {
+      return signSeen;
+   }
+
+   /**
+    * Returns true if the decimal separator was scanned.
+    *
+    * @return
+    *    True if the decimal separator was scanned.
+    */
+   boolean isSeparatorSeen()
+   {
+      return separatorSeen;
+   }
+
+   /**
+    * Returns true if the value the document will validate for
+    * the scanned text is below zero. The document treats a lone
+    * minus sign as -1 and a trailing decimal separator as a
+    * trailing 1, so both of those count as negative when the
+    * minus sign is present.
+    *
+    * @return
+    *    True if the scanned value is negative.
+    */
+   boolean isNegative()
+   {
+      return signSeen && (nonZeroDigitSeen || !digitSeen || isTrailingSeparator());
+   }
+
+   /**
+    * Returns true if the last character scanned was
+    * the decimal separator.
+    *
+    * @return
+    *    True if the scan ended with the separator.
+    */
+   boolean isTrailingSeparator()
+   {
+      return separatorSeen && fractionDigits == 0;
+   }
+
+   /**
+    * Returns the number of integer digits scanned, not
+    * counting any leading zeros.
+    *
+    * @return
+    *    The number of significant integer digits.
+    */
+   int getSignificantIntegerDigits()
+   {
+      return significantIntegerDigits;
+   }
+
+   /**
+    * Returns the number of digits scanned after the
+    * decimal separator.
+    *
+    * @return
+    *    The number of fraction digits.
+    */
+   int getFractionDigits()
+   {
+      return fractionDigits;
+   }
+}
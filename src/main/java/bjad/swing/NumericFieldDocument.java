@@ -1,8 +1,10 @@
 package bjad.swing;
 
 import java.math.BigDecimal;
-import javax.swing.text.AttributeSet;
+import java.math.BigInteger;
+
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
 
 import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
 
@@ -25,6 +27,26 @@ class NumericFieldDocument extends AbstractBJADDocument
    
    private int numberOfDecimalPlaces = -1;
    
+   /**
+    * Number of integer digits in the maximum value, not counting
+    * leading zeros, or -1 if the maximum value is negative. Values
+    * with fewer integer digits are known to be under the maximum
+    * without comparing them as BigDecimals.
+    */
+   private int maximumIntegerDigits = -1;
+   
+   /** 
+    * Scanner reused for each edit to validate the candidate text
+    * without building it as a string.
+    */
+   private final NumericEntryScanner scanner = new NumericEntryScanner();
+   
+   /**
+    * Segment reused to read the existing content of the document,
+    * without copying it unless the content is split around its gap.
+    */
+   private final Segment segment = new Segment();
+   
    /** 
     * Applies new number of decimal place limit, or removes
     * if the value is less than 0 
@@ -49,6 +71,7 @@ class NumericFieldDocument extends AbstractBJADDocument
    public void setMaximumValue(BigDecimal maximumValue)
    {
       this.maximumValue = maximumValue;
+      this.maximumIntegerDigits = countIntegerDigits(maximumValue);
    }
    
    /**
@@ -92,9 +115,10 @@ class NumericFieldDocument extends AbstractBJADDocument
    public NumericFieldDocument(AbstractRestrictiveTextField owningField, BigDecimal maximumValue, boolean allowDecimals, boolean allowNegatives)
    {
       super(owningField);
-      this.maximumValue = maximumValue;
+      setMaximumValue(maximumValue);
       this.allowDecimals = allowDecimals;
       this.allowNegatives = allowNegatives;
+      addValidator(new NumericStage());
    }
 
    /**
@@ -237,42 +261,256 @@ class NumericFieldDocument extends AbstractBJADDocument
    }
    
    /**
-    * Overrides the super class's insert string so it will 
-    * filter out bad characters within the text field if 
-    * entered by the user by typing or by copying and 
-    * pasting from the clipboard.
+    * Validates a value being set into the field from code, 
+    * checking the typed value directly instead of parsing 
+    * the text it would be shown as.
+    * 
+    * @param value
+    *    The value to verify.
+    * @return
+    *    The value, or null if it breaks the validation 
+    *    rules of the field.
+    */
+   public BigDecimal verifyValue(BigDecimal value)
+   {
+      // Integer fields never accept a decimal point, even 
+      // with only zeros after it.
+      if (!allowDecimals && value.scale() > 0)
+      {
+         fireListenersOnOwningField(InvalidatedReason.NON_INTEGER, "Non-integer value entered.");
+         return null;
+      }
+      
+      // Same checks as verifyRangeInformation, with the decimal 
+      // places taken from the scale instead of the plain text.
+      BigDecimal retValue = value;
+      if (!allowNegatives && value.signum() < 0)
+      {
+         retValue = null;
+         fireListenersOnOwningField(InvalidatedReason.NEGATIVE_VALUE, "Negative value not allowed.");
+      }
+      if (maximumValue != null && maximumValue.compareTo(value) < 0)
+      {
+         retValue = null;
+         fireListenersOnOwningField(InvalidatedReason.MAXIMUM_VALUE_PASSED, "Maximum amount exceeded.");
+      }
+      if (allowDecimals && numberOfDecimalPlaces > 0 && value.scale() > numberOfDecimalPlaces)
+      {
+         retValue = null;
+         fireListenersOnOwningField(InvalidatedReason.TOO_MANY_DECIMALS, "Decimal Precision exceeded.");
+      }
+      return retValue;
+   }
+   
+   /**
+    * Replaces the content of the document with text already 
+    * validated, skipping the validation of insertString. Only
+    * the characters between the start and end the content shares
+    * with the text are replaced, all under one write lock, so 
+    * filling an empty field fires a single insert event, clearing
+    * a field a single remove event, and a value only changing at
+    * one end, such as 1.5 to 1.50, a single event. Nothing is 
+    * done, and no events are fired, if the document already 
+    * holds the text.
+    * 
+    * @param text
+    *    The text to place in the document.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   void replaceValidatedContent(String text) throws BadLocationException
+   {
+      int length = getLength();
+      segment.setPartialReturn(false);
+      getText(0, length, segment);
+      char[] content = segment.array;
+      int start = segment.offset;
+      
+      int limit = Math.min(length, text.length());
+      int prefix = 0;
+      while (prefix < limit && content[start + prefix] == text.charAt(prefix))
+      {
+         ++prefix;
+      }
+      if (prefix == length && length == text.length())
+      {
+         return;
+      }
+      int suffix = 0;
+      while (suffix < limit - prefix && content[start + length - 1 - suffix] == text.charAt(text.length() - 1 - suffix))
+      {
+         ++suffix;
+      }
+      
+      boolean restricted = restrictionsEnabled;
+      restrictionsEnabled = false;
+      try
+      {
+         replace(prefix, length - prefix - suffix, text.substring(prefix, text.length() - suffix), null);
+      }
+      finally
+      {
+         restrictionsEnabled = restricted;
+      }
+   }
+   
+   /**
+    * Counts the integer digits in the value passed, not including
+    * leading zeros.
+    * 
+    * @param value
+    *    The value to count the integer digits of.
+    * @return
+    *    The number of integer digits, or -1 if the value is null
+    *    or negative.
+    */
+   private static int countIntegerDigits(BigDecimal value)
+   {
+      if (value == null || value.signum() < 0)
+      {
+         return -1;
+      }
+      BigInteger integerPortion = value.toBigInteger();
+      return integerPortion.signum() == 0 ? 0 : integerPortion.toString().length();
+   }
+   
+   /**
+    * Runs the characters of the document between the offsets passed
+    * through the scanner, reading the content in place through the 
+    * reusable segment.
+    * 
+    * @param offs
+    *    The offset to start scanning from.
+    * @param length
+    *    The number of characters to scan.
+    * @return
+    *    False if the scanner no longer recognizes the text.
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
+    */
+   private boolean scanDocumentText(int offs, int length) throws BadLocationException
+   {
+      segment.setPartialReturn(true);
+      int remaining = length;
+      int position = offs;
+      while (remaining > 0)
+      {
+         getText(position, remaining, segment);
+         int end = segment.offset + segment.count;
+         for (int index = segment.offset; index != end; ++index)
+         {
+            if (!scanner.next(segment.array[index]))
+            {
+               return false;
+            }
+         }
+         remaining -= segment.count;
+         position += segment.count;
+      }
+      return true;
+   }
+   
+   /**
+    * Checks the text that would be in the field after the insert
+    * with the scanner. This only proves the input is acceptable; 
+    * a false result means the full BigDecimal validation has to 
+    * decide, either because the input is invalid or because the 
+    * value is close enough to the maximum value that it has to be
+    * compared exactly.
     * 
     * @param offs 
     *    the starting offset >= 0
     * @param str 
-    *    the string to insert; does nothing with null/empty strings
-    * @param a 
-    *    the attributes for the inserted content
+    *    the string to insert
+    * @return
+    *    True if the input is known to be valid. 
+    * @throws BadLocationException
+    *    Any exceptions for the document framework will be thrown
     */
-   @Override
-   public void insertString(int offs, String str, AttributeSet a) throws BadLocationException 
-   {           
-      String newTextValue = getFullText(offs, str, a);
-      
-      // Empty string, pass it up to the super class to place in the field.
-      if (newTextValue.isEmpty())
+   private boolean isAcceptedByScanner(int offs, String str) throws BadLocationException
+   {
+      scanner.reset();
+      if (!scanDocumentText(0, offs))
+      {
+         return false;
+      }
+      for (int index = 0; index != str.length(); ++index)
+      {
+         if (!scanner.next(str.charAt(index)))
+         {
+            return false;
+         }
+      }
+      if (!scanDocumentText(offs, getLength() - offs) || !scanner.isWellFormed())
       {
-         super.insertString(offs, str, a);
+         return false;
       }
       
-      // If the new string contains a decimal point but decimals
-      // are not allowed, prevent the text entry.
-      if (!allowDecimals && str.contains("."))
+      if (scanner.isSignSeen() && !allowNegatives)
       {
-         fireListenersOnOwningField(InvalidatedReason.NON_INTEGER, "Non-integer value entered.");
+         return false;
       }
-      else
+      if (scanner.isSeparatorSeen())
       {
-         BigDecimal val = verifyContents(newTextValue);
-         if (val != null)
+         if (!allowDecimals)
+         {
+            return false;
+         }
+         if (numberOfDecimalPlaces > 0 && scanner.getFractionDigits() > numberOfDecimalPlaces)
+         {
+            return false;
+         }
+      }
+      if (maximumValue != null)
+      {
+         // Only values with fewer integer digits than a non-negative 
+         // maximum are known to be under it, the rest get compared 
+         // by the BigDecimal validation. 
+         if (maximumIntegerDigits < 0)
+         {
+            return false;
+         }
+         if (!scanner.isNegative() && scanner.getSignificantIntegerDigits() >= maximumIntegerDigits)
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+   
+   /**
+    * The validator chain stage filtering out bad characters within
+    * the text field if entered by the user by typing or by copying 
+    * and pasting from the clipboard.
+    * <p>
+    * The candidate text is checked with the scanner first, which
+    * does not create any objects when the input is accepted. Input
+    * the scanner cannot prove valid goes through the full BigDecimal
+    * validation, which also notifies the listeners on the field.
+    * </p>
+    *
+    * @author 
+    *  Ben Dougall
+    */
+   private class NumericStage implements DocumentValidator
+   {
+      @Override
+      public boolean validate(DocumentEdit edit) throws BadLocationException
+      {
+         String str = edit.getText();
+         if (isAcceptedByScanner(edit.getOffset(), str))
+         {
+            return true;
+         }
+         
+         // If the new string contains a decimal point but decimals
+         // are not allowed, prevent the text entry.
+         if (!allowDecimals && str.contains("."))
          {
-            super.insertString(offs, str, a);
+            fireListenersOnOwningField(InvalidatedReason.NON_INTEGER, "Non-integer value entered.");
+            return false;
          }
+         return verifyContents(edit.getCandidateText().toString()) != null;
       }
    }
 }
@@ -3,6 +3,12 @@ package bjad.swing;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.util.Map;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+
+import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
 
 /**
  * Text field for swing applications that will
@@ -29,6 +35,20 @@ public class NumericTextField extends AbstractRestrictiveTextField
     */
    protected boolean moneyField = false;
    
+   /**
+    * Values of the field, parsed from the text the first time 
+    * one is read after the document changes, along with the 
+    * document change count each was parsed at.
+    */
+   private BigDecimal cachedDecimalValue;
+   private long decimalValueModCount = -1;
+   private long primitiveModCount = -1;
+   private boolean longOverflow = false;
+   private boolean minorUnitsOverflow = false;
+   private long cachedLongValue;
+   private long cachedMinorUnits;
+   private final Segment segment = new Segment();
+   
    /**
     * Custom constructor that defines the minimum and maximum 
     * parameters for the field.
@@ -60,6 +80,7 @@ public class NumericTextField extends AbstractRestrictiveTextField
    public void setDecimalValuesAllowed(boolean allowed)
    {
       numDoc.setAllowDecimals(allowed);
+      fieldSettingsChanged();
    }
    
    /**
@@ -71,6 +92,7 @@ public class NumericTextField extends AbstractRestrictiveTextField
    public void setNegativeValuesAllowed(boolean allowed)
    {
       numDoc.setAllowNegatives(allowed);
+      fieldSettingsChanged();
    }
    
    /**
@@ -81,6 +103,7 @@ public class NumericTextField extends AbstractRestrictiveTextField
    public void setMaximumValueAllowed(BigDecimal maxValue)
    {
       numDoc.setMaximumValue(maxValue);
+      fieldSettingsChanged();
    }
    
    /**
@@ -91,6 +114,7 @@ public class NumericTextField extends AbstractRestrictiveTextField
    public void setMaximumValueAllowed(BigInteger maxValue)
    {
       numDoc.setMaximumValue(new BigDecimal(maxValue));
+      fieldSettingsChanged();
    }
    
    /** 
@@ -104,6 +128,7 @@ public class NumericTextField extends AbstractRestrictiveTextField
    public void setMaximumDecimalPlaces(int decimalPlaces)
    {
       numDoc.setNumberOfDecimalPlaces(decimalPlaces);
+      fieldSettingsChanged();
    }
    
    /**
@@ -124,9 +149,81 @@ public class NumericTextField extends AbstractRestrictiveTextField
       }
    }
    
+   /**
+    * Loads a value from code into the field, such as a value 
+    * read from a database, validating the value once as a number
+    * instead of parsing the text it is shown as. The document is
+    * left untouched, firing no events, if it already shows the 
+    * value.
+    * <p>
+    * Values breaking the rules of the field notify the invalid 
+    * entry listeners and leave the field empty, the same as 
+    * setValue does. 
+    * </p>
+    * 
+    * @param val
+    *    The value to display in the field, or null to clear
+    *    the field.
+    * @return
+    *    True if the value was loaded, false if it was invalid.
+    */
+   public boolean loadValue(Number val)
+   {
+      String text = "";
+      boolean valid = true;
+      if (val != null)
+      {
+         BigDecimal value = toBigDecimal(val);
+         if (value == null)
+         {
+            fireInvalidEntryListeners(InvalidatedReason.NON_NUMERIC, "Non numeric value entered.");
+            valid = false;
+         }
+         else if (numDoc.verifyValue(value) == null)
+         {
+            valid = false;
+         }
+         else
+         {
+            text = value.toPlainString();
+         }
+      }
+      try
+      {
+         numDoc.replaceValidatedContent(text);
+      }
+      catch (BadLocationException ex)
+      {
+         throw new IllegalStateException("Unable to load the value into the field", ex);
+      }
+      return valid;
+   }
+   
+   /**
+    * Loads the values from code into each of the fields, such as
+    * a row read from a database, the same way as loadValue.
+    * 
+    * @param values
+    *    The values to load, keyed by the field to load them into.
+    * @return
+    *    True if all the values were loaded, false if any were 
+    *    invalid.
+    */
+   public static boolean loadValues(Map<NumericTextField, ? extends Number> values)
+   {
+      boolean allValid = true;
+      for (Map.Entry<NumericTextField, ? extends Number> entry : values.entrySet())
+      {
+         allValid &= entry.getKey().loadValue(entry.getValue());
+      }
+      return allValid;
+   }
+   
    /**
     * Gathers the value from the text field, or null
-    * if the text is an invalid number.
+    * if the text is an invalid number. The value is 
+    * only parsed again once the text of the field 
+    * changes.
     * 
     * @return
     *    the value from the text field, or null
@@ -134,12 +231,18 @@ public class NumericTextField extends AbstractRestrictiveTextField
     */
    public BigDecimal getDecimalValue()
    {
-      BigDecimal retValue = isFieldEmpty() ? BigDecimal.ZERO : new BigDecimal(getTextContent());
-      if (isMoneyField())
+      long modCount = getDocumentModCount();
+      if (decimalValueModCount != modCount)
       {
-         retValue = retValue.setScale(2, RoundingMode.HALF_UP);
+         BigDecimal retValue = isFieldEmpty() ? BigDecimal.ZERO : new BigDecimal(getTextContent());
+         if (isMoneyField())
+         {
+            retValue = retValue.setScale(2, RoundingMode.HALF_UP);
+         }
+         cachedDecimalValue = retValue;
+         decimalValueModCount = modCount;
       }
-      return retValue;
+      return cachedDecimalValue;
    }
    
    /**
@@ -160,6 +263,252 @@ public class NumericTextField extends AbstractRestrictiveTextField
       return null;         
    }
    
+   /**
+    * Returns an error if the text of the field can not be read
+    * as a number, such as a lone minus sign.
+    * 
+    * @return
+    *    The message describing the error in the entry, or null 
+    *    if the field holds a number or is empty.
+    */
+   @Override
+   public String getEntryError()
+   {
+      try
+      {
+         getDecimalValue();
+         return null;
+      }
+      catch (NumberFormatException ex)
+      {
+         return "Non numeric value entered.";
+      }
+   }
+   
+   /**
+    * Returns the value of the field as a long, the same as 
+    * getIntegerValue but without creating any objects once the 
+    * value has been read, until the text of the field changes. 
+    * 
+    * @return
+    *    The value of the field, with any decimals truncated, or 
+    *    0 if the field is empty.
+    * @throws ArithmeticException
+    *    If the value does not fit in a long.
+    * @throws NumberFormatException
+    *    If the text of the field is not a number, such as a 
+    *    lone minus sign, the same as getDecimalValue.
+    */
+   public long getLongValue()
+   {
+      refreshPrimitiveCache();
+      if (longOverflow)
+      {
+         throw new ArithmeticException("Value of the field does not fit in a long");
+      }
+      return cachedLongValue;
+   }
+   
+   /**
+    * Returns the value of the field in hundredths, such as cents 
+    * for a money field, rounded half up the same as getDecimalValue 
+    * rounds a money field, without creating any objects once the 
+    * value has been read, until the text of the field changes. 
+    * 
+    * @return
+    *    The value of the field in minor units, or 0 if the field
+    *    is empty.
+    * @throws ArithmeticException
+    *    If the value in minor units does not fit in a long.
+    * @throws NumberFormatException
+    *    If the text of the field is not a number, such as a 
+    *    lone minus sign, the same as getDecimalValue.
+    */
+   public long getMinorUnits()
+   {
+      refreshPrimitiveCache();
+      if (minorUnitsOverflow)
+      {
+         throw new ArithmeticException("Value of the field in minor units does not fit in a long");
+      }
+      return cachedMinorUnits;
+   }
+   
+   /**
+    * Loads a value in hundredths, such as cents for a money 
+    * field, into the field the same way as loadValue.
+    * 
+    * @param minorUnits
+    *    The value in minor units.
+    * @return
+    *    True if the value was loaded, false if it was invalid.
+    */
+   public boolean loadMinorUnits(long minorUnits)
+   {
+      return loadValue(BigDecimal.valueOf(minorUnits, 2));
+   }
+   
+   /**
+    * Parses the text of the field into the primitive values, if
+    * the document changed since they were last parsed. Plain numbers
+    * are parsed from the document in place, anything else through
+    * getDecimalValue. Each value notes on its own whether it 
+    * overflowed, so only the getter of that value throws.
+    * 
+    * @throws NumberFormatException
+    *    If the text of the field is not a number.
+    */
+   private void refreshPrimitiveCache()
+   {
+      long modCount = getDocumentModCount();
+      if (primitiveModCount != modCount)
+      {
+         if (!parsePlainNumber())
+         {
+            BigDecimal value = getDecimalValue();
+            try
+            {
+               cachedMinorUnits = value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+               minorUnitsOverflow = false;
+            }
+            catch (ArithmeticException ex)
+            {
+               minorUnitsOverflow = true;
+            }
+            try
+            {
+               cachedLongValue = value.toBigInteger().longValueExact();
+               longOverflow = false;
+            }
+            catch (ArithmeticException ex)
+            {
+               longOverflow = true;
+            }
+         }
+         primitiveModCount = modCount;
+      }
+   }
+   
+   /**
+    * Parses text in the form <code>[-]digits[.digits]</code> from 
+    * the document into the primitive values, without creating 
+    * any objects. The digits are gathered as a negative number,
+    * which reaches one further than a positive one, so 
+    * Long.MIN_VALUE can be read.
+    * 
+    * @return
+    *    True if the text was parsed, false if it is in another 
+    *    form.
+    */
+   private boolean parsePlainNumber()
+   {
+      try
+      {
+         numDoc.getText(0, numDoc.getLength(), segment);
+      }
+      catch (BadLocationException ex)
+      {
+         return false;
+      }
+      int index = segment.offset;
+      int end = segment.offset + segment.count;
+      char[] text = segment.array;
+      while (index < end && text[index] <= ' ')
+      {
+         ++index;
+      }
+      while (end > index && text[end - 1] <= ' ')
+      {
+         --end;
+      }
+      
+      boolean negative = index < end && text[index] == '-';
+      if (negative)
+      {
+         ++index;
+      }
+      if (index == end && !negative)
+      {
+         cachedLongValue = 0;
+         cachedMinorUnits = 0;
+         longOverflow = false;
+         minorUnitsOverflow = false;
+         return true;
+      }
+      
+      long negatedIntegerPart = 0;
+      int digits = 0;
+      boolean overflow = false;
+      for (; index < end && text[index] >= '0' && text[index] <= '9'; ++index, ++digits)
+      {
+         int digit = text[index] - '0';
+         if (negatedIntegerPart < (Long.MIN_VALUE + digit) / 10)
+         {
+            overflow = true;
+         }
+         else
+         {
+            negatedIntegerPart = negatedIntegerPart * 10 - digit;
+         }
+      }
+      
+      // Hundredths, rounded half up by the thousandths digit.
+      int hundredths = 0;
+      if (index < end && text[index] == '.')
+      {
+         ++index;
+         int places = 0;
+         for (; index < end && text[index] >= '0' && text[index] <= '9'; ++index, ++digits, ++places)
+         {
+            int digit = text[index] - '0';
+            if (places < 2)
+            {
+               hundredths = hundredths * 10 + digit;
+            }
+            else if (places == 2 && digit >= 5)
+            {
+               ++hundredths;
+            }
+         }
+         for (; places < 2; ++places)
+         {
+            hundredths *= 10;
+         }
+      }
+      if (index != end || digits == 0)
+      {
+         return false;
+      }
+      
+      // A money field's value is rounded to hundredths before 
+      // it is truncated, so rounding up .995 carries into the
+      // integer part.
+      long negatedLongValue = negatedIntegerPart;
+      longOverflow = overflow;
+      if (!overflow && moneyField && hundredths == 100)
+      {
+         longOverflow = negatedLongValue == Long.MIN_VALUE;
+         --negatedLongValue;
+      }
+      longOverflow |= !negative && negatedLongValue == Long.MIN_VALUE;
+      cachedLongValue = negative ? negatedLongValue : -negatedLongValue;
+      
+      minorUnitsOverflow = overflow;
+      if (!overflow)
+      {
+         try
+         {
+            long negatedMinorUnits = Math.subtractExact(Math.multiplyExact(negatedIntegerPart, 100), hundredths);
+            cachedMinorUnits = negative ? negatedMinorUnits : Math.negateExact(negatedMinorUnits);
+         }
+         catch (ArithmeticException ex)
+         {
+            minorUnitsOverflow = true;
+         }
+      }
+      return true;
+   }
+   
    /**
     * Throws an exception right away, as you should use the 
     * setValue method to apply values to the field.
@@ -242,8 +591,43 @@ public class NumericTextField extends AbstractRestrictiveTextField
    public void setMoneyField(boolean moneyField)
    {
       this.moneyField = moneyField;
+      fieldSettingsChanged();
    }
 
+   /**
+    * Converts the number into a BigDecimal, exactly for the 
+    * integer types and through the text of any other number.
+    * 
+    * @param val
+    *    The number to convert.
+    * @return
+    *    The number as a BigDecimal, or null if it is not a
+    *    finite number.
+    */
+   private static BigDecimal toBigDecimal(Number val)
+   {
+      if (val instanceof BigDecimal)
+      {
+         return (BigDecimal)val;
+      }
+      if (val instanceof BigInteger)
+      {
+         return new BigDecimal((BigInteger)val);
+      }
+      if (val instanceof Long || val instanceof Integer || val instanceof Short || val instanceof Byte)
+      {
+         return BigDecimal.valueOf(val.longValue());
+      }
+      try
+      {
+         return new BigDecimal(val.toString());
+      }
+      catch (NumberFormatException ex)
+      {
+         return null;
+      }
+   }
+   
    /**
     * Creates a new integer text field which will be customized
     * to allow negative values and not have a maximum limit 
@@ -0,0 +1,82 @@
+package bjad.swing;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.swing.text.BadLocationException;
+
+import bjad.swing.InvalidKeyEntryListener.InvalidatedReason;
+
+/**
+ * Validator stage allowing text into a field only while the full
+ * text of the field matches a regular expression, or could still
+ * match it once more text is entered.
+ * <p>
+ * The matcher is reused for each insert, so an instance should 
+ * only be added to a single field. The whole text is matched on
+ * each insert, so for long text a TextField input mask, which 
+ * only checks from the insert position, is faster.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+public class PatternValidator implements DocumentValidator
+{
+   private final Pattern pattern;
+   private final Matcher matcher;
+
+   /**
+    * Constructor, compiling the regular expression the text
+    * of the field has to match.
+    *
+    * @param regex
+    *    The regular expression to match.
+    */
+   public PatternValidator(String regex)
+   {
+      this(Pattern.compile(regex));
+   }
+
+   /**
+    * Constructor, setting the pattern the text of the field
+    * has to match.
+    *
+    * @param pattern
+    *    The pattern to match.
+    */
+   public PatternValidator(Pattern pattern)
+   {
+      this.pattern = pattern;
+      this.matcher = pattern.matcher("");
+   }
+
+   /**
+    * Returns the pattern the text of the field has to match.
+    *
+    * @return
+    *    The pattern.
+    */
+   public Pattern getPattern()
+   {
+      return this.pattern;
+   }
+
+   /**
+    * Allows the insert if the text of the field after the insert
+    * matches the pattern, or the matcher ran out of text before 
+    * failing, meaning more text could still make it match.
+    */
+   @Override
+   public boolean validate(DocumentEdit edit) throws BadLocationException
+   {
+      matcher.reset(edit.getCandidateText());
+      boolean accepted = matcher.matches() || matcher.hitEnd();
+      matcher.reset("");
+      if (!accepted)
+      {
+         edit.fireInvalidEntry(InvalidatedReason.PATTERN_MISMATCH, "Text does not match the pattern of the field.");
+      }
+      return accepted;
+   }
+}
@@ -0,0 +1,132 @@
+package bjad.swing;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+
+/**
+ * Cached position of the placeholder text within a restrictive
+ * text field, so repainting an empty field does not work out
+ * the position again or create any objects doing so.
+ * <p>
+ * The position is only worked out again when the placeholder
+ * text, the placeholder font, the height of the field or the
+ * insets of the field change. The values are compared on each
+ * paint instead of listening for changes, as the placeholder
+ * properties can be set directly on the fields.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class PlaceholderLayout
+{
+   private String text = null;
+   private boolean blank = true;
+
+   private Font font = null;
+   private int height = -1;
+   private int insetsTop;
+   private int insetsBottom;
+   private int insetsLeft;
+
+   private int x;
+   private int y;
+
+   /**
+    * Returns true if the placeholder text is null or only
+    * whitespace, checking the text again only if it changed.
+    *
+    * @param placeholderText
+    *    The placeholder text of the field.
+    * @return
+    *    True if there is no placeholder text to draw.
+    */
+   boolean isBlank(String placeholderText)
+   {
+      if (placeholderText != text)
+      {
+         text = placeholderText;
+         blank = placeholderText == null || placeholderText.trim().isEmpty();
+      }
+      return blank;
+   }
+
+   /**
+    * Works out the position of the placeholder text again if
+    * the font, height or insets of the field changed since it
+    * was last worked out.
+    *
+    * @param g
+    *    The graphics the placeholder will be drawn with.
+    * @param placeholderFont
+    *    The font the placeholder will be drawn in.
+    * @param fieldHeight
+    *    The height of the field.
+    * @param insets
+    *    The insets of the field.
+    */
+   void validate(Graphics g, Font placeholderFont, int fieldHeight, Insets insets)
+   {
+      if (placeholderFont == font && fieldHeight == height
+            && insets.top == insetsTop && insets.bottom == insetsBottom && insets.left == insetsLeft)
+      {
+         return;
+      }
+      font = placeholderFont;
+      height = fieldHeight;
+      insetsTop = insets.top;
+      insetsBottom = insets.bottom;
+      insetsLeft = insets.left;
+
+      FontMetrics fm = g.getFontMetrics(placeholderFont);
+
+      // The drawing space is the the height of the text field minus the
+      // padding added by the insets padding (both the top and bottom).
+      int drawingSpaceHeight = fieldHeight - insets.top - insets.bottom;
+
+      // The y position is the middle of the drawing space plus the
+      // middle of the ascent of the font, rounded half up once both
+      // halves are added so the decimals of each are included.
+      x = insets.left + 1;
+      y = halveRoundingHalfUp(drawingSpaceHeight + fm.getMaxAscent());
+   }
+
+   /**
+    * Returns the x position to draw the placeholder text at.
+    *
+    * @return
+    *    The x position of the placeholder text.
+    */
+   int getX()
+   {
+      return x;
+   }
+
+   /**
+    * Returns the y position (baseline) to draw the placeholder
+    * text at.
+    *
+    * @return
+    *    The y position of the placeholder text.
+    */
+   int getY()
+   {
+      return y;
+   }
+
+   /**
+    * Halves the value, rounding halves away from zero the
+    * same way RoundingMode.HALF_UP does.
+    *
+    * @param value
+    *    The value to halve.
+    * @return
+    *    The rounded half of the value.
+    */
+   private static int halveRoundingHalfUp(int value)
+   {
+      return value >= 0 ? (value + 1) / 2 : -((1 - value) / 2);
+   }
+}
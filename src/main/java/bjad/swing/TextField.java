@@ -1,5 +1,9 @@
 package bjad.swing;
 
+import java.util.function.IntPredicate;
+
+import javax.swing.text.BadLocationException;
+
 /**
  * Standard text field with the option to restrict
  * characters if need be. 
@@ -60,7 +64,10 @@ public class TextField extends AbstractRestrictiveTextField
     */
    public void addAllowableCharacter(Character c)
    {
-      doc.getAllowableCharacters().add(c);
+      if (c != null)
+      {
+         doc.getAllowableCharacterSet().add(c);
+      }
    }
    
    /**
@@ -72,14 +79,36 @@ public class TextField extends AbstractRestrictiveTextField
     */
    public void addAllowableCharactersFromString(String str)
    {
-      if (str != null)
-      {
-         char[] charactersToAdd = str.toCharArray();
-         for (Character c : charactersToAdd)
-         {
-            addAllowableCharacter(c);
-         }
-      }
+      doc.getAllowableCharacterSet().addAll(str);
+   }
+   
+   /**
+    * Adds the range of characters provided to the allowable
+    * character set for the field, such as 'A' to 'Z'.
+    * 
+    * @param first
+    *    The first character in the range to allow.
+    * @param last
+    *    The last character in the range to allow.
+    */
+   public void addAllowableCharacterRange(char first, char last)
+   {
+      doc.getAllowableCharacterSet().addRange(first, last);
+   }
+   
+   /**
+    * Adds a rule to the allowable character set for the 
+    * field, allowing any character the rule matches, such 
+    * as Character::isDigit.
+    * 
+    * @param rule
+    *    The rule matching the characters to allow.
+    * @return
+    *    The rule added, to pass to removeAllowableCharacterRule.
+    */
+   public IntPredicate addAllowableCharacterRule(IntPredicate rule)
+   {
+      return doc.getAllowableCharacterSet().addRule(rule);
    }
    
    /**
@@ -91,7 +120,10 @@ public class TextField extends AbstractRestrictiveTextField
     */
    public void removeAllowableCharacter(Character c)
    {
-      doc.getAllowableCharacters().remove(c);
+      if (c != null)
+      {
+         doc.getAllowableCharacterSet().remove(c);
+      }
    }
    
    /**
@@ -103,14 +135,36 @@ public class TextField extends AbstractRestrictiveTextField
     */
    public void removeAllowableCharactersFromString(String str)
    {
-      if (str != null)
-      {
-         char[] charactersToAdd = str.toCharArray();
-         for (Character c : charactersToAdd)
-         {
-            removeAllowableCharacter(c);
-         }
-      }
+      doc.getAllowableCharacterSet().removeAll(str);
+   }
+   
+   /**
+    * Removes the range of characters provided from the 
+    * allowable character set for the field.
+    * 
+    * @param first
+    *    The first character in the range to no longer allow.
+    * @param last
+    *    The last character in the range to no longer allow.
+    */
+   public void removeAllowableCharacterRange(char first, char last)
+   {
+      doc.getAllowableCharacterSet().removeRange(first, last);
+   }
+   
+   /**
+    * Removes a rule previously added to the allowable 
+    * character set for the field. Rules are matched by 
+    * identity, and writing the same lambda or method 
+    * reference again can create a new instance that is not
+    * matched, so pass the rule returned when it was added.
+    * 
+    * @param rule
+    *    The rule to remove.
+    */
+   public void removeAllowableCharacterRule(IntPredicate rule)
+   {
+      doc.getAllowableCharacterSet().removeRule(rule);
    }
    
    /**
@@ -140,5 +194,151 @@ public class TextField extends AbstractRestrictiveTextField
    {
       doc.maxLength = maxLength;
    }
+   
+   /**
+    * Returns the way whitespace in text entered or pasted 
+    * into the field is normalized.
+    * 
+    * @return
+    *    The whitespace policy of the field.
+    */
+   public WhitespacePolicy getWhitespacePolicy()
+   {
+      return doc.getWhitespacePolicy();
+   }
+   
+   /**
+    * Sets the way whitespace in text entered or pasted into 
+    * the field is normalized, by default removing whitespace
+    * entered at the start of the field.
+    * 
+    * @param policy
+    *    The whitespace policy to apply, null to leave the 
+    *    whitespace as entered.
+    */
+   public void setWhitespacePolicy(WhitespacePolicy policy)
+   {
+      doc.setWhitespacePolicy(policy);
+   }
+   
+   /**
+    * Returns the input mask the text of the field has to match.
+    * 
+    * @return
+    *    The input mask of the field, null if it has none.
+    */
+   public InputMask getInputMask()
+   {
+      return doc.getInputMask();
+   }
+   
+   /**
+    * Sets the input mask the text of the field has to match, such
+    * as a postal code or phone number. Each keystroke is allowed 
+    * while the text could still match the mask once more text is
+    * entered. Text already in the field is not checked.
+    * 
+    * @param mask
+    *    The input mask to apply, null for no mask.
+    */
+   public void setInputMask(InputMask mask)
+   {
+      doc.setInputMask(mask);
+      fieldSettingsChanged();
+   }
+   
+   /**
+    * Returns true if the field has no input mask, or the text of 
+    * the field fully matches it, rather than only the start of it.
+    * 
+    * @return
+    *    True if the text is complete for the input mask.
+    */
+   public boolean isInputMaskComplete()
+   {
+      try
+      {
+         return doc.isInputMaskComplete();
+      }
+      catch (BadLocationException ex)
+      {
+         return false;
+      }
+   }
+   
+   /**
+    * Returns an error if the field has text that only matches 
+    * the start of the input mask of the field.
+    * 
+    * @return
+    *    The message describing the error in the entry, or null 
+    *    if the field is empty or complete.
+    */
+   @Override
+   public String getEntryError()
+   {
+      if (getTextContent().isEmpty() || isInputMaskComplete())
+      {
+         return null;
+      }
+      return "Text does not match the mask of the field.";
+   }
+   
+   /**
+    * Returns true if characters not allowed in the field are 
+    * removed from text entered or pasted into the field, 
+    * instead of the whole entry being rejected. 
+    * 
+    * @return
+    *    True if characters not allowed are removed.
+    */
+   public boolean isStripInvalidCharacters()
+   {
+      return doc.isStripInvalidCharacters();
+   }
+   
+   /**
+    * Sets whether characters not allowed in the field are 
+    * removed from text entered or pasted into the field, 
+    * instead of the whole entry being rejected. The invalid 
+    * entry listeners are still notified when characters are
+    * removed.
+    * 
+    * @param strip
+    *    True to remove the characters not allowed, false to 
+    *    reject the whole entry (default).
+    */
+   public void setStripInvalidCharacters(boolean strip)
+   {
+      doc.setStripInvalidCharacters(strip);
+   }
+   
+   /**
+    * Returns true if text entered or pasted into the field is 
+    * cut down to fit within the maximum length, instead of the 
+    * whole entry being rejected. 
+    * 
+    * @return
+    *    True if text is cut down to the maximum length.
+    */
+   public boolean isTruncateToMaxLength()
+   {
+      return doc.isTruncateToMaxLength();
+   }
+   
+   /**
+    * Sets whether text entered or pasted into the field is 
+    * cut down to fit within the maximum length, instead of the 
+    * whole entry being rejected. The invalid entry listeners 
+    * are still notified when the text is cut down.
+    * 
+    * @param truncate
+    *    True to insert as much of the text as fits, false to 
+    *    reject the whole entry (default).
+    */
+   public void setTruncateToMaxLength(boolean truncate)
+   {
+      doc.setTruncateToMaxLength(truncate);
+   }
 }
 
@@ -0,0 +1,598 @@
+package bjad.swing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.MutableComboBoxModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * Combobox model that shows the items of another model whose
+ * display text starts with the text typed by the user, used by
+ * the BJADComboBox typeahead mode.
+ * <p>
+ * The case folded display text of every item is kept in a
+ * sorted index that is built once and updated as items are
+ * added, removed or changed in the source model, so a new
+ * prefix is found with a binary search instead of scanning the
+ * items. Typing a further character only narrows the rows already
+ * shown. The source model is never rebuilt; the items are always
+ * read from it, and the selection is the selection of the source
+ * model.
+ * </p>
+ * <p>
+ * When no filter is applied, the events of the source model are
+ * passed along as they are so the model behaves like the source.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ * @param <T>
+ *   The type of object shown in the combobox
+ */
+class TypeaheadComboBoxModel<T> extends AbstractListModel<T> implements MutableComboBoxModel<T>, ListDataListener
+{
+   private static final long serialVersionUID = 3125043722051826460L;
+   private static final int[] NO_ROWS = new int[0];
+
+   private final ComboBoxModel<T> source;
+
+   /** Folded display text of each item, by source index. */
+   private String[] keys = new String[0];
+   /** Source indexes ordered by their key. */
+   private int[] order = NO_ROWS;
+   /** Number of items in the index. */
+   private int indexedCount = 0;
+
+   /** The folded prefix currently applied, or null if none is. */
+   private String filter = null;
+   /** Source indexes of the rows shown while a filter is applied. */
+   private int[] rows = NO_ROWS;
+   /** Number of rows shown while a filter is applied. */
+   private int rowCount = 0;
+
+   /**
+    * Constructor, wrapping the model containing the items.
+    *
+    * @param source
+    *    The model containing the items to filter.
+    */
+   TypeaheadComboBoxModel(ComboBoxModel<T> source)
+   {
+      this.source = source;
+      buildIndex();
+      source.addListDataListener(this);
+   }
+
+   /**
+    * Returns the model containing the items being filtered.
+    *
+    * @return
+    *    The source model.
+    */
+   ComboBoxModel<T> getSourceModel()
+   {
+      return source;
+   }
+
+   /**
+    * Stops listening to the source model, once the model is
+    * no longer used by the combobox.
+    */
+   void dispose()
+   {
+      source.removeListDataListener(this);
+   }
+
+   /**
+    * Returns true if a filter is currently applied.
+    *
+    * @return
+    *    True if only the matching items are shown.
+    */
+   boolean isFiltered()
+   {
+      return filter != null;
+   }
+
+   /**
+    * Shows only the items whose display text starts with the
+    * text passed, ignoring case. Null or empty text shows all
+    * the items.
+    *
+    * @param text
+    *    The text the items must start with.
+    */
+   void setFilter(String text)
+   {
+      if (text == null || text.isEmpty())
+      {
+         clearFilter();
+         return;
+      }
+
+      String newFilter = CaseFolding.fold(text);
+      if (newFilter.equals(filter))
+      {
+         return;
+      }
+
+      int oldSize = getSize();
+      if (filter != null && newFilter.startsWith(filter))
+      {
+         narrowRows(newFilter);
+      }
+      else
+      {
+         findRows(newFilter);
+      }
+      filter = newFilter;
+      fireFilterChanged(oldSize);
+   }
+
+   /**
+    * Removes the filter so all the items are shown.
+    */
+   void clearFilter()
+   {
+      if (filter != null)
+      {
+         int oldSize = getSize();
+         filter = null;
+         rows = NO_ROWS;
+         rowCount = 0;
+         fireFilterChanged(oldSize);
+      }
+   }
+
+   /**
+    * Rebuilds the index from the display text of all the items,
+    * which is needed when the text of the items changes without
+    * the source model announcing it.
+    */
+   void rebuildIndex()
+   {
+      int oldSize = getSize();
+      buildIndex();
+      if (filter != null)
+      {
+         fireFilterChanged(oldSize);
+      }
+   }
+
+   /**
+    * Builds the index from the display text of all the items
+    * and finds the rows for the current filter again.
+    */
+   private void buildIndex()
+   {
+      indexedCount = source.getSize();
+      keys = new String[Math.max(indexedCount, 16)];
+      order = new int[keys.length];
+      for (int index = 0; index != indexedCount; ++index)
+      {
+         keys[index] = keyFor(index);
+         order[index] = index;
+      }
+      sortOrder(0, indexedCount);
+      refilter();
+   }
+
+   @Override
+   public int getSize()
+   {
+      return filter == null ? source.getSize() : rowCount;
+   }
+
+   @Override
+   public T getElementAt(int index)
+   {
+      if (filter == null)
+      {
+         return source.getElementAt(index);
+      }
+      return index >= 0 && index < rowCount ? source.getElementAt(rows[index]) : null;
+   }
+
+   @Override
+   public void setSelectedItem(Object anItem)
+   {
+      source.setSelectedItem(anItem);
+   }
+
+   @Override
+   public Object getSelectedItem()
+   {
+      return source.getSelectedItem();
+   }
+
+   @Override
+   public void addElement(T item)
+   {
+      mutableSource().addElement(item);
+   }
+
+   @Override
+   public void removeElement(Object obj)
+   {
+      mutableSource().removeElement(obj);
+   }
+
+   @Override
+   public void insertElementAt(T item, int index)
+   {
+      int sourceIndex = index;
+      if (filter != null)
+      {
+         sourceIndex = index < rowCount ? rows[index] : source.getSize();
+      }
+      mutableSource().insertElementAt(item, sourceIndex);
+   }
+
+   @Override
+   public void removeElementAt(int index)
+   {
+      mutableSource().removeElementAt(filter == null ? index : rows[index]);
+   }
+
+   /**
+    * Adds the new items to the index, shifting the index of the
+    * items after them, then passes the change along.
+    *
+    * @param e
+    *    The event from the source model.
+    */
+   @Override
+   public void intervalAdded(ListDataEvent e)
+   {
+      int first = e.getIndex0();
+      int count = e.getIndex1() - first + 1;
+      if (first < 0 || first > indexedCount || count <= 0)
+      {
+         buildIndex();
+      }
+      else
+      {
+         ensureCapacity(indexedCount + count);
+         System.arraycopy(keys, first, keys, first + count, indexedCount - first);
+         for (int position = 0; position != indexedCount; ++position)
+         {
+            if (order[position] >= first)
+            {
+               order[position] += count;
+            }
+         }
+         for (int index = first; index != first + count; ++index)
+         {
+            keys[index] = keyFor(index);
+            insertIntoOrder(index);
+         }
+         refilter();
+      }
+      forwardSourceChange(e);
+   }
+
+   /**
+    * Removes the items from the index, shifting the index of
+    * the items after them, then passes the change along.
+    *
+    * @param e
+    *    The event from the source model.
+    */
+   @Override
+   public void intervalRemoved(ListDataEvent e)
+   {
+      int first = e.getIndex0();
+      int last = e.getIndex1();
+      if (first < 0 || last >= indexedCount || last < first)
+      {
+         buildIndex();
+      }
+      else
+      {
+         int count = last - first + 1;
+         int kept = 0;
+         for (int position = 0; position != indexedCount; ++position)
+         {
+            int index = order[position];
+            if (index < first || index > last)
+            {
+               order[kept++] = index > last ? index - count : index;
+            }
+         }
+         System.arraycopy(keys, last + 1, keys, first, indexedCount - last - 1);
+         indexedCount -= count;
+         Arrays.fill(keys, indexedCount, indexedCount + count, null);
+         refilter();
+      }
+      forwardSourceChange(e);
+   }
+
+   /**
+    * Updates the index for the items that changed, then passes
+    * the change along. Selection changes, reported without an
+    * index, only get passed along.
+    *
+    * @param e
+    *    The event from the source model.
+    */
+   @Override
+   public void contentsChanged(ListDataEvent e)
+   {
+      int first = e.getIndex0();
+      int last = e.getIndex1();
+      if (first >= 0 || last >= 0)
+      {
+         if (first < 0 || last >= indexedCount || source.getSize() != indexedCount)
+         {
+            buildIndex();
+         }
+         else
+         {
+            for (int index = first; index <= last; ++index)
+            {
+               removeFromOrder(index);
+               keys[index] = keyFor(index);
+               insertIntoOrder(index);
+            }
+            refilter();
+         }
+      }
+      forwardSourceChange(e);
+   }
+
+   /**
+    * Passes the change in the source model along to the listeners
+    * of this model, as is when no filter is applied, or as a
+    * change of all the rows shown when one is.
+    *
+    * @param e
+    *    The event from the source model.
+    */
+   private void forwardSourceChange(ListDataEvent e)
+   {
+      if (filter == null || (e.getIndex0() == -1 && e.getIndex1() == -1))
+      {
+         switch (e.getType())
+         {
+         case ListDataEvent.INTERVAL_ADDED:
+            fireIntervalAdded(this, e.getIndex0(), e.getIndex1());
+            break;
+         case ListDataEvent.INTERVAL_REMOVED:
+            fireIntervalRemoved(this, e.getIndex0(), e.getIndex1());
+            break;
+         default:
+            fireContentsChanged(this, e.getIndex0(), e.getIndex1());
+         }
+      }
+      else
+      {
+         fireContentsChanged(this, 0, Math.max(rowCount - 1, 0));
+      }
+   }
+
+   /**
+    * Notifies the listeners that the rows shown changed.
+    *
+    * @param oldSize
+    *    The number of rows shown before the change.
+    */
+   private void fireFilterChanged(int oldSize)
+   {
+      fireContentsChanged(this, 0, Math.max(Math.max(oldSize, getSize()) - 1, 0));
+   }
+
+   /**
+    * Finds the rows for a new filter from the index, showing
+    * them in the order of the source model.
+    *
+    * @param newFilter
+    *    The folded prefix to find.
+    */
+   private void findRows(String newFilter)
+   {
+      int start = firstPositionNotBefore(newFilter);
+      int end = start;
+      while (end < indexedCount && keys[order[end]].startsWith(newFilter))
+      {
+         end++;
+      }
+      rowCount = end - start;
+      rows = new int[rowCount];
+      System.arraycopy(order, start, rows, 0, rowCount);
+      Arrays.sort(rows);
+   }
+
+   /**
+    * Narrows the rows already shown down to the ones matching
+    * a longer prefix, without going back to the index.
+    *
+    * @param newFilter
+    *    The folded prefix the rows must start with.
+    */
+   private void narrowRows(String newFilter)
+   {
+      int kept = 0;
+      for (int row = 0; row != rowCount; ++row)
+      {
+         if (keys[rows[row]].startsWith(newFilter))
+         {
+            rows[kept++] = rows[row];
+         }
+      }
+      rowCount = kept;
+   }
+
+   /**
+    * Finds the rows for the current filter again after the
+    * index changed.
+    */
+   private void refilter()
+   {
+      if (filter != null)
+      {
+         findRows(filter);
+      }
+   }
+
+   /**
+    * Finds the first position in the sorted order whose key is
+    * not before the prefix, which is where the keys starting
+    * with the prefix begin.
+    *
+    * @param prefix
+    *    The folded prefix.
+    * @return
+    *    The first position with a key at or after the prefix.
+    */
+   private int firstPositionNotBefore(String prefix)
+   {
+      int low = 0;
+      int high = indexedCount;
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (keys[order[mid]].compareTo(prefix) < 0)
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * Inserts the item into the sorted order, after the items
+    * already there with the same key.
+    *
+    * @param index
+    *    The source index of the item, which must have its key.
+    */
+   private void insertIntoOrder(int index)
+   {
+      String key = keys[index];
+      int low = 0;
+      int high = indexedCount;
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         int result = keys[order[mid]].compareTo(key);
+         if (result < 0 || (result == 0 && order[mid] < index))
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            high = mid;
+         }
+      }
+      System.arraycopy(order, low, order, low + 1, indexedCount - low);
+      order[low] = index;
+      indexedCount++;
+   }
+
+   /**
+    * Removes the item from the sorted order.
+    *
+    * @param index
+    *    The source index of the item.
+    */
+   private void removeFromOrder(int index)
+   {
+      for (int position = 0; position != indexedCount; ++position)
+      {
+         if (order[position] == index)
+         {
+            System.arraycopy(order, position + 1, order, position, indexedCount - position - 1);
+            indexedCount--;
+            return;
+         }
+      }
+   }
+
+   /**
+    * Sorts the part of the order between the positions passed
+    * by key, then by source index.
+    *
+    * @param from
+    *    The first position to sort.
+    * @param to
+    *    The position after the last one to sort.
+    */
+   private void sortOrder(int from, int to)
+   {
+      Integer[] boxed = new Integer[to - from];
+      for (int position = from; position != to; ++position)
+      {
+         boxed[position - from] = order[position];
+      }
+      Arrays.sort(boxed, new Comparator<Integer>()
+      {
+         @Override
+         public int compare(Integer first, Integer second)
+         {
+            int result = keys[first].compareTo(keys[second]);
+            return result != 0 ? result : Integer.compare(first, second);
+         }
+      });
+      for (int position = from; position != to; ++position)
+      {
+         order[position] = boxed[position - from];
+      }
+   }
+
+   /**
+    * Makes sure the index arrays can hold the number of items.
+    *
+    * @param capacity
+    *    The number of items the arrays must hold.
+    */
+   private void ensureCapacity(int capacity)
+   {
+      if (capacity > keys.length)
+      {
+         int newLength = Math.max(capacity, keys.length * 2);
+         keys = Arrays.copyOf(keys, newLength);
+         order = Arrays.copyOf(order, newLength);
+      }
+   }
+
+   /**
+    * Builds the folded display text of the item in the source
+    * model at the index.
+    *
+    * @param index
+    *    The source index of the item.
+    * @return
+    *    The folded display text, empty for null items or text.
+    */
+   private String keyFor(int index)
+   {
+      Object item = source.getElementAt(index);
+      String text = item == null ? null : item.toString();
+      return text == null ? "" : CaseFolding.fold(text);
+   }
+
+   /**
+    * Returns the source model as a mutable model, which is
+    * needed to add and remove items through the combobox.
+    *
+    * @return
+    *    The mutable source model.
+    */
+   @SuppressWarnings("unchecked")
+   private MutableComboBoxModel<T> mutableSource()
+   {
+      if (!(source instanceof MutableComboBoxModel))
+      {
+         throw new RuntimeException("Cannot use this method with a non-Mutable data model.");
+      }
+      return (MutableComboBoxModel<T>)source;
+   }
+}
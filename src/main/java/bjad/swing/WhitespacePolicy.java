@@ -0,0 +1,173 @@
+package bjad.swing;
+
+/**
+ * The ways a TextField can normalize the whitespace within
+ * text entered or pasted into it, before the text is checked
+ * against the allowable characters and maximum length of the
+ * field. Whitespace is any character Character.isWhitespace
+ * accepts.
+ * <p>
+ * Each policy normalizes the text in a single pass, returning
+ * the text unchanged, without copying it, when there is nothing
+ * to normalize.
+ * </p>
+ *
+ * @author
+ *  Ben Dougall
+ */
+public enum WhitespacePolicy
+{
+   /** Leave the whitespace as entered. */
+   PRESERVE,
+   /** Remove the whitespace at the start of text entered at the start of the field (default). */
+   TRIM_LEADING,
+   /**
+    * Remove the whitespace at the start of the field, and replace each run
+    * of whitespace with a single space, including a run that would follow
+    * the whitespace before the insert position.
+    */
+   COLLAPSE,
+   /** Remove all whitespace. */
+   STRIP;
+
+   /**
+    * Normalizes the whitespace within the text being inserted into
+    * a field.
+    *
+    * @param text
+    *    The text being inserted.
+    * @param atFieldStart
+    *    True if the text is being inserted at the start of the field.
+    * @param afterWhitespace
+    *    True if the character before the insert position is whitespace.
+    * @return
+    *    The normalized text, which can be empty, or the text passed if
+    *    nothing was changed.
+    */
+   String normalize(String text, boolean atFieldStart, boolean afterWhitespace)
+   {
+      switch (this)
+      {
+      case TRIM_LEADING:
+         return atFieldStart ? text.substring(skipLeadingWhitespace(text)) : text;
+      case COLLAPSE:
+         return collapse(text, atFieldStart || afterWhitespace);
+      case STRIP:
+         return strip(text);
+      default:
+         return text;
+      }
+   }
+
+   /**
+    * Returns the index of the first character that is not whitespace.
+    *
+    * @param text
+    *    The text to search.
+    * @return
+    *    The index of the first character that is not whitespace, or
+    *    the length of the text if there are none.
+    */
+   private static int skipLeadingWhitespace(String text)
+   {
+      int index = 0;
+      while (index < text.length() && Character.isWhitespace(text.charAt(index)))
+      {
+         ++index;
+      }
+      return index;
+   }
+
+   /**
+    * Replaces each run of whitespace in the text with a single space,
+    * dropping a leading run entirely if the text follows whitespace or
+    * starts the field.
+    *
+    * @param text
+    *    The text to collapse.
+    * @param dropLeading
+    *    True to drop the whitespace at the start of the text.
+    * @return
+    *    The collapsed text.
+    */
+   private static String collapse(String text, boolean dropLeading)
+   {
+      // Find the first character needing a change, so text that
+      // is already collapsed is returned without being copied.
+      int length = text.length();
+      int first = -1;
+      for (int index = 0; index != length && first == -1; ++index)
+      {
+         char c = text.charAt(index);
+         if (Character.isWhitespace(c))
+         {
+            boolean leading = index == 0 && dropLeading;
+            boolean repeated = index + 1 != length && Character.isWhitespace(text.charAt(index + 1));
+            if (leading || repeated || c != ' ')
+            {
+               first = index;
+            }
+         }
+      }
+      if (first == -1)
+      {
+         return text;
+      }
+
+      StringBuilder sb = new StringBuilder(length);
+      sb.append(text, 0, first);
+      boolean inRun = first == 0 && dropLeading;
+      for (int index = first; index != length; ++index)
+      {
+         char c = text.charAt(index);
+         if (Character.isWhitespace(c))
+         {
+            if (!inRun)
+            {
+               sb.append(' ');
+               inRun = true;
+            }
+         }
+         else
+         {
+            sb.append(c);
+            inRun = false;
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Removes all the whitespace from the text.
+    *
+    * @param text
+    *    The text to strip.
+    * @return
+    *    The text without whitespace.
+    */
+   private static String strip(String text)
+   {
+      int length = text.length();
+      int first = 0;
+      while (first != length && !Character.isWhitespace(text.charAt(first)))
+      {
+         ++first;
+      }
+      if (first == length)
+      {
+         return text;
+      }
+
+      StringBuilder sb = new StringBuilder(length - 1);
+      sb.append(text, 0, first);
+      for (int index = first + 1; index != length; ++index)
+      {
+         char c = text.charAt(index);
+         if (!Character.isWhitespace(c))
+         {
+            sb.append(c);
+         }
+      }
+      return sb.toString();
+   }
+}
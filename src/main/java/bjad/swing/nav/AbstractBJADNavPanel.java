@@ -1,8 +1,13 @@
 package bjad.swing.nav;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.swing.JComponent;
 import javax.swing.JPanel;
 
+import bjad.swing.FormValidationReport;
+import bjad.swing.FormValidator;
+
 /**
  * Panel for all the navigation application options to
  * extend so they can be used in the BJAD framework.
@@ -13,6 +18,12 @@ import javax.swing.JPanel;
 public abstract class AbstractBJADNavPanel extends JPanel
 {
    private static final long serialVersionUID = -9068792570074621596L;
+   
+   /**
+    * Validator for the restrictive text fields on the panel, 
+    * created the first time it is used.
+    */
+   private transient FormValidator formValidator = null;
 
    /** 
     * Provides the title to show when the panel is in use.
@@ -37,6 +48,29 @@ public abstract class AbstractBJADNavPanel extends JPanel
     */
    public abstract void onPanelDisplay();
    
+   /**
+    * Starts preparing the data the panel displays before it is 
+    * shown, such as loading records in the background, called on
+    * the event dispatch thread when the panel is selected. A 
+    * loading message is shown in place of the panel until the 
+    * future completes, then the panel is shown and onPanelDisplay
+    * is called on the event dispatch thread, even if the future 
+    * completed exceptionally. 
+    * <p>
+    * If another panel is selected before the future completes,
+    * the panel is never shown, and neither canPanelClose nor 
+    * onPanelClosed are called.
+    * </p>
+    * 
+    * @return
+    *    The future completing once the data is ready, or null
+    *    (the default) to show the panel right away.
+    */
+   protected CompletableFuture<?> preparePanelDisplay()
+   {
+      return null;
+   }
+   
    /**
     * Defines if the application should be closed/switched
     * out within the application framework. 
@@ -50,4 +84,51 @@ public abstract class AbstractBJADNavPanel extends JPanel
     * closed/switched out within the application.
     */
    public abstract void onPanelClosed();
+   
+   /**
+    * Contains the logic to execute when the panel, constructed by
+    * the supplier of its entry, is dropped by the content pane to 
+    * free memory, such as releasing the data it holds. The panel 
+    * is closed, if it was displayed, and is not displayed again; 
+    * selecting its entry again constructs a new panel. Does 
+    * nothing by default.
+    */
+   protected void onPanelReleased()
+   {
+      ; // nothing to release by default
+   }
+   
+   /**
+    * Returns the validator for the restrictive text fields on 
+    * the panel, which rules can be added to for the fields.
+    * 
+    * @return
+    *    The form validator for the panel.
+    */
+   protected FormValidator getFormValidator()
+   {
+      if (formValidator == null)
+      {
+         formValidator = new FormValidator(this);
+      }
+      return formValidator;
+   }
+   
+   /**
+    * Validates all the restrictive text fields on the panel in 
+    * a single pass, moving focus to the first invalid field if 
+    * any errors are found, such as from canPanelClose.
+    * 
+    * @return
+    *    The report of the errors found.
+    */
+   protected FormValidationReport validateForm()
+   {
+      FormValidationReport report = getFormValidator().validate();
+      if (!report.isValid())
+      {
+         report.getFirstInvalidField().requestFocusInWindow();
+      }
+      return report;
+   }
 }
@@ -1,5 +1,7 @@
 package bjad.swing.nav;
 
+import java.util.function.Supplier;
+
 import javax.swing.Icon;
 
 /**
@@ -8,6 +10,11 @@ import javax.swing.Icon;
  * display, an icon to display if desired, the ordinal
  * of the entry within the module, and the 
  * AbstractBJADNavPanel to display.
+ * <p>
+ * The panel can be set directly, or a supplier set instead to 
+ * construct the panel the first time the entry is selected, 
+ * so the content pane only keeps the panels used recently.
+ * </p>
  *
  * @author 
  *   Ben Dougall
@@ -30,6 +37,11 @@ public class BJADModuleEntry implements Comparable<BJADModuleEntry>
     * The Panel to display when the entry is selected.
     */
    protected AbstractBJADNavPanel navPanel = null;
+   /**
+    * The supplier constructing the panel to display when the 
+    * entry is selected, used if no panel is set.
+    */
+   protected Supplier<? extends AbstractBJADNavPanel> navPanelSupplier = null;
    
    
    /**
@@ -132,6 +144,43 @@ public class BJADModuleEntry implements Comparable<BJADModuleEntry>
       this.navPanel = navPanel;
    }
 
+   /**
+    * Returns the value of the BJADModuleEntry instance's 
+    * navPanelSupplier property.
+    *
+    * @return 
+    *   The value of navPanelSupplier
+    */
+   public Supplier<? extends AbstractBJADNavPanel> getNavPanelSupplier()
+   {
+      return this.navPanelSupplier;
+   }
+
+   /**
+    * Sets the value of the BJADModuleEntry instance's 
+    * navPanelSupplier property.
+    *
+    * @param navPanelSupplier 
+    *   The value to set within the instance's 
+    *   navPanelSupplier property
+    */
+   public void setNavPanelSupplier(Supplier<? extends AbstractBJADNavPanel> navPanelSupplier)
+   {
+      this.navPanelSupplier = navPanelSupplier;
+   }
+   
+   /**
+    * Returns true if the entry has a panel to display, either set
+    * directly or through a supplier.
+    * 
+    * @return
+    *    True if the entry has a panel.
+    */
+   public boolean hasNavPanel()
+   {
+      return this.navPanel != null || this.navPanelSupplier != null;
+   }
+
    /**
     * Implementation of the Comparable interface, returning the 
     * compare result between the ordinal, or if the ordinal is
@@ -0,0 +1,245 @@
+package bjad.swing.nav;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.event.EventListenerList;
+
+/**
+ * Registry of the modules shown by a sidebar content pane, kept
+ * in the order of their ordinals (or names if the ordinals match),
+ * which modules can be added to, removed from or updated in while
+ * the application runs, such as by plugins.
+ * <p>
+ * Modules are inserted at the position found by a binary search
+ * of the sorted modules, after any modules comparing the same.
+ * The listeners of the registry are told of each change, so the
+ * sidebar only updates the module changed. The registry is not
+ * thread safe and is meant to be changed on the event dispatch
+ * thread, like the sidebar showing it.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+public class BJADModuleRegistry
+{
+   private final List<BJADNavModule> modules = new ArrayList<>();
+   private final List<BJADNavModule> modulesView = Collections.unmodifiableList(modules);
+   private final EventListenerList listenerList = new EventListenerList();
+
+   /**
+    * Constructor, creating an empty registry.
+    */
+   public BJADModuleRegistry()
+   {
+      super();
+   }
+
+   /**
+    * Constructor, registering the modules passed, which are sorted
+    * along with their entries.
+    *
+    * @param modules
+    *    The modules to register.
+    */
+   public BJADModuleRegistry(List<BJADNavModule> modules)
+   {
+      if (modules == null)
+      {
+         throw new IllegalArgumentException("Modules passed to " + this.getClass().getSimpleName() + " cannot be null");
+      }
+      this.modules.addAll(BJADNavModule.sortModules(modules));
+   }
+
+   /**
+    * Returns the registered modules, sorted. The list cannot be
+    * changed directly, but reflects the changes to the registry.
+    *
+    * @return
+    *    The sorted modules.
+    */
+   public List<BJADNavModule> getModules()
+   {
+      return this.modulesView;
+   }
+
+   /**
+    * Adds the module to the registry in its sorted position,
+    * sorting its entries.
+    *
+    * @param module
+    *    The module to add.
+    * @return
+    *    The index the module was added at.
+    */
+   public int addModule(BJADNavModule module)
+   {
+      if (module == null)
+      {
+         throw new IllegalArgumentException("Module passed to " + this.getClass().getSimpleName() + " cannot be null");
+      }
+      Collections.sort(module.getEntries());
+      int index = insertionIndex(module);
+      modules.add(index, module);
+
+      Object[] listeners = listenerList.getListenerList();
+      for (int i = listeners.length - 2; i >= 0; i -= 2)
+      {
+         if (listeners[i] == BJADModuleRegistryListener.class)
+         {
+            ((BJADModuleRegistryListener) listeners[i + 1]).moduleAdded(this, module, index);
+         }
+      }
+      return index;
+   }
+
+   /**
+    * Removes the module from the registry.
+    *
+    * @param module
+    *    The module to remove.
+    * @return
+    *    True if the module was registered and removed.
+    */
+   public boolean removeModule(BJADNavModule module)
+   {
+      int index = indexOf(module);
+      if (index == -1)
+      {
+         return false;
+      }
+      modules.remove(index);
+
+      Object[] listeners = listenerList.getListenerList();
+      for (int i = listeners.length - 2; i >= 0; i -= 2)
+      {
+         if (listeners[i] == BJADModuleRegistryListener.class)
+         {
+            ((BJADModuleRegistryListener) listeners[i + 1]).moduleRemoved(this, module, index);
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Updates the module after its ordinal, display name, icon or
+    * entries are changed, sorting its entries and moving it to
+    * its new sorted position.
+    *
+    * @param module
+    *    The module changed, which must be registered.
+    */
+   public void updateModule(BJADNavModule module)
+   {
+      int fromIndex = indexOf(module);
+      if (fromIndex == -1)
+      {
+         throw new IllegalArgumentException("Module " + module.getDisplayName() + " is not registered");
+      }
+      Collections.sort(module.getEntries());
+      modules.remove(fromIndex);
+      int toIndex = insertionIndex(module);
+      modules.add(toIndex, module);
+
+      Object[] listeners = listenerList.getListenerList();
+      for (int i = listeners.length - 2; i >= 0; i -= 2)
+      {
+         if (listeners[i] == BJADModuleRegistryListener.class)
+         {
+            BJADModuleRegistryListener listener = (BJADModuleRegistryListener) listeners[i + 1];
+            if (fromIndex != toIndex)
+            {
+               listener.moduleMoved(this, module, fromIndex, toIndex);
+            }
+            listener.moduleUpdated(this, module, toIndex);
+         }
+      }
+   }
+
+   /**
+    * Adds the listener to the registry to be told of the
+    * changes to its modules.
+    *
+    * @param listener
+    *    The listener to add.
+    */
+   public void addModuleRegistryListener(BJADModuleRegistryListener listener)
+   {
+      listenerList.add(BJADModuleRegistryListener.class, listener);
+   }
+
+   /**
+    * Removes the listener from the registry so it will no longer
+    * be told of changes.
+    *
+    * @param listener
+    *    The listener to remove.
+    */
+   public void removeModuleRegistryListener(BJADModuleRegistryListener listener)
+   {
+      listenerList.remove(BJADModuleRegistryListener.class, listener);
+   }
+
+   /**
+    * Returns the index to insert the module at, after the modules
+    * comparing less than or the same as it.
+    *
+    * @param module
+    *    The module to insert.
+    * @return
+    *    The index to insert at.
+    */
+   private int insertionIndex(BJADNavModule module)
+   {
+      int low = 0;
+      int high = modules.size();
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (modules.get(mid).compareTo(module) <= 0)
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * Returns the index of the module, searching the modules
+    * comparing the same as it, or all the modules if its ordinal
+    * or name has changed since it was sorted.
+    *
+    * @param module
+    *    The module to find.
+    * @return
+    *    The index of the module, or -1 if it is not registered.
+    */
+   private int indexOf(BJADNavModule module)
+   {
+      if (module == null)
+      {
+         return -1;
+      }
+      for (int index = insertionIndex(module) - 1; index >= 0 && modules.get(index).compareTo(module) == 0; --index)
+      {
+         if (modules.get(index) == module)
+         {
+            return index;
+         }
+      }
+      for (int index = 0; index != modules.size(); ++index)
+      {
+         if (modules.get(index) == module)
+         {
+            return index;
+         }
+      }
+      return -1;
+   }
+}
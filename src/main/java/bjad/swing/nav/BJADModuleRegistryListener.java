@@ -0,0 +1,68 @@
+package bjad.swing.nav;
+
+import java.util.EventListener;
+
+/**
+ * Listener interface which will be triggered when the modules
+ * of a BJADModuleRegistry are added, removed, moved or updated,
+ * always on the thread changing the registry.
+ *
+ * @author 
+ *  Ben Dougall
+ */
+public interface BJADModuleRegistryListener extends EventListener
+{
+   /**
+    * The method that will be fired when a module is added to 
+    * the registry.
+    * 
+    * @param registry
+    *    The registry the module was added to.
+    * @param module
+    *    The module added.
+    * @param index
+    *    The index of the module within the sorted modules.
+    */
+   public void moduleAdded(BJADModuleRegistry registry, BJADNavModule module, int index);
+   
+   /**
+    * The method that will be fired when a module is removed from
+    * the registry.
+    * 
+    * @param registry
+    *    The registry the module was removed from.
+    * @param module
+    *    The module removed.
+    * @param index
+    *    The index the module had within the sorted modules.
+    */
+   public void moduleRemoved(BJADModuleRegistry registry, BJADNavModule module, int index);
+   
+   /**
+    * The method that will be fired when a module moves within the
+    * sorted modules as its ordinal or display name changed.
+    * 
+    * @param registry
+    *    The registry holding the module.
+    * @param module
+    *    The module moved.
+    * @param fromIndex
+    *    The index the module had.
+    * @param toIndex
+    *    The index the module has now.
+    */
+   public void moduleMoved(BJADModuleRegistry registry, BJADNavModule module, int fromIndex, int toIndex);
+   
+   /**
+    * The method that will be fired when a module is updated, such
+    * as its display name, icon or entries being changed.
+    * 
+    * @param registry
+    *    The registry holding the module.
+    * @param module
+    *    The module updated.
+    * @param index
+    *    The index of the module within the sorted modules.
+    */
+   public void moduleUpdated(BJADModuleRegistry registry, BJADNavModule module, int index);
+}
@@ -1,17 +1,43 @@
 package bjad.swing.nav;
 
 import java.awt.BorderLayout;
+import java.awt.CardLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.font.TextAttribute;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import javax.swing.AbstractAction;
 import javax.swing.BoxLayout;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.Icon;
+import javax.swing.JComponent;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.KeyStroke;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 
@@ -21,6 +47,39 @@ import bjad.swing.LinkButton;
  * The main content pane to use if using the BJAD 
  * Nav Framework to have a sidebar of the modules
  * and their entries for the user to select from.
+ * <p>
+ * Each entry's panel is shown as a card, wrapped with the 
+ * header showing the panel's title, built the first time the
+ * entry is selected or is likely to be selected next, such as
+ * when the mouse hovers its link, and kept for selecting the 
+ * entry again. Panels can prepare their data in the background
+ * before they are shown, see 
+ * AbstractBJADNavPanel.preparePanelDisplay.
+ * </p>
+ * <p>
+ * Panels of entries with a supplier are constructed when first 
+ * needed, and only the panels used most recently are kept, up to
+ * the panel cache size. When memory runs low, every constructed
+ * panel but the one showing is dropped. Dropped panels are told
+ * through AbstractBJADNavPanel.onPanelReleased.
+ * </p>
+ * <p>
+ * Pressing the quick open key stroke, Ctrl+K by default, anywhere
+ * in the window opens a palette to search the entries of all the
+ * modules by name and show the one chosen.
+ * </p>
+ * <p>
+ * The modules can be given as a BJADModuleRegistry, which modules 
+ * can be added to, removed from or updated in while the pane is 
+ * shown. Only the part of the sidebar for the module changed is
+ * rebuilt. 
+ * </p>
+ * <p>
+ * For large module catalogs the sidebar can be virtual, a list
+ * drawing each module and entry as a row with a single renderer
+ * rather than creating a link for each of them, so only the rows 
+ * scrolled into view are laid out and painted. 
+ * </p>
  *
  * @author 
  *   Ben Dougall
@@ -30,12 +89,81 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
    private static final long serialVersionUID = -7096129837581113056L;
 
    protected List<BJADNavModule> modules; 
+   protected BJADModuleRegistry moduleRegistry;
    protected BJADModuleEntry moduleEntryInFocus = null;
    protected JPanel panelShowing = null;
    protected JPanel currentModulePanelShowing = null;
    
    protected SidebarSectionBehaviour sidebarBehaviour = SidebarSectionBehaviour.ONE_SECTION_AT_A_TIME;
    
+   /**
+    * Flag to build the panel of the entry likely to be selected
+    * next while the application is idle. 
+    */
+   protected boolean prewarmPanels = true;
+   
+   /**
+    * Flag to show the sidebar as a list of rows drawn by a 
+    * renderer instead of a link for each module and entry.
+    */
+   protected boolean virtualSidebar = false;
+   
+   /**
+    * The number of panels constructed by entry suppliers to keep,
+    * dropping the panel used least recently past it.
+    */
+   protected int panelCacheSize = 8;
+   
+   /**
+    * The key stroke opening the quick open palette, or null for 
+    * none.
+    */
+   protected KeyStroke quickOpenKeyStroke = KeyStroke.getKeyStroke(KeyEvent.VK_K, InputEvent.CTRL_DOWN_MASK);
+   
+   private static final String DEFAULT_CARD = "default";
+   private static final String LOADING_CARD = "loading";
+   private static final String QUICK_OPEN_ACTION = "bjadQuickOpen";
+   /** Milliseconds the application has to be idle before a panel is prewarmed. */
+   private static final int PREWARM_DELAY = 250;
+   
+   private final CardLayout contentCards = new CardLayout();
+   private final JPanel contentArea = new JPanel(contentCards, true);
+   private final JPanel loadingPanel = createLoadingPanel();
+   private final Map<BJADModuleEntry, EntryChrome> entryChrome = new HashMap<>();
+   private int cardCount = 0;
+   /** The cards of the entries with suppliers, in the order they were last used. */
+   private final LinkedHashMap<BJADModuleEntry, EntryChrome> suppliedPanels = new LinkedHashMap<>(16, 0.75f, true);
+   /** Cleared by the garbage collector when memory runs low. */
+   private SoftReference<Object> memoryPressure = new SoftReference<>(new Object());
+   /** The card of the entry in focus. */
+   private EntryChrome chromeInFocus = null;
+   
+   private NavSearchIndex searchIndex = null;
+   private NavQuickOpenPalette quickOpenPalette = null;
+   
+   /** 
+    * True once the panel of the entry in focus is shown, false
+    * while its data is being prepared.
+    */
+   private boolean entryInFocusShown = false;
+   /** Count of the entries selected, to ignore preparations finishing after another is selected. */
+   private int activationCount = 0;
+   
+   private BJADModuleEntry prewarmEntry = null;
+   private final Timer prewarmTimer = new Timer(PREWARM_DELAY, e -> prewarm());
+   private final PrewarmOnHover prewarmOnHover = new PrewarmOnHover();
+   
+   private JPanel moduleListingPanel = null;
+   private SidebarListModel sidebarRows = null;
+   private JList<Object> sidebarList = null;
+   /** The row of the virtual sidebar under the mouse, or -1. */
+   private int hoverRow = -1;
+   /** 
+    * The module expanded in the virtual sidebar when one section is
+    * shown at a time, or -1 for none.
+    */
+   private int expandedModule = -1;
+   
    /**
     * Constructor, setting the list of modules that will
     * be displayed within the sidebar of the overall content pane.
@@ -46,22 +174,225 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
     *    Defines how the module display will be handed.
     */
    public BJADSidebarNavContentPane(List<BJADNavModule> modules, SidebarSectionBehaviour behaviour)
+   {
+      this(modules, behaviour, false);
+   }
+   
+   /**
+    * Constructor, setting the list of modules that will
+    * be displayed within the sidebar of the overall content pane,
+    * and whether the sidebar is virtual.
+    * 
+    * @param modules
+    *    The modules to display in the sidebar of the content pane.
+    * @param behaviour
+    *    Defines how the module display will be handed.
+    * @param virtualSidebar
+    *    True to draw the modules and entries as rows of a list,
+    *    for sidebars with a large number of entries. 
+    */
+   public BJADSidebarNavContentPane(List<BJADNavModule> modules, SidebarSectionBehaviour behaviour, boolean virtualSidebar)
+   {
+      this(modules == null ? null : new BJADModuleRegistry(modules), behaviour, virtualSidebar);
+   }
+   
+   /**
+    * Constructor, setting the registry of the modules that will
+    * be displayed within the sidebar of the overall content pane,
+    * updating the sidebar as modules are added to, removed from or
+    * updated in the registry.
+    * 
+    * @param moduleRegistry
+    *    The registry of the modules to display in the sidebar of 
+    *    the content pane.
+    * @param behaviour
+    *    Defines how the module display will be handed.
+    * @param virtualSidebar
+    *    True to draw the modules and entries as rows of a list,
+    *    for sidebars with a large number of entries. 
+    */
+   public BJADSidebarNavContentPane(BJADModuleRegistry moduleRegistry, SidebarSectionBehaviour behaviour, boolean virtualSidebar)
    {
       super(new BorderLayout(), true);
-      if (modules == null)
+      if (moduleRegistry == null)
       {
          throw new IllegalArgumentException("Modules passed to " + this.getClass().getSimpleName() + " cannot be null");
       }
-      // Set the module list for the sidebar to the sorted list of modules passed.
-      this.modules = BJADNavModule.sortModules(modules);
+      // Set the module list for the sidebar to the sorted modules of the registry.
+      this.moduleRegistry = moduleRegistry;
+      this.modules = moduleRegistry.getModules();
       
       if (behaviour != null)
       {
          this.sidebarBehaviour = behaviour;
       }
+      this.virtualSidebar = virtualSidebar;
+      
+      prewarmTimer.setRepeats(false);
+      
+      contentArea.add(createDefaultMainPanel(), DEFAULT_CARD);
+      contentArea.add(loadingPanel, LOADING_CARD);
+      contentCards.show(contentArea, DEFAULT_CARD);
       
       this.add(createSidebar(), BorderLayout.WEST);
-      this.add(createDefaultMainPanel(), BorderLayout.CENTER);
+      this.add(contentArea, BorderLayout.CENTER);
+      
+      moduleRegistry.addModuleRegistryListener(new RegistryHandler());
+      
+      getActionMap().put(QUICK_OPEN_ACTION, new QuickOpenAction());
+      if (quickOpenKeyStroke != null)
+      {
+         getInputMap(WHEN_IN_FOCUSED_WINDOW).put(quickOpenKeyStroke, QUICK_OPEN_ACTION);
+      }
+   }
+   
+   /**
+    * Returns the value of the BJADSidebarNavContentPane instance's 
+    * prewarmPanels property.
+    *
+    * @return 
+    *   The value of prewarmPanels
+    */
+   public boolean isPrewarmPanels()
+   {
+      return this.prewarmPanels;
+   }
+
+   /**
+    * Sets the value of the BJADSidebarNavContentPane instance's 
+    * prewarmPanels property.
+    *
+    * @param prewarmPanels 
+    *   The value to set within the instance's 
+    *   prewarmPanels property
+    */
+   public void setPrewarmPanels(boolean prewarmPanels)
+   {
+      this.prewarmPanels = prewarmPanels;
+   }
+   
+   /**
+    * Returns the value of the BJADSidebarNavContentPane instance's 
+    * virtualSidebar property.
+    *
+    * @return 
+    *   The value of virtualSidebar
+    */
+   public boolean isVirtualSidebar()
+   {
+      return this.virtualSidebar;
+   }
+   
+   /**
+    * Returns the value of the BJADSidebarNavContentPane instance's 
+    * moduleRegistry property.
+    *
+    * @return 
+    *   The value of moduleRegistry
+    */
+   public BJADModuleRegistry getModuleRegistry()
+   {
+      return this.moduleRegistry;
+   }
+   
+   /**
+    * Returns the value of the BJADSidebarNavContentPane instance's 
+    * panelCacheSize property.
+    *
+    * @return 
+    *   The value of panelCacheSize
+    */
+   public int getPanelCacheSize()
+   {
+      return this.panelCacheSize;
+   }
+
+   /**
+    * Sets the value of the BJADSidebarNavContentPane instance's 
+    * panelCacheSize property, dropping the panels used least 
+    * recently past it.
+    *
+    * @param panelCacheSize 
+    *   The value to set within the instance's 
+    *   panelCacheSize property, at least 1.
+    */
+   public void setPanelCacheSize(int panelCacheSize)
+   {
+      if (panelCacheSize < 1)
+      {
+         throw new IllegalArgumentException("Panel cache size cannot be less than 1");
+      }
+      this.panelCacheSize = panelCacheSize;
+      trimPanelCache(null);
+   }
+   
+   /**
+    * Returns the value of the BJADSidebarNavContentPane instance's 
+    * quickOpenKeyStroke property.
+    *
+    * @return 
+    *   The value of quickOpenKeyStroke
+    */
+   public KeyStroke getQuickOpenKeyStroke()
+   {
+      return this.quickOpenKeyStroke;
+   }
+
+   /**
+    * Sets the value of the BJADSidebarNavContentPane instance's 
+    * quickOpenKeyStroke property.
+    *
+    * @param quickOpenKeyStroke 
+    *   The value to set within the instance's 
+    *   quickOpenKeyStroke property, null to open the palette
+    *   only through showQuickOpen.
+    */
+   public void setQuickOpenKeyStroke(KeyStroke quickOpenKeyStroke)
+   {
+      if (this.quickOpenKeyStroke != null)
+      {
+         getInputMap(WHEN_IN_FOCUSED_WINDOW).remove(this.quickOpenKeyStroke);
+      }
+      this.quickOpenKeyStroke = quickOpenKeyStroke;
+      if (quickOpenKeyStroke != null)
+      {
+         getInputMap(WHEN_IN_FOCUSED_WINDOW).put(quickOpenKeyStroke, QUICK_OPEN_ACTION);
+      }
+   }
+   
+   /**
+    * Opens the quick open palette over the window holding the 
+    * content pane, indexing the entries of the modules the first
+    * time it is opened.
+    */
+   public void showQuickOpen()
+   {
+      Window window = SwingUtilities.getWindowAncestor(this);
+      if (window == null || !window.isShowing())
+      {
+         return;
+      }
+      if (quickOpenPalette == null || quickOpenPalette.getOwner() != window)
+      {
+         quickOpenPalette = new NavQuickOpenPalette(window, getSearchIndex(), this::switchContentDisplay);
+      }
+      quickOpenPalette.open();
+   }
+   
+   /**
+    * Returns the index of the entries for the quick open palette,
+    * building it from the sorted modules the first time.
+    * 
+    * @return
+    *    The search index.
+    */
+   NavSearchIndex getSearchIndex()
+   {
+      if (searchIndex == null)
+      {
+         searchIndex = new NavSearchIndex(this.modules);
+      }
+      return searchIndex;
    }
    
    /**
@@ -80,41 +411,20 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
       // sidebar panel.
       addInNavigationTitle(sidebarPanel);
       
+      if (virtualSidebar)
+      {
+         sidebarPanel.add(createVirtualModuleListing(), BorderLayout.CENTER);
+         sidebarPanel.setPreferredSize(new Dimension(150, 800));
+         sidebarPanel.setBorder(new LineBorder(Color.darkGray));
+         return sidebarPanel;
+      }
+      
       // Add in each of the modules to the sidebar
-      JPanel moduleListingPanel = new JPanel(true);
+      moduleListingPanel = new JPanel(true);
       moduleListingPanel.setLayout(new BoxLayout(moduleListingPanel, BoxLayout.Y_AXIS));
-      int moduleIndex = 0;
-      for (BJADNavModule module : this.modules)
+      for (int moduleIndex = 0; moduleIndex != this.modules.size(); ++moduleIndex)
       {         
-         // Create the panel with all the module options in it. 
-         // If this is the first module, keep it's options visible
-         // to the user, other hide it. 
-         final JPanel moduleOptions = createModuleOptionsPanel(module);
-         if (moduleIndex == 0)
-         {
-            currentModulePanelShowing = moduleOptions;
-         }
-         else if (sidebarBehaviour == SidebarSectionBehaviour.ONE_SECTION_AT_A_TIME)
-         {
-            moduleOptions.setVisible(false);
-         }
-         moduleIndex++;         
-
-         // Add in the module's parent link button so the user 
-         // can make the module options visible for each module
-         // one at a time.
-         LinkButtonWithNavModule moduleTitle = new LinkButtonWithNavModule(module, moduleOptions);
-         moduleTitle.setFocusable(false);
-         moduleListingPanel.add(moduleTitle);
-         moduleTitle.setSuppressUnderlineOnHover(sidebarBehaviour == SidebarSectionBehaviour.ALL_SECTIONS_ALWAYS_EXPANDED);
-         
-         // Add a listener to the module title text so it
-         // will display it's modules options and hide the 
-         // previously selected options.
-         moduleTitle.addActionListener(this);
-         
-         // Add to the sidebar as a whole. 
-         moduleListingPanel.add(moduleOptions);
+         insertModuleSlot(this.modules.get(moduleIndex), moduleIndex);
       }
       
       // Add the completed module area to the sidebar.
@@ -128,6 +438,89 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
       return sidebarPanel;
    }
    
+   /**
+    * Creates the virtual listing of the modules and their entries,
+    * with the first module or all of them expanded based on the 
+    * sidebar behaviour.
+    * 
+    * @return
+    *    The scroll pane holding the list of rows.
+    */
+   private JScrollPane createVirtualModuleListing()
+   {
+      boolean oneAtATime = sidebarBehaviour == SidebarSectionBehaviour.ONE_SECTION_AT_A_TIME;
+      sidebarRows = new SidebarListModel(this.modules, !oneAtATime);
+      if (oneAtATime && sidebarRows.getModuleCount() != 0)
+      {
+         sidebarRows.setExpanded(0, true);
+         expandedModule = 0;
+      }
+      
+      SidebarRowRenderer renderer = new SidebarRowRenderer();
+      sidebarList = new JList<>(sidebarRows);
+      sidebarList.setCellRenderer(renderer);
+      sidebarList.setFocusable(false);
+      sidebarList.setBackground(this.getBackground());
+      
+      // Fix the size of the rows so the list never measures 
+      // each row to lay itself out. 
+      sidebarList.setFixedCellHeight(renderer.rowHeight(sidebarList, this.modules));
+      sidebarList.setFixedCellWidth(120);
+      
+      VirtualSidebarHandler handler = new VirtualSidebarHandler();
+      sidebarList.addMouseListener(handler);
+      sidebarList.addMouseMotionListener(handler);
+      
+      JScrollPane scrollPane = new JScrollPane(sidebarList);
+      scrollPane.setBorder(null);
+      return scrollPane;
+   }
+   
+   /**
+    * Expands or collapses the module of the virtual sidebar whose
+    * header was clicked, based on the sidebar behaviour.
+    * 
+    * @param module
+    *    The index of the module clicked.
+    */
+   private void toggleVirtualModule(int module)
+   {
+      if (sidebarBehaviour == SidebarSectionBehaviour.ONE_SECTION_AT_A_TIME)
+      {
+         if (module != expandedModule)
+         {
+            if (expandedModule != -1)
+            {
+               sidebarRows.setExpanded(expandedModule, false);
+            }
+            sidebarRows.setExpanded(module, true);
+            expandedModule = module;
+         }
+      }
+      else if (sidebarBehaviour == SidebarSectionBehaviour.ALL_SHOWN_AND_USER_CAN_COLLAPSE)
+      {
+         sidebarRows.setExpanded(module, !sidebarRows.isExpanded(module));
+      }
+   }
+   
+   /**
+    * Repaints the row of the virtual sidebar, if there is one.
+    * 
+    * @param row
+    *    The row to repaint, or -1.
+    */
+   private void repaintSidebarRow(int row)
+   {
+      if (row != -1 && row < sidebarRows.getSize())
+      {
+         Rectangle bounds = sidebarList.getCellBounds(row, row);
+         if (bounds != null)
+         {
+            sidebarList.repaint(bounds);
+         }
+      }
+   }
+   
    private void addInNavigationTitle(JPanel sidebarPanel)
    {
       JPanel navigationPanel = new JPanel(true);
@@ -144,23 +537,143 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
       sidebarPanel.add(navigationPanel, BorderLayout.NORTH);
    }
    
-   private JPanel createModuleOptionsPanel(BJADNavModule module)
+   /**
+    * Adds the link of the module and the panel of its options to
+    * the sidebar, the two components of the module's slot.
+    * 
+    * @param module
+    *    The module.
+    * @param moduleIndex
+    *    The index of the module within the sorted modules.
+    */
+   private void insertModuleSlot(BJADNavModule module, int moduleIndex)
+   {
+      // Create the panel for the module options. If no module's 
+      // options are visible to the user yet, such as for the first
+      // module, keep it's options visible, other hide it. Hidden 
+      // options are only added once the module is first expanded.
+      final JPanel moduleOptions = createModuleOptionsPanel();
+      LinkButtonWithNavModule moduleTitle = new LinkButtonWithNavModule(module, moduleOptions);
+      if (currentModulePanelShowing == null)
+      {
+         currentModulePanelShowing = moduleOptions;
+         ensureModuleOptions(moduleTitle);
+      }
+      else if (sidebarBehaviour == SidebarSectionBehaviour.ONE_SECTION_AT_A_TIME)
+      {
+         moduleOptions.setVisible(false);
+      }
+      else
+      {
+         ensureModuleOptions(moduleTitle);
+      }
+
+      // Add in the module's parent link button so the user 
+      // can make the module options visible for each module
+      // one at a time.
+      moduleTitle.setFocusable(false);
+      moduleListingPanel.add(moduleTitle, moduleIndex * 2);
+      moduleTitle.setSuppressUnderlineOnHover(sidebarBehaviour == SidebarSectionBehaviour.ALL_SECTIONS_ALWAYS_EXPANDED);
+      
+      // Add a listener to the module title text so it
+      // will display it's modules options and hide the 
+      // previously selected options.
+      moduleTitle.addActionListener(this);
+      
+      // Add to the sidebar as a whole. 
+      moduleListingPanel.add(moduleOptions, moduleIndex * 2 + 1);
+   }
+   
+   /**
+    * Removes the link of the module and the panel of its options
+    * from the sidebar.
+    * 
+    * @param moduleIndex
+    *    The index the module had within the sorted modules.
+    * @return
+    *    The link of the module removed.
+    */
+   private LinkButtonWithNavModule removeModuleSlot(int moduleIndex)
+   {
+      LinkButtonWithNavModule moduleTitle = (LinkButtonWithNavModule)moduleListingPanel.getComponent(moduleIndex * 2);
+      moduleListingPanel.remove(moduleIndex * 2 + 1);
+      moduleListingPanel.remove(moduleIndex * 2);
+      return moduleTitle;
+   }
+   
+   /**
+    * Lays out the module listing of the sidebar again after its
+    * slots changed, leaving the content area alone.
+    */
+   private void relayoutModuleListing()
+   {
+      JComponent listing = virtualSidebar ? sidebarList : moduleListingPanel;
+      listing.revalidate();
+      listing.repaint();
+   }
+   
+   /**
+    * Drops the cards of the entries of a module removed from the
+    * sidebar, other than the entry in focus, whose panel stays 
+    * shown until another entry is selected.
+    * 
+    * @param module
+    *    The module removed.
+    */
+   private void dropModuleCards(BJADNavModule module)
+   {
+      for (BJADModuleEntry entry : module.getEntries())
+      {
+         if (entry == prewarmEntry)
+         {
+            prewarmEntry = null;
+         }
+         EntryChrome chrome = entryChrome.get(entry);
+         if (chrome != null && entry != moduleEntryInFocus)
+         {
+            suppliedPanels.remove(entry);
+            dropEntryCard(entry, chrome);
+         }
+      }
+   }
+   
+   private JPanel createModuleOptionsPanel()
    {
       JPanel moduleOptions = new JPanel(true);
       moduleOptions.setLayout(new BoxLayout(moduleOptions, BoxLayout.Y_AXIS));
       moduleOptions.setBorder(new EmptyBorder(0, 8, 0, 0));
-      for (BJADModuleEntry entry : module.getEntries())
+      return moduleOptions;
+   }
+   
+   /**
+    * Adds the links for the entries of the module to its options
+    * panel, if they have not been added yet.
+    * 
+    * @param moduleTitle
+    *    The link of the module, holding the module and its 
+    *    options panel.
+    */
+   private void ensureModuleOptions(LinkButtonWithNavModule moduleTitle)
+   {
+      if (moduleTitle.entryOptionsBuilt)
+      {
+         return;
+      }
+      moduleTitle.entryOptionsBuilt = true;
+      JPanel moduleOptions = moduleTitle.getEntryOptionsPanel();
+      for (BJADModuleEntry entry : moduleTitle.getNavModule().getEntries())
       {
          LinkButtonWithModuleEntry entryLink = new LinkButtonWithModuleEntry(entry); 
          
-         if (entry.getNavPanel() != null)
+         if (entry.hasNavPanel())
          {
             entryLink.addActionListener(this);
+            entryLink.addMouseListener(prewarmOnHover);
          }
          
          moduleOptions.add(entryLink);
       }
-      return moduleOptions;
+      moduleOptions.revalidate();
    }
    
    private JPanel createDefaultMainPanel()
@@ -182,6 +695,7 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
    {
       if (e.getSource() instanceof LinkButtonWithNavModule)
       {
+         ensureModuleOptions((LinkButtonWithNavModule)e.getSource());
          if (sidebarBehaviour == SidebarSectionBehaviour.ONE_SECTION_AT_A_TIME)
          {
             if (currentModulePanelShowing != null)
@@ -206,11 +720,11 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
    
    private void switchContentDisplay(BJADModuleEntry entry)
    {
-      if (moduleEntryInFocus != null)
+      if (moduleEntryInFocus != null && entryInFocusShown)
       {
-         if (moduleEntryInFocus.getNavPanel().canPanelClose())
+         if (chromeInFocus.navPanel.canPanelClose())
          {
-            moduleEntryInFocus.getNavPanel().onPanelClosed();
+            chromeInFocus.navPanel.onPanelClosed();
          }
          else
          {
@@ -218,48 +732,609 @@ public class BJADSidebarNavContentPane extends JPanel implements ActionListener
          }
       }
       
-      // Hide the current display and then remove from the panel.
-      this.panelShowing.setVisible(false);
-      this.remove(panelShowing);
+      EntryChrome chrome = getEntryChrome(entry);
+      moduleEntryInFocus = entry;
+      chromeInFocus = chrome;
+      entryInFocusShown = false;
+      int activation = ++activationCount;
+      trimPanelCache(entry);
       
-      JPanel contentPanel = new JPanel(new BorderLayout(), true);
+      // Show the loading message while the panel prepares its 
+      // data, unless it has nothing to prepare.
+      CompletableFuture<?> preparation = chrome.navPanel.preparePanelDisplay();
+      if (preparation == null || preparation.isDone())
+      {
+         showEntry(entry, chrome);
+      }
+      else
+      {
+         panelShowing = loadingPanel;
+         contentCards.show(contentArea, LOADING_CARD);
+         preparation.whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> 
+         {
+            if (activation == activationCount)
+            {
+               showEntry(entry, chrome);
+            }
+         }));
+      }
+      schedulePrewarm(nextEntry(entry));
+   }
+   
+   /**
+    * Shows the card of the entry's panel and notifies the panel
+    * it is displayed.
+    * 
+    * @param entry
+    *    The entry to show.
+    * @param chrome
+    *    The card of the entry.
+    */
+   private void showEntry(BJADModuleEntry entry, EntryChrome chrome)
+   {
+      AbstractBJADNavPanel navPane = chrome.navPanel;
+      chrome.titleLabel.setText(navPane.getPanelTitle());
+      panelShowing = chrome.contentPanel;
+      contentCards.show(contentArea, chrome.cardName);
+      entryInFocusShown = true;
       
-      JPanel navigationPanel = new JPanel(true);
-      navigationPanel.setBackground(Color.darkGray);  
+      navPane.onPanelDisplay();
       
-      JLabel navigationLabel = new JLabel(entry.getNavPanel().getPanelTitle());
-      navigationLabel.setFont(navigationLabel.getFont().deriveFont(16.0f));
-      navigationLabel.setForeground(Color.white);
-      navigationLabel.setHorizontalAlignment(SwingConstants.LEFT);
-      navigationPanel.add(navigationLabel);                  
-      navigationPanel.setPreferredSize(new Dimension(1000, 30));
+      if (navPane.getComponentForDefaultFocus() != null)
+      {
+         navPane.getComponentForDefaultFocus().requestFocusInWindow();
+      }
+   }
+   
+   /**
+    * Returns the card showing the entry's panel with its header,
+    * building it and adding it to the content area the first 
+    * time, or the first time since its panel was dropped.
+    * 
+    * @param entry
+    *    The entry.
+    * @return
+    *    The card of the entry.
+    */
+   private EntryChrome getEntryChrome(BJADModuleEntry entry)
+   {
+      EntryChrome chrome = entryChrome.get(entry);
+      if (chrome == null)
+      {
+         AbstractBJADNavPanel navPane = entry.getNavPanel();
+         boolean supplied = navPane == null;
+         if (supplied)
+         {
+            navPane = entry.getNavPanelSupplier().get();
+            if (navPane == null)
+            {
+               throw new IllegalStateException("Nav panel supplier of entry " + entry.getDisplayName() + " returned null");
+            }
+         }
+         chrome = new EntryChrome("entry" + (++cardCount), navPane);
+         
+         // Add some padding to the panel being shown.
+         navPane.setBorder(new EmptyBorder(3, 3, 3, 3));
+         chrome.contentPanel.add(navPane, BorderLayout.CENTER);
+         
+         contentArea.add(chrome.contentPanel, chrome.cardName);
+         entryChrome.put(entry, chrome);
+         if (supplied)
+         {
+            suppliedPanels.put(entry, chrome);
+         }
+      }
+      else
+      {
+         // Mark the supplied panel as used most recently.
+         suppliedPanels.get(entry);
+      }
+      return chrome;
+   }
+   
+   /**
+    * Drops the panels constructed by entry suppliers used least
+    * recently past the panel cache size, or all of them if memory
+    * is running low, except for the panel of the entry in focus
+    * and the entry passed.
+    * 
+    * @param keep
+    *    The entry whose panel to keep, or null.
+    */
+   private void trimPanelCache(BJADModuleEntry keep)
+   {
+      int limit = panelCacheSize;
+      if (memoryPressure.get() == null)
+      {
+         limit = 0;
+         memoryPressure = new SoftReference<>(new Object());
+      }
       
-      AbstractBJADNavPanel navPane = entry.getNavPanel();
+      Iterator<Map.Entry<BJADModuleEntry, EntryChrome>> cached = suppliedPanels.entrySet().iterator();
+      while (suppliedPanels.size() > limit && cached.hasNext())
+      {
+         Map.Entry<BJADModuleEntry, EntryChrome> oldest = cached.next();
+         if (oldest.getKey() != keep && oldest.getKey() != moduleEntryInFocus)
+         {
+            cached.remove();
+            dropEntryCard(oldest.getKey(), oldest.getValue());
+         }
+      }
+   }
+   
+   /**
+    * Removes the card of the entry from the content area, telling
+    * its panel it is released if it was constructed by the entry's
+    * supplier.
+    * 
+    * @param entry
+    *    The entry.
+    * @param chrome
+    *    The card of the entry.
+    */
+   private void dropEntryCard(BJADModuleEntry entry, EntryChrome chrome)
+   {
+      entryChrome.remove(entry);
+      contentArea.remove(chrome.contentPanel);
+      if (chrome.navPanel != entry.getNavPanel())
+      {
+         chrome.navPanel.onPanelReleased();
+      }
+   }
+   
+   /**
+    * Returns the entry after the entry within its module, the 
+    * most likely entry to be selected next.
+    * 
+    * @param entry
+    *    The entry selected.
+    * @return
+    *    The next entry with a panel, or null if there is none.
+    */
+   private BJADModuleEntry nextEntry(BJADModuleEntry entry)
+   {
+      for (BJADNavModule module : modules)
+      {
+         List<BJADModuleEntry> entries = module.getEntries();
+         int index = entries.indexOf(entry);
+         if (index != -1)
+         {
+            for (int next = index + 1; next < entries.size(); ++next)
+            {
+               if (entries.get(next).hasNavPanel())
+               {
+                  return entries.get(next);
+               }
+            }
+            return null;
+         }
+      }
+      return null;
+   }
+   
+   /**
+    * Schedules building the card of the entry once the 
+    * application has been idle for a moment, replacing any
+    * entry already scheduled.
+    * 
+    * @param entry
+    *    The entry to prewarm, or null for none.
+    */
+   private void schedulePrewarm(BJADModuleEntry entry)
+   {
+      if (prewarmPanels && entry != null && !entryChrome.containsKey(entry))
+      {
+         prewarmEntry = entry;
+         prewarmTimer.restart();
+      }
+   }
+   
+   /**
+    * Builds and lays out the card of the entry scheduled to be 
+    * prewarmed, so selecting it only has to show the card.
+    */
+   private void prewarm()
+   {
+      if (prewarmEntry != null && !entryChrome.containsKey(prewarmEntry))
+      {
+         getEntryChrome(prewarmEntry);
+         trimPanelCache(prewarmEntry);
+         contentArea.validate();
+      }
+      prewarmEntry = null;
+   }
+   
+   private JPanel createLoadingPanel()
+   {
+      JPanel loading = new JPanel(new BorderLayout(), true);
+      JLabel loadingLabel = new JLabel("Loading...");
+      loadingLabel.setHorizontalAlignment(SwingConstants.CENTER);
+      loading.add(loadingLabel, BorderLayout.CENTER);
+      loading.setBorder(new LineBorder(Color.darkGray));
+      return loading;
+   }
+   
+   /**
+    * The card showing an entry's panel, with the header showing
+    * the panel's title above it.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private static final class EntryChrome
+   {
+      final String cardName;
+      final AbstractBJADNavPanel navPanel;
+      final JPanel contentPanel = new JPanel(new BorderLayout(), true);
+      final JLabel titleLabel;
       
-      contentPanel.add(navigationPanel, BorderLayout.NORTH);
-      contentPanel.add(navPane, BorderLayout.CENTER);                  
-      contentPanel.setBorder(new LineBorder(Color.darkGray));
+      EntryChrome(String cardName, AbstractBJADNavPanel navPanel)
+      {
+         this.cardName = cardName;
+         this.navPanel = navPanel;
+         
+         JPanel navigationPanel = new JPanel(true);
+         navigationPanel.setBackground(Color.darkGray);  
+         
+         titleLabel = new JLabel(navPanel.getPanelTitle());
+         titleLabel.setFont(titleLabel.getFont().deriveFont(16.0f));
+         titleLabel.setForeground(Color.white);
+         titleLabel.setHorizontalAlignment(SwingConstants.LEFT);
+         navigationPanel.add(titleLabel);                  
+         navigationPanel.setPreferredSize(new Dimension(1000, 30));
+         
+         contentPanel.add(navigationPanel, BorderLayout.NORTH);
+         contentPanel.setBorder(new LineBorder(Color.darkGray));
+      }
+   }
+   
+   /**
+    * Renderer drawing the rows of the virtual sidebar like the 
+    * links of the sidebar, bold for the modules and indented for
+    * the entries, underlined while the mouse is over the row.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class SidebarRowRenderer extends DefaultListCellRenderer
+   {
+      private static final long serialVersionUID = -2851934162378024105L;
       
-      // Add some padding to the panel being shown.
-      navPane.setBorder(new EmptyBorder(3, 3, 3, 3));
+      private final EmptyBorder moduleBorder = new EmptyBorder(2, 1, 2, 0);
+      private final EmptyBorder entryBorder = new EmptyBorder(2, 9, 2, 0);
       
-      // Replace the main panel with the newly selected one.
-      panelShowing = contentPanel;
-      this.add(panelShowing, BorderLayout.CENTER);
-      panelShowing.setVisible(true);
+      private Font listFont = null;
+      private Font moduleFont;
+      private Font moduleHoverFont;
+      private Font entryFont;
+      private Font entryHoverFont;
       
-      navPane.onPanelDisplay();
+      @Override
+      public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus)
+      {
+         super.getListCellRendererComponent(list, null, index, false, false);
+         deriveFonts(list.getFont());
+         boolean hover = index == hoverRow;
+         if (value instanceof BJADNavModule)
+         {
+            BJADNavModule module = (BJADNavModule)value;
+            setText(module.getDisplayName());
+            setIcon(module.getIcon());
+            setBorder(moduleBorder);
+            boolean underline = hover && sidebarBehaviour != SidebarSectionBehaviour.ALL_SECTIONS_ALWAYS_EXPANDED;
+            setFont(underline ? moduleHoverFont : moduleFont);
+         }
+         else
+         {
+            BJADModuleEntry entry = (BJADModuleEntry)value;
+            setText(entry.getDisplayName());
+            setIcon(entry.getIcon());
+            setBorder(entryBorder);
+            setFont(hover ? entryHoverFont : entryFont);
+         }
+         return this;
+      }
       
-      // With components removed and added, invalidate the 
-      // parent panel so its forced to re-draw everything.
-      this.invalidate();
-      this.repaint();
+      /**
+       * Returns the height of the tallest row, measured once with 
+       * the tallest icon of the modules and entries.
+       * 
+       * @param list
+       *    The list the rows are drawn in.
+       * @param modules
+       *    The modules listed.
+       * @return
+       *    The height of each row.
+       */
+      int rowHeight(JList<?> list, List<BJADNavModule> modules)
+      {
+         int iconHeight = 0;
+         for (BJADNavModule module : modules)
+         {
+            iconHeight = Math.max(iconHeight, iconHeight(module.getIcon()));
+            for (BJADModuleEntry entry : module.getEntries())
+            {
+               iconHeight = Math.max(iconHeight, iconHeight(entry.getIcon()));
+            }
+         }
+         deriveFonts(list.getFont());
+         super.getListCellRendererComponent(list, null, -1, false, false);
+         setText("Xg");
+         setIcon(null);
+         setBorder(moduleBorder);
+         setFont(moduleFont);
+         int textHeight = getPreferredSize().height;
+         return Math.max(textHeight, iconHeight + moduleBorder.getBorderInsets().top + moduleBorder.getBorderInsets().bottom);
+      }
       
-      if (navPane.getComponentForDefaultFocus() != null)
+      private int iconHeight(Icon icon)
       {
-         navPane.getComponentForDefaultFocus().requestFocusInWindow();
+         return icon == null ? 0 : icon.getIconHeight();
+      }
+      
+      /**
+       * Derives the fonts of the rows from the font of the list,
+       * only when the font of the list changes.
+       * 
+       * @param font
+       *    The font of the list.
+       */
+      private void deriveFonts(Font font)
+      {
+         if (font != listFont)
+         {
+            listFont = font;
+            moduleFont = font.deriveFont(Font.BOLD);
+            moduleHoverFont = moduleFont.deriveFont(Collections.singletonMap(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_ON));
+            entryFont = font.deriveFont(Font.PLAIN);
+            entryHoverFont = entryFont.deriveFont(Collections.singletonMap(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_ON));
+         }
+      }
+   }
+   
+   /**
+    * Mouse listener for the virtual sidebar, tracking the row 
+    * under the mouse and expanding modules or showing entries
+    * when their rows are clicked.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class VirtualSidebarHandler extends MouseAdapter
+   {
+      @Override
+      public void mouseReleased(MouseEvent e)
+      {
+         if (!SwingUtilities.isLeftMouseButton(e))
+         {
+            return;
+         }
+         int row = rowAt(e.getPoint());
+         if (row == -1)
+         {
+            return;
+         }
+         Object value = sidebarRows.getElementAt(row);
+         if (value instanceof BJADNavModule)
+         {
+            toggleVirtualModule(sidebarRows.moduleAt(row));
+         }
+         else if (((BJADModuleEntry)value).hasNavPanel())
+         {
+            switchContentDisplay((BJADModuleEntry)value);
+         }
+      }
+      
+      @Override
+      public void mouseMoved(MouseEvent e)
+      {
+         int row = rowAt(e.getPoint());
+         if (row != hoverRow)
+         {
+            repaintSidebarRow(hoverRow);
+            hoverRow = row;
+            repaintSidebarRow(hoverRow);
+            if (row != -1)
+            {
+               Object value = sidebarRows.getElementAt(row);
+               if (value instanceof BJADModuleEntry && ((BJADModuleEntry)value).hasNavPanel())
+               {
+                  schedulePrewarm((BJADModuleEntry)value);
+               }
+            }
+         }
+      }
+      
+      @Override
+      public void mouseExited(MouseEvent e)
+      {
+         repaintSidebarRow(hoverRow);
+         hoverRow = -1;
+      }
+      
+      /**
+       * Returns the row at the point, only if the point is within
+       * the row rather than below the last row.
+       * 
+       * @param point
+       *    The point within the list.
+       * @return
+       *    The row, or -1.
+       */
+      private int rowAt(Point point)
+      {
+         int row = sidebarList.locationToIndex(point);
+         if (row != -1)
+         {
+            Rectangle bounds = sidebarList.getCellBounds(row, row);
+            if (bounds == null || !bounds.contains(point))
+            {
+               row = -1;
+            }
+         }
+         return row;
+      }
+   }
+   
+   /**
+    * Listener on the module registry, updating the slots of the 
+    * sidebar for the modules changed.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class RegistryHandler implements BJADModuleRegistryListener
+   {
+      @Override
+      public void moduleAdded(BJADModuleRegistry registry, BJADNavModule module, int index)
+      {
+         if (virtualSidebar)
+         {
+            // Expand the module unless only one section is shown at
+            // a time and another module is expanded.
+            boolean oneAtATime = sidebarBehaviour == SidebarSectionBehaviour.ONE_SECTION_AT_A_TIME;
+            if (expandedModule >= index)
+            {
+               ++expandedModule;
+            }
+            boolean expand = !oneAtATime || expandedModule == -1;
+            if (oneAtATime && expand)
+            {
+               expandedModule = index;
+            }
+            sidebarRows.insertModule(index, module, expand);
+         }
+         else
+         {
+            insertModuleSlot(module, index);
+         }
+         modulesChanged();
+      }
+
+      @Override
+      public void moduleRemoved(BJADModuleRegistry registry, BJADNavModule module, int index)
+      {
+         if (virtualSidebar)
+         {
+            if (expandedModule == index)
+            {
+               expandedModule = -1;
+            }
+            else if (expandedModule > index)
+            {
+               --expandedModule;
+            }
+            sidebarRows.removeModule(index);
+         }
+         else
+         {
+            LinkButtonWithNavModule moduleTitle = removeModuleSlot(index);
+            if (currentModulePanelShowing == moduleTitle.getEntryOptionsPanel())
+            {
+               currentModulePanelShowing = null;
+            }
+         }
+         dropModuleCards(module);
+         modulesChanged();
+      }
+
+      @Override
+      public void moduleMoved(BJADModuleRegistry registry, BJADNavModule module, int fromIndex, int toIndex)
+      {
+         if (virtualSidebar)
+         {
+            if (expandedModule == fromIndex)
+            {
+               expandedModule = toIndex;
+            }
+            else if (expandedModule != -1)
+            {
+               int shifted = expandedModule > fromIndex ? expandedModule - 1 : expandedModule;
+               expandedModule = shifted >= toIndex ? shifted + 1 : shifted;
+            }
+            sidebarRows.moveModule(fromIndex, toIndex);
+         }
+         else
+         {
+            LinkButtonWithNavModule moduleTitle = removeModuleSlot(fromIndex);
+            moduleListingPanel.add(moduleTitle, toIndex * 2);
+            moduleListingPanel.add(moduleTitle.getEntryOptionsPanel(), toIndex * 2 + 1);
+         }
+         modulesChanged();
+      }
+
+      @Override
+      public void moduleUpdated(BJADModuleRegistry registry, BJADNavModule module, int index)
+      {
+         if (virtualSidebar)
+         {
+            sidebarRows.updateModule(index);
+         }
+         else
+         {
+            // Rebuild the links of the entries, now if they are
+            // showing, otherwise when the module is expanded.
+            LinkButtonWithNavModule moduleTitle = (LinkButtonWithNavModule)moduleListingPanel.getComponent(index * 2);
+            moduleTitle.setText(module.getDisplayName());
+            moduleTitle.setIcon(module.getIcon());
+            moduleTitle.getEntryOptionsPanel().removeAll();
+            moduleTitle.entryOptionsBuilt = false;
+            if (moduleTitle.getEntryOptionsPanel().isVisible())
+            {
+               ensureModuleOptions(moduleTitle);
+            }
+         }
+         modulesChanged();
+      }
+      
+      /**
+       * Lays out the module listing again and drops the search
+       * index, to be built again with the modules changed.
+       */
+      private void modulesChanged()
+      {
+         hoverRow = -1;
+         searchIndex = null;
+         if (quickOpenPalette != null)
+         {
+            quickOpenPalette.dispose();
+            quickOpenPalette = null;
+         }
+         relayoutModuleListing();
+      }
+   }
+   
+   /**
+    * Action opening the quick open palette from its key stroke.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class QuickOpenAction extends AbstractAction
+   {
+      private static final long serialVersionUID = 5128870422694160357L;
+
+      @Override
+      public void actionPerformed(ActionEvent e)
+      {
+         showQuickOpen();
+      }
+   }
+   
+   /**
+    * Mouse listener prewarming the panel of an entry while the
+    * mouse hovers its link.
+    *
+    * @author 
+    *   Ben Dougall
+    */
+   private class PrewarmOnHover extends MouseAdapter
+   {
+      @Override
+      public void mouseEntered(MouseEvent e)
+      {
+         schedulePrewarm(((LinkButtonWithModuleEntry)e.getSource()).getModuleEntry());
       }
-      moduleEntryInFocus = entry;
    }
 }
 
@@ -268,6 +1343,8 @@ class LinkButtonWithNavModule extends LinkButton
    private static final long serialVersionUID = 6303110187316684688L;
    protected BJADNavModule navModule = null;
    protected JPanel entryOptionsPanel = null;
+   /** True once the links of the module's entries are added to the options panel. */
+   boolean entryOptionsBuilt = false;
    
    /**
     * Constructor setting mav module for the 
@@ -289,7 +1366,7 @@ class LinkButtonWithNavModule extends LinkButton
       this.entryOptionsPanel = entryOptionsPanel;
       
       // Don't bold the text as the header for the module would be bolded.
-      this.setFont(this.getFont().deriveFont(Font.BOLD));
+      this.setFontStyle(Font.BOLD);
       // Not a tabbing stop.
       this.setFocusable(false);
    }
@@ -374,7 +1451,7 @@ class LinkButtonWithModuleEntry extends LinkButton
       this.moduleEntry = moduleEntry;
       
       // Don't bold the text as the header for the module would be bolded.
-      this.setFont(this.getFont().deriveFont(Font.PLAIN));
+      this.setFontStyle(Font.PLAIN);
       // Not a tabbing stop.
       this.setFocusable(false);
    }
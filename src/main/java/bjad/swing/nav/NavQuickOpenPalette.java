@@ -0,0 +1,294 @@
+package bjad.swing.nav;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Window;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JDialog;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.LineBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import bjad.swing.TextField;
+
+/**
+ * Quick open palette of the sidebar content pane, searching the
+ * entries of the modules as the user types and showing the entry
+ * chosen with the enter key or a click.
+ * <p>
+ * The arrow keys move through the matches, and escape or leaving
+ * the palette closes it.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+class NavQuickOpenPalette extends JDialog
+{
+   private static final long serialVersionUID = 2360419184270575130L;
+
+   /** The most matches shown at once. */
+   private static final int RESULT_LIMIT = 12;
+
+   private final transient NavSearchIndex index;
+   private final transient Consumer<BJADModuleEntry> activation;
+   private final TextField queryField = new TextField();
+   private final HitListModel hitModel = new HitListModel();
+   private final JList<NavSearchIndex.SearchHit> hitList = new JList<>(hitModel);
+
+   /**
+    * Constructor, creating the palette for the window.
+    *
+    * @param owner
+    *    The window the palette is shown over.
+    * @param index
+    *    The index of the entries to search.
+    * @param activation
+    *    Shows the entry chosen.
+    */
+   NavQuickOpenPalette(Window owner, NavSearchIndex index, Consumer<BJADModuleEntry> activation)
+   {
+      super(owner);
+      this.index = index;
+      this.activation = activation;
+
+      setUndecorated(true);
+      setFocusableWindowState(true);
+
+      queryField.setPlaceholderText("Search for a screen");
+      queryField.getDocument().addDocumentListener(new QueryHandler());
+      queryField.addKeyListener(new KeyHandler());
+
+      hitList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+      hitList.setFocusable(false);
+      hitList.setVisibleRowCount(RESULT_LIMIT);
+      hitList.addMouseListener(new ClickHandler());
+
+      JPanel content = new JPanel(new BorderLayout(0, 4), true);
+      content.setBorder(new CompoundBorder(new LineBorder(Color.darkGray), new EmptyBorder(6, 6, 6, 6)));
+      content.add(queryField, BorderLayout.NORTH);
+      content.add(new JScrollPane(hitList), BorderLayout.CENTER);
+      setContentPane(content);
+      setSize(new Dimension(360, 280));
+
+      addWindowListener(new CloseOnDeactivate());
+   }
+
+   /**
+    * Shows the palette near the top of the window with an empty
+    * query, listing the first entries.
+    */
+   void open()
+   {
+      queryField.setText("");
+      refresh();
+      Window owner = getOwner();
+      Point location = owner.getLocationOnScreen();
+      setLocation(location.x + (owner.getWidth() - getWidth()) / 2, location.y + 60);
+      setVisible(true);
+      queryField.requestFocusInWindow();
+   }
+
+   /**
+    * Searches for the query typed, selecting the best match.
+    */
+   private void refresh()
+   {
+      hitModel.setHits(index.search(queryField.getText(), RESULT_LIMIT));
+      if (hitModel.getSize() != 0)
+      {
+         hitList.setSelectedIndex(0);
+      }
+   }
+
+   /**
+    * Moves the selection through the matches.
+    *
+    * @param step
+    *    The count of matches to move by.
+    */
+   private void moveSelection(int step)
+   {
+      int size = hitModel.getSize();
+      if (size != 0)
+      {
+         int selected = Math.max(0, Math.min(size - 1, hitList.getSelectedIndex() + step));
+         hitList.setSelectedIndex(selected);
+         hitList.ensureIndexIsVisible(selected);
+      }
+   }
+
+   /**
+    * Closes the palette and shows the entry of the selected match.
+    */
+   private void activateSelected()
+   {
+      NavSearchIndex.SearchHit hit = hitList.getSelectedValue();
+      if (hit != null)
+      {
+         setVisible(false);
+         activation.accept(hit.entry);
+      }
+   }
+
+   /**
+    * List model of the matches, replaced all at once after each
+    * search.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class HitListModel extends AbstractListModel<NavSearchIndex.SearchHit>
+   {
+      private static final long serialVersionUID = -1906128873451527739L;
+
+      private transient List<NavSearchIndex.SearchHit> hits = Collections.emptyList();
+
+      void setHits(List<NavSearchIndex.SearchHit> hits)
+      {
+         int oldSize = this.hits.size();
+         this.hits = hits;
+         if (oldSize > hits.size())
+         {
+            fireIntervalRemoved(this, hits.size(), oldSize - 1);
+         }
+         else if (oldSize < hits.size())
+         {
+            fireIntervalAdded(this, oldSize, hits.size() - 1);
+         }
+         if (Math.min(oldSize, hits.size()) != 0)
+         {
+            fireContentsChanged(this, 0, Math.min(oldSize, hits.size()) - 1);
+         }
+      }
+
+      @Override
+      public int getSize()
+      {
+         return hits.size();
+      }
+
+      @Override
+      public NavSearchIndex.SearchHit getElementAt(int index)
+      {
+         return hits.get(index);
+      }
+   }
+
+   /**
+    * Listener searching again whenever the query changes.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private class QueryHandler implements DocumentListener
+   {
+      @Override
+      public void insertUpdate(DocumentEvent e)
+      {
+         refresh();
+      }
+
+      @Override
+      public void removeUpdate(DocumentEvent e)
+      {
+         refresh();
+      }
+
+      @Override
+      public void changedUpdate(DocumentEvent e)
+      {
+         ; // attribute changes do not affect the query.
+      }
+   }
+
+   /**
+    * Key listener on the query, moving through the matches and
+    * choosing or closing the palette.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private class KeyHandler extends KeyAdapter
+   {
+      @Override
+      public void keyPressed(KeyEvent e)
+      {
+         switch (e.getKeyCode())
+         {
+         case KeyEvent.VK_DOWN:
+            moveSelection(1);
+            e.consume();
+            break;
+         case KeyEvent.VK_UP:
+            moveSelection(-1);
+            e.consume();
+            break;
+         case KeyEvent.VK_ENTER:
+            activateSelected();
+            e.consume();
+            break;
+         case KeyEvent.VK_ESCAPE:
+            setVisible(false);
+            e.consume();
+            break;
+         default:
+            break;
+         }
+      }
+   }
+
+   /**
+    * Window listener closing the palette when the user moves to
+    * another window.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private class CloseOnDeactivate extends WindowAdapter
+   {
+      @Override
+      public void windowDeactivated(WindowEvent e)
+      {
+         setVisible(false);
+      }
+   }
+
+   /**
+    * Mouse listener choosing the match clicked.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private class ClickHandler extends MouseAdapter
+   {
+      @Override
+      public void mouseClicked(MouseEvent e)
+      {
+         int row = hitList.locationToIndex(e.getPoint());
+         if (row != -1)
+         {
+            hitList.setSelectedIndex(row);
+            activateSelected();
+         }
+      }
+   }
+}
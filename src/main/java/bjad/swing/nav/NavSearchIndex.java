@@ -0,0 +1,273 @@
+package bjad.swing.nav;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Index of the entries of the modules for the quick open palette,
+ * built once from the sorted modules, finding the entries whose
+ * module and display names contain the characters of a query in
+ * order, such as "numdem" for "NumField Demo".
+ * <p>
+ * The name of each entry is kept lowercased after the name of its
+ * module, along with a mask of the characters in them, so entries
+ * missing a character of the query are skipped without looking at
+ * their names. Matches are scored higher for characters matching
+ * one after another, at the start of a word or within the entry's
+ * own name, and only the best matches are kept while searching.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class NavSearchIndex
+{
+   private static final int CONSECUTIVE_BONUS = 4;
+   private static final int WORD_START_BONUS = 3;
+   private static final int ENTRY_NAME_BONUS = 2;
+   /** Added when the query matches within the entry's name alone. */
+   private static final int ENTRY_ONLY_BONUS = 10;
+
+   private final SearchHit[] hits;
+   private final char[][] names;
+   private final int[] entryStarts;
+   private final long[] masks;
+
+   /**
+    * Constructor, indexing the entries with panels of the modules.
+    *
+    * @param modules
+    *    The modules, sorted.
+    */
+   NavSearchIndex(List<BJADNavModule> modules)
+   {
+      List<SearchHit> indexed = new ArrayList<>();
+      for (BJADNavModule module : modules)
+      {
+         for (BJADModuleEntry entry : module.getEntries())
+         {
+            if (entry.hasNavPanel())
+            {
+               indexed.add(new SearchHit(module, entry));
+            }
+         }
+      }
+      this.hits = indexed.toArray(new SearchHit[indexed.size()]);
+      this.names = new char[hits.length][];
+      this.entryStarts = new int[hits.length];
+      this.masks = new long[hits.length];
+      for (int index = 0; index != hits.length; ++index)
+      {
+         String moduleName = lowercase(hits[index].module.getDisplayName());
+         names[index] = (moduleName + " " + lowercase(hits[index].entry.getDisplayName())).toCharArray();
+         entryStarts[index] = moduleName.length() + 1;
+         masks[index] = maskOf(names[index], names[index].length);
+      }
+   }
+
+   /**
+    * Returns the count of entries indexed.
+    *
+    * @return
+    *    The count of entries.
+    */
+   int size()
+   {
+      return hits.length;
+   }
+
+   /**
+    * Finds the entries best matching the query, best first, with
+    * matches scored the same kept in the order of the modules.
+    * Whitespace in the query is ignored, and an empty query
+    * matches the first entries.
+    *
+    * @param query
+    *    The text typed in the palette.
+    * @param limit
+    *    The most entries to return.
+    * @return
+    *    The matching entries.
+    */
+   List<SearchHit> search(String query, int limit)
+   {
+      char[] queryChars = new char[query.length()];
+      int queryLength = 0;
+      for (int index = 0; index != query.length(); ++index)
+      {
+         char c = query.charAt(index);
+         if (!Character.isWhitespace(c))
+         {
+            queryChars[queryLength++] = Character.toLowerCase(c);
+         }
+      }
+      if (limit <= 0)
+      {
+         return Collections.emptyList();
+      }
+
+      long queryMask = maskOf(queryChars, queryLength);
+      int[] bestIndexes = new int[limit];
+      int[] bestScores = new int[limit];
+      int found = 0;
+      for (int index = 0; index != hits.length; ++index)
+      {
+         if ((queryMask & ~masks[index]) != 0)
+         {
+            continue;
+         }
+         int score = score(index, queryChars, queryLength, entryStarts[index]);
+         if (score >= 0)
+         {
+            score += ENTRY_ONLY_BONUS;
+         }
+         else
+         {
+            score = score(index, queryChars, queryLength, 0);
+            if (score < 0)
+            {
+               continue;
+            }
+         }
+         if (found == limit && score <= bestScores[limit - 1])
+         {
+            continue;
+         }
+
+         // Insert after the matches scored the same, so they stay
+         // in the order of the modules.
+         int position = found == limit ? limit - 1 : found++;
+         while (position > 0 && bestScores[position - 1] < score)
+         {
+            bestScores[position] = bestScores[position - 1];
+            bestIndexes[position] = bestIndexes[position - 1];
+            --position;
+         }
+         bestScores[position] = score;
+         bestIndexes[position] = index;
+      }
+
+      List<SearchHit> results = new ArrayList<>(found);
+      for (int index = 0; index != found; ++index)
+      {
+         results.add(hits[bestIndexes[index]]);
+      }
+      return results;
+   }
+
+   /**
+    * Scores the query against the name of an indexed entry from a
+    * position, matching each character of the query to the first
+    * one after the previous match.
+    *
+    * @param index
+    *    The index of the entry.
+    * @param query
+    *    The lowercased query.
+    * @param queryLength
+    *    The count of characters in the query.
+    * @param start
+    *    The position in the name to start matching from.
+    * @return
+    *    The score, or -1 if the query does not match.
+    */
+   private int score(int index, char[] query, int queryLength, int start)
+   {
+      char[] name = names[index];
+      int entryStart = entryStarts[index];
+      int score = 0;
+      int previous = -2;
+      int matched = 0;
+      for (int position = start; position < name.length && matched < queryLength; ++position)
+      {
+         if (name[position] == query[matched])
+         {
+            score += 1;
+            if (position == previous + 1)
+            {
+               score += CONSECUTIVE_BONUS;
+            }
+            if (position == 0 || !Character.isLetterOrDigit(name[position - 1]))
+            {
+               score += WORD_START_BONUS;
+            }
+            if (position >= entryStart)
+            {
+               score += ENTRY_NAME_BONUS;
+            }
+            previous = position;
+            ++matched;
+         }
+      }
+      return matched == queryLength ? score : -1;
+   }
+
+   /**
+    * Returns the mask of the characters in the text, a bit for
+    * each letter and digit and the rest sharing the other bits.
+    *
+    * @param text
+    *    The lowercased text.
+    * @param length
+    *    The count of characters in the text.
+    * @return
+    *    The mask of the characters.
+    */
+   private static long maskOf(char[] text, int length)
+   {
+      long mask = 0;
+      for (int index = 0; index != length; ++index)
+      {
+         char c = text[index];
+         int bit;
+         if (c >= 'a' && c <= 'z')
+         {
+            bit = c - 'a';
+         }
+         else if (c >= '0' && c <= '9')
+         {
+            bit = 26 + c - '0';
+         }
+         else
+         {
+            bit = 36 + c % 28;
+         }
+         mask |= 1L << bit;
+      }
+      return mask;
+   }
+
+   private static String lowercase(String text)
+   {
+      return text == null ? "" : text.toLowerCase(Locale.ROOT);
+   }
+
+   /**
+    * An indexed entry along with its module, and the text to show
+    * for it in the palette.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   static final class SearchHit
+   {
+      final BJADNavModule module;
+      final BJADModuleEntry entry;
+      final String label;
+
+      SearchHit(BJADNavModule module, BJADModuleEntry entry)
+      {
+         this.module = module;
+         this.entry = entry;
+         this.label = entry.getDisplayName() + " - " + module.getDisplayName();
+      }
+
+      @Override
+      public String toString()
+      {
+         return label;
+      }
+   }
+}
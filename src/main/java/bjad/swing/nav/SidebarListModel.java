@@ -0,0 +1,306 @@
+package bjad.swing.nav;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * Flattened list of the sidebar rows for the virtual sidebar,
+ * holding the header row of each module followed by the rows of
+ * its entries while the module is expanded.
+ * <p>
+ * The rows are never stored. The row each module's header is on
+ * is kept instead, and a row is found by searching those for the
+ * module it belongs to. Expanding or collapsing a module only
+ * flips its flag and marks the header rows after it as stale,
+ * which are worked out again the next time a row is looked up,
+ * from the count of entries in each module rather than from the
+ * entries themselves. Modules added, removed or moved the same
+ * way only notify the list of their own rows.
+ * </p>
+ *
+ * @author
+ *   Ben Dougall
+ */
+final class SidebarListModel extends AbstractListModel<Object>
+{
+   private static final long serialVersionUID = -3471528913402858310L;
+
+   private final List<ModuleRows> modules = new ArrayList<>();
+
+   /**
+    * The row of each module's header, with the count of rows after
+    * the header of the last module.
+    */
+   private int[] headerRows = new int[1];
+   /** The modules whose header rows are up to date. */
+   private int validHeaderRows = 1;
+
+   /**
+    * Constructor, setting the sorted modules to list, each starting
+    * expanded or collapsed.
+    *
+    * @param modules
+    *    The modules, sorted.
+    * @param startExpanded
+    *    True to start each module expanded.
+    */
+   SidebarListModel(List<BJADNavModule> modules, boolean startExpanded)
+   {
+      for (BJADNavModule module : modules)
+      {
+         this.modules.add(new ModuleRows(module, startExpanded));
+      }
+      this.headerRows = new int[this.modules.size() + 1];
+   }
+
+   @Override
+   public int getSize()
+   {
+      return headerRow(modules.size());
+   }
+
+   @Override
+   public Object getElementAt(int index)
+   {
+      int module = moduleAt(index);
+      int entry = index - headerRow(module) - 1;
+      return entry == -1 ? modules.get(module).module : modules.get(module).entries[entry];
+   }
+
+   /**
+    * Returns the count of modules listed.
+    *
+    * @return
+    *    The count of modules.
+    */
+   int getModuleCount()
+   {
+      return modules.size();
+   }
+
+   /**
+    * Returns the index of the module a row belongs to, either as
+    * its header or one of its entries.
+    *
+    * @param row
+    *    The row.
+    * @return
+    *    The index of the module.
+    */
+   int moduleAt(int row)
+   {
+      if (row < 0 || row >= getSize())
+      {
+         throw new IndexOutOfBoundsException("Row " + row + " outside of size " + getSize());
+      }
+      int low = 0;
+      int high = modules.size() - 1;
+      while (low < high)
+      {
+         int mid = (low + high + 1) >>> 1;
+         if (headerRows[mid] <= row)
+         {
+            low = mid;
+         }
+         else
+         {
+            high = mid - 1;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * Returns true if the module's entries are listed.
+    *
+    * @param module
+    *    The index of the module.
+    * @return
+    *    True if the module is expanded.
+    */
+   boolean isExpanded(int module)
+   {
+      return modules.get(module).expanded;
+   }
+
+   /**
+    * Expands or collapses the module, notifying the list of the
+    * rows of the module's entries being added or removed.
+    *
+    * @param module
+    *    The index of the module.
+    * @param expand
+    *    True to expand the module, false to collapse it.
+    */
+   void setExpanded(int module, boolean expand)
+   {
+      ModuleRows rows = modules.get(module);
+      if (rows.expanded == expand)
+      {
+         return;
+      }
+      rows.expanded = expand;
+      validHeaderRows = Math.min(validHeaderRows, module + 1);
+
+      int count = rows.entries.length;
+      if (count != 0)
+      {
+         int firstRow = headerRow(module) + 1;
+         if (expand)
+         {
+            fireIntervalAdded(this, firstRow, firstRow + count - 1);
+         }
+         else
+         {
+            fireIntervalRemoved(this, firstRow, firstRow + count - 1);
+         }
+      }
+   }
+
+   /**
+    * Inserts the module, notifying the list of its rows being added.
+    *
+    * @param module
+    *    The index to insert the module at.
+    * @param navModule
+    *    The module.
+    * @param expand
+    *    True to list the module's entries.
+    */
+   void insertModule(int module, BJADNavModule navModule, boolean expand)
+   {
+      insertRows(module, new ModuleRows(navModule, expand));
+   }
+
+   /**
+    * Removes the module, notifying the list of its rows being
+    * removed.
+    *
+    * @param module
+    *    The index of the module.
+    */
+   void removeModule(int module)
+   {
+      removeRows(module);
+   }
+
+   /**
+    * Moves the module, keeping it expanded or collapsed.
+    *
+    * @param fromModule
+    *    The index the module is at.
+    * @param toModule
+    *    The index to move the module to, once it is removed from
+    *    where it is.
+    */
+   void moveModule(int fromModule, int toModule)
+   {
+      insertRows(toModule, removeRows(fromModule));
+   }
+
+   /**
+    * Lists the module's entries again after they changed, keeping
+    * the module expanded or collapsed.
+    *
+    * @param module
+    *    The index of the module.
+    */
+   void updateModule(int module)
+   {
+      ModuleRows rows = removeRows(module);
+      insertRows(module, new ModuleRows(rows.module, rows.expanded));
+   }
+
+   /**
+    * Inserts the rows of a module, notifying the list.
+    *
+    * @param module
+    *    The index to insert the module at.
+    * @param rows
+    *    The rows of the module.
+    */
+   private void insertRows(int module, ModuleRows rows)
+   {
+      modules.add(module, rows);
+      if (headerRows.length < modules.size() + 1)
+      {
+         headerRows = Arrays.copyOf(headerRows, Math.max(modules.size() + 1, headerRows.length * 2));
+      }
+      validHeaderRows = Math.min(validHeaderRows, module + 1);
+
+      int firstRow = headerRow(module);
+      fireIntervalAdded(this, firstRow, firstRow + rows.count() - 1);
+   }
+
+   /**
+    * Removes the rows of a module, notifying the list.
+    *
+    * @param module
+    *    The index of the module.
+    * @return
+    *    The rows of the module removed.
+    */
+   private ModuleRows removeRows(int module)
+   {
+      int firstRow = headerRow(module);
+      ModuleRows rows = modules.remove(module);
+      validHeaderRows = Math.min(validHeaderRows, module + 1);
+      fireIntervalRemoved(this, firstRow, firstRow + rows.count() - 1);
+      return rows;
+   }
+
+   /**
+    * Returns the row of the module's header, working out the
+    * stale header rows up to the module first.
+    *
+    * @param module
+    *    The index of the module, or the count of modules for the
+    *    count of rows.
+    * @return
+    *    The row of the header.
+    */
+   private int headerRow(int module)
+   {
+      for (; validHeaderRows <= module; ++validHeaderRows)
+      {
+         headerRows[validHeaderRows] = headerRows[validHeaderRows - 1] + modules.get(validHeaderRows - 1).count();
+      }
+      return headerRows[module];
+   }
+
+   /**
+    * A module along with its entries when it was listed and
+    * whether they are shown.
+    *
+    * @author
+    *   Ben Dougall
+    */
+   private static final class ModuleRows
+   {
+      final BJADNavModule module;
+      final BJADModuleEntry[] entries;
+      boolean expanded;
+
+      ModuleRows(BJADNavModule module, boolean expanded)
+      {
+         this.module = module;
+         this.entries = module.getEntries().toArray(new BJADModuleEntry[module.getEntries().size()]);
+         this.expanded = expanded;
+      }
+
+      /**
+       * Returns the count of rows of the module, its header and
+       * its entries if expanded.
+       *
+       * @return
+       *    The count of rows.
+       */
+      int count()
+      {
+         return 1 + (expanded ? entries.length : 0);
+      }
+   }
+}
@@ -34,6 +34,8 @@ import bjad.swing.BJADComboBox;
 import bjad.swing.CountryDropdown;
 import bjad.swing.DateEntryField;
 import bjad.swing.DateTimeTextField;
+import bjad.swing.FieldRule;
+import bjad.swing.FormValidationReport;
 import bjad.swing.NumericTextField;
 import bjad.swing.TextField;
 import bjad.swing.WrappedLabel;
@@ -76,7 +78,7 @@ public class BJADTestSidebarApp extends JFrame
       BJADModuleEntry entry = new BJADModuleEntry();
       entry.setDisplayName("Demo");
       entry.setOrdinial(1);
-      entry.setNavPanel(new PositionerDemoPanel());
+      entry.setNavPanelSupplier(PositionerDemoPanel::new);
       module.getEntries().add(entry);
       modules.add(module);
       
@@ -87,26 +89,26 @@ public class BJADTestSidebarApp extends JFrame
       entry = new BJADModuleEntry();
       entry.setDisplayName("TextField Demo");
       entry.setOrdinial(1);
-      entry.setNavPanel(new TextFieldEntryPanel());
+      entry.setNavPanelSupplier(TextFieldEntryPanel::new);
       module.getEntries().add(entry);
       
       entry = new BJADModuleEntry();
       entry.setDisplayName("NumField Demo");
       entry.setOrdinial(0);
       module.getEntries().add(entry);
-      entry.setNavPanel(new NumericEntryPanel());
+      entry.setNavPanelSupplier(NumericEntryPanel::new);
       
       entry = new BJADModuleEntry();
       entry.setDisplayName("DateField Demo");
       entry.setOrdinial(0);
       module.getEntries().add(entry);
-      entry.setNavPanel(new DateEntryPanel());
+      entry.setNavPanelSupplier(DateEntryPanel::new);
       
       entry = new BJADModuleEntry();
       entry.setDisplayName("Dropdown Demo");
       entry.setOrdinial(0);
       module.getEntries().add(entry);
-      entry.setNavPanel(new DropdownDemoPanel());
+      entry.setNavPanelSupplier(DropdownDemoPanel::new);
       modules.add(module);
       
       setContentPane(new BJADSidebarNavContentPane(modules, SidebarSectionBehaviour.ALL_SHOWN_AND_USER_CAN_COLLAPSE));
@@ -248,6 +250,7 @@ class NumericEntryPanel extends AbstractBJADNavPanel
       pane.add(moneyField, BorderLayout.CENTER);
       moneyField.setPlaceholderText("Decimal Field but with 2 decimal places maximum.");
       content.add(pane);
+      getFormValidator().addRule(moneyField, FieldRule.required("Money field must cannot be empty prior to navigating to next screen."));
       
       this.add(content, BorderLayout.NORTH);
       this.add(new JLabel(""), BorderLayout.CENTER);
@@ -272,13 +275,12 @@ class NumericEntryPanel extends AbstractBJADNavPanel
    @Override
    public boolean canPanelClose()
    {
-      boolean ret = !moneyField.isFieldEmpty();
-      if (!ret)
+      FormValidationReport report = validateForm();
+      if (!report.isValid())
       {
-         JOptionPane.showMessageDialog(this, "Money field must cannot be empty prior to navigating to next screen.", "Validation", JOptionPane.WARNING_MESSAGE);
-         moneyField.requestFocusInWindow();
+         JOptionPane.showMessageDialog(this, report.getErrors().get(0).getMessage(), "Validation", JOptionPane.WARNING_MESSAGE);
       }
-      return ret;
+      return report.isValid();
    }
 
    @Override
@@ -616,6 +618,7 @@ class DropdownDemoPanel extends AbstractBJADNavPanel implements ItemListener, Ca
       
       countryDropdown.setSelectedIndex(-1);
       countryDropdown.setPlaceholderText("Select a country");
+      countryDropdown.setTypeaheadEnabled(true);
       
       this.add(content, BorderLayout.NORTH);
       this.add(new JLabel(""), BorderLayout.CENTER);